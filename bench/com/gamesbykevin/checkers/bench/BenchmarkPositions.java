@@ -0,0 +1,85 @@
+package com.gamesbykevin.checkers.bench;
+
+import com.gamesbykevin.checkers.player.Human;
+import com.gamesbykevin.checkers.player.Player;
+import com.gamesbykevin.checkers.player.Players;
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * The fixed positions every benchmark is measured against, so results can be compared between releases
+ * @author GOD
+ */
+public final class BenchmarkPositions
+{
+    /**
+     * The names of the positions, used as the value of a benchmark parameter
+     */
+    public static final String START = "start";
+    public static final String OPENING = "opening";
+    public static final String MIDDLE = "middle";
+    public static final String ENDGAME = "endgame";
+    
+    //the positions as read by Position.parse()
+    private static final String TEXT_START = "N:ssssssssssss........nnnnnnnnnnnn";
+    private static final String TEXT_OPENING = "N:s.sss.sss.sssn........nnnnnn.nnn";
+    private static final String TEXT_MIDDLE = "N:...ss.....ns.s......n.n......Snn";
+    private static final String TEXT_ENDGAME = "N:....N......s....s.......S....S.n";
+    
+    private BenchmarkPositions()
+    {
+        //this class only contains static methods
+    }
+    
+    /**
+     * Get the position
+     * @param name The name of the position
+     * @return A new copy of the position
+     * @throws Exception If the name is not valid
+     */
+    public static Position getPosition(final String name) throws Exception
+    {
+        switch (name)
+        {
+            case START:
+                return Position.parse(TEXT_START);
+            
+            case OPENING:
+                return Position.parse(TEXT_OPENING);
+            
+            case MIDDLE:
+                return Position.parse(TEXT_MIDDLE);
+            
+            case ENDGAME:
+                return Position.parse(TEXT_ENDGAME);
+            
+            default:
+                throw new Exception("Position not found: " + name);
+        }
+    }
+    
+    /**
+     * Create a player holding the checkers for 1 side of the position
+     * @param source The position to copy the pieces from
+     * @param shared The position the player will update, shared with the opponent
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The player
+     * @throws Exception If a piece can't be placed
+     */
+    public static Player createPlayer(final Position source, final Position shared, final boolean north) throws Exception
+    {
+        final Player player = (north) ?
+            new Human(shared, true, Players.PieceKey.RegularPlayer1, Players.PieceKey.KingPlayer1) :
+            new Human(shared, false, Players.PieceKey.RegularPlayer2, Players.PieceKey.KingPlayer2);
+        
+        for (int square = 0; square < Position.SQUARES; square++)
+        {
+            final int col = Position.getColumn(square);
+            final int row = Position.getRow(square);
+            
+            if (source.hasPiece(north, col, row))
+                player.add(col, row, source.isKing(col, row));
+        }
+        
+        return player;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.gamesbykevin.checkers.bench;
+
+import com.gamesbykevin.checkers.board.Board;
+import com.gamesbykevin.checkers.board.Board3d;
+import com.gamesbykevin.checkers.resources.GameImages;
+import com.gamesbykevin.checkers.shared.Shared;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measure finding the cell under the mouse on the isometric board
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardBenchmark
+{
+    //the distance between each mouse location tested
+    private static final int STEP = 16;
+    
+    //the board to test
+    private Board board;
+    
+    @Setup
+    public void setup() throws Exception
+    {
+        this.board = new Board3d(GameImages.Keys.BoardWood);
+    }
+    
+    /**
+     * Find the column and row for mouse locations across the whole screen, most of them off of the board
+     */
+    @Benchmark
+    public void getColumnRow(final Blackhole blackhole) throws Exception
+    {
+        for (int y = 0; y < Shared.ORIGINAL_HEIGHT; y += STEP)
+        {
+            for (int x = 0; x < Shared.ORIGINAL_WIDTH; x += STEP)
+            {
+                blackhole.consume(board.getColumn(x, y));
+                blackhole.consume(board.getRow(x, y));
+            }
+        }
+    }
+}
\ No newline at end of file
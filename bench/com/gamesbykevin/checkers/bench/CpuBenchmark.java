@@ -0,0 +1,56 @@
+package com.gamesbykevin.checkers.bench;
+
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Search;
+import com.gamesbykevin.checkers.search.SearchResult;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure how long the cpu takes to decide on a move.<br>
+ * The search is to a fixed depth, so the result doesn't depend on how fast the machine is.<br>
+ * The transposition table is cleared before each decision, the same as the first move the cpu makes.
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CpuBenchmark
+{
+    @Param({BenchmarkPositions.START, BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLE, BenchmarkPositions.ENDGAME})
+    public String position;
+    
+    @Param({"6", "10"})
+    public int depth;
+    
+    //the position to decide on
+    private Position root;
+    
+    //the search the cpu uses
+    private Search search;
+    
+    @Setup
+    public void setup() throws Exception
+    {
+        this.root = BenchmarkPositions.getPosition(position);
+        this.search = new Search();
+    }
+    
+    @Benchmark
+    public SearchResult decide() throws Exception
+    {
+        //don't let the previous decision help
+        search.getTable().clear();
+        
+        return search.search(root, depth);
+    }
+}
\ No newline at end of file
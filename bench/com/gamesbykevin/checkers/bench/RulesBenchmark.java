@@ -0,0 +1,105 @@
+package com.gamesbykevin.checkers.bench;
+
+import com.gamesbykevin.checkers.board.Board;
+import com.gamesbykevin.checkers.piece.Checker;
+import com.gamesbykevin.checkers.player.Player;
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measure the rules checks used every update by the players
+ * @author GOD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RulesBenchmark
+{
+    @Param({BenchmarkPositions.START, BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLE, BenchmarkPositions.ENDGAME})
+    public String position;
+    
+    //the players holding the checkers, sharing 1 position
+    private Player north, south;
+    
+    //the checkers of the player attacking north
+    private Checker[] pieces;
+    
+    //the buffer for move generation
+    private long[] moves;
+    
+    @Setup
+    public void setup() throws Exception
+    {
+        final Position source = BenchmarkPositions.getPosition(position);
+        final Position shared = new Position();
+        
+        this.north = BenchmarkPositions.createPlayer(source, shared, true);
+        this.south = BenchmarkPositions.createPlayer(source, shared, false);
+        
+        //the player to move needs to match the source
+        shared.setNorthTurn(source.isNorthTurn());
+        
+        this.pieces = new Checker[Integer.bitCount(shared.getPieces(true))];
+        
+        int index = 0;
+        
+        for (int square = 0; square < Position.SQUARES; square++)
+        {
+            if (north.hasPiece(Position.getColumn(square), Position.getRow(square)))
+                pieces[index++] = north.getPiece(Position.getColumn(square), Position.getRow(square));
+        }
+        
+        this.moves = new long[MoveGenerator.MAX_MOVES];
+    }
+    
+    /**
+     * Check every cell on the board for a piece
+     */
+    @Benchmark
+    public void hasPiece(final Blackhole blackhole)
+    {
+        for (int row = 0; row < Board.ROWS; row++)
+        {
+            for (int col = 0; col < Board.COLUMNS; col++)
+            {
+                blackhole.consume(north.hasPiece(col, row));
+            }
+        }
+    }
+    
+    /**
+     * Count the captures of every piece
+     */
+    @Benchmark
+    public void getCaptureCount(final Blackhole blackhole)
+    {
+        for (int i = 0; i < pieces.length; i++)
+        {
+            blackhole.consume(pieces[i].getCaptureCount(south, north));
+        }
+    }
+    
+    @Benchmark
+    public boolean isTrapped()
+    {
+        return north.isTrapped(south);
+    }
+    
+    @Benchmark
+    public int generate()
+    {
+        return MoveGenerator.generate(north.getPosition(), true, moves, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.Strength;
+import com.gamesbykevin.checkers.simulation.GameRecord;
+import com.gamesbykevin.checkers.simulation.HeadlessGame;
+
+import java.util.Random;
+
+/**
+ * This file will play cpu vs. cpu games without a window, audio or animation.<br>
+ * Usage: StartHeadless [games] [player 1 strength] [player 2 strength] [thinking time ms] [seed]<br>
+ * The strength is Easy, Hard or Expert, player 1 attacks north and moves first.
+ * @author GOD
+ */
+public final class StartHeadless
+{
+    //the default settings
+    private static final int DEFAULT_GAMES = 10;
+    private static final long DEFAULT_THINKING = 100L;
+    
+    private StartHeadless()
+    {
+        //this class only contains static methods
+    }
+    
+    public static void main(String[] args)
+    {
+        try
+        {
+            final int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+            final Strength strength1 = (args.length > 1) ? Strength.valueOf(args[1]) : Strength.Easy;
+            final Strength strength2 = (args.length > 2) ? Strength.valueOf(args[2]) : Strength.Easy;
+            final long thinking = (args.length > 3) ? Long.parseLong(args[3]) : DEFAULT_THINKING;
+            final Random random = (args.length > 4) ? new Random(Long.parseLong(args[4])) : new Random();
+            
+            final Searcher player1 = strength1.create(random);
+            final Searcher player2 = strength2.create(random);
+            
+            try
+            {
+                final HeadlessGame game = new HeadlessGame(player1, player2, thinking * 1000000L);
+                
+                final Position start = new Position();
+                start.setup();
+                
+                //the number of games with each result
+                final int[] results = new int[GameRecord.Result.values().length];
+                
+                long plies = 0;
+                long nodes = 0;
+                
+                final long time = System.nanoTime();
+                
+                for (int i = 1; i <= games; i++)
+                {
+                    final GameRecord record = game.play(start);
+                    
+                    results[record.getResult().ordinal()]++;
+                    plies += record.getPlies();
+                    nodes += record.getNodes();
+                    
+                    System.out.println("game " + i + ": " + record.getResult() + " (" + record.getReason() + "), plies " + record.getPlies() + ", " + (record.getTime() / 1000000L) + "ms");
+                }
+                
+                final double seconds = (System.nanoTime() - time) / 1000000000.0;
+                
+                System.out.println(
+                    "player 1 (" + strength1 + ") wins " + results[GameRecord.Result.NorthWin.ordinal()] +
+                    ", player 2 (" + strength2 + ") wins " + results[GameRecord.Result.SouthWin.ordinal()] +
+                    ", draws " + results[GameRecord.Result.Draw.ordinal()]);
+                System.out.println(
+                    "games " + games + ", average plies " + (games > 0 ? plies / games : 0) + ", nodes " + nodes +
+                    ", time " + String.format("%.2f", seconds) + "s, games/sec " + String.format("%.2f", games / seconds));
+            }
+            finally
+            {
+                player1.dispose();
+                player2.dispose();
+            }
+        }
+        catch(Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
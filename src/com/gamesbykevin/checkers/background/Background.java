@@ -22,6 +22,9 @@ public final class Background extends Sprite
     //the delay for the background to repeat
     private static final long DELAY = Timers.toNanoSeconds(15000L);
     
+    //the pixels the background moves at a time, every move means drawing the entire screen again
+    private static final int STEP = 4;
+    
     public Background(final Image image)
     {
         //assign background
@@ -55,8 +58,8 @@ public final class Background extends Sprite
         }
         else
         {
-            //the x pixels to offset
-            double offsetX = timer.getProgress() * imageWidth;
+            //the x pixels to offset, rounded down to a whole step
+            double offsetX = (int)(timer.getProgress() * imageWidth / STEP) * STEP;
             
             super.setX(-offsetX);
         }
@@ -49,6 +49,11 @@ public abstract class Board extends CustomImage
      */
     public static final int ROWS_MAX = ROWS - 1;
     
+    /**
+     * Represents a location that is not on the playable board
+     */
+    public static final int NO_CELL = -1;
+    
     //how large is the entire board including the part not playable (border)
     protected static final int BOARD_COLUMNS = COLUMNS + 2;
     protected static final int BOARD_ROWS = ROWS + 2;
@@ -116,6 +121,52 @@ public abstract class Board extends CustomImage
      */
     public abstract int getRow(final int x, final int y) throws Exception;
     
+    /**
+     * Get the cell at the associated location, the column and row are found together with 1 look up
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return The cell (see getCellColumn() and getCellRow()), NO_CELL if not on the playable board
+     * @throws Exception
+     */
+    public int getCell(final int x, final int y) throws Exception
+    {
+        final int column = getColumn(x, y);
+        final int row = getRow(x, y);
+        
+        return (hasBoundary(column, row)) ? toCell(column, row) : NO_CELL;
+    }
+    
+    /**
+     * Combine the column and row into a single cell
+     * @param column Column
+     * @param row Row
+     * @return The cell
+     */
+    public static int toCell(final int column, final int row)
+    {
+        return (row * COLUMNS) + column;
+    }
+    
+    /**
+     * Get the column of the cell
+     * @param cell The cell from getCell()
+     * @return The column
+     */
+    public static int getCellColumn(final int cell)
+    {
+        return cell % COLUMNS;
+    }
+    
+    /**
+     * Get the row of the cell
+     * @param cell The cell from getCell()
+     * @return The row
+     */
+    public static int getCellRow(final int cell)
+    {
+        return cell / COLUMNS;
+    }
+    
     /**
      * Each board will need to determine where the x-coordinate is at
      * @param col Column
@@ -4,7 +4,7 @@ import com.gamesbykevin.checkers.piece.Checker;
 import com.gamesbykevin.checkers.resources.GameImages;
 import com.gamesbykevin.checkers.shared.Shared;
 import java.awt.Color;
-import java.awt.Polygon;
+import java.awt.Graphics;
 
 /**
  * This class will create an isometric board
@@ -12,9 +12,6 @@ import java.awt.Polygon;
  */
 public final class Board3d extends Board
 {
-    //our temporary polygon for rendering and testing collision
-    private Polygon p = new Polygon();
-    
     /**
      * For isometric, we need to offset the column for user collision/detection
      */
@@ -33,6 +30,9 @@ public final class Board3d extends Board
     //the alternating colors for the board
     private Color light, dark;
     
+    //the corners and colors of every cell, used for rendering and testing collision
+    private final CellGeometry geometry;
+    
     public Board3d(GameImages.Keys key)
     {
         super((BOARD_COLUMNS) * CELL_DIMENSIONS, (BOARD_ROWS) * CELL_DIMENSIONS);
@@ -42,19 +42,19 @@ public final class Board3d extends Board
             case BoardGlass:
                 light = new Color(0f, 1f, 0f, .5f);
                 break;
-                
+            
             case BoardMarble:
                 light = new Color(.19f, .3f, .3f, 1f);
                 break;
-                
+            
             case BoardPlastic:
                 light = new Color(.47f, .53f, .6f, 1f);
                 break;
-                
+            
             case BoardWood:
                 light = new Color(0.8f, .52f, .24f, 1f);
                 break;
-                
+            
             case BoardOriginal:
             default:
                 light = new Color(1f, 0f, 0f, 1f);
@@ -68,6 +68,18 @@ public final class Board3d extends Board
             //the darker color will be 3 times darker than the lighter color
             dark = light.darker().darker().darker();
         }
+        
+        //calculate every cell once, the board is always rendered at the origin
+        this.geometry = new CellGeometry(CELL_DIMENSIONS, getStartX(), getStartY(), light, dark);
+    }
+    
+    /**
+     * Get the geometry of the cells
+     * @return The corners and colors of every cell, relative to the top left of the board image
+     */
+    public CellGeometry getGeometry()
+    {
+        return this.geometry;
     }
     
     /**
@@ -131,19 +143,11 @@ public final class Board3d extends Board
      * @return The column, if not in the board range -1 will be returned
      */
     @Override
-    public int getColumn(final int x, final int y) throws Exception
+    public int getColumn(final int x, final int y)
     {
-        for (int col = COLUMNS_MIN; col <= COLUMNS_MAX; col++)
-        {
-            for (int row = ROWS_MIN; row <= ROWS_MAX; row++)
-            {
-                //if the coordinate is within, return result 
-                if (getTopSide(col, row).contains(x, y))
-                    return (int)col;
-            }
-        }
+        final int cell = getCell(x, y);
         
-        return -1;
+        return (cell != NO_CELL) ? getCellColumn(cell) : -1;
     }
     
     /**
@@ -153,85 +157,23 @@ public final class Board3d extends Board
      * @return The row, if not in the board range -1 will be returned
      */
     @Override
-    public int getRow(final int x, final int y) throws Exception
+    public int getRow(final int x, final int y)
     {
-        for (int col = COLUMNS_MIN; col <= COLUMNS_MAX; col++)
-        {
-            for (int row = ROWS_MIN; row <= ROWS_MAX; row++)
-            {
-                //if the coordinate is within, return result 
-                if (getTopSide(col, row).contains(x, y))
-                    return row;
-            }
-        }
+        final int cell = getCell(x, y);
         
-        return -1;
+        return (cell != NO_CELL) ? getCellRow(cell) : -1;
     }
     
-    private Polygon getRightSide(final int col, final int row)
-    {
-        //determine the starting coordinate
-        final int x = this.getCoordinateX(col, row) + (int)getX();
-        final int y = this.getCoordinateY(col, row) + (int)getY();
-        
-        //remove existing
-        p.reset();
-        
-        //clear cache
-        p.invalidate();
-        
-        //add points
-        p.addPoint(x + (CELL_DIMENSIONS/2), y + (CELL_DIMENSIONS/2));
-        p.addPoint(x + (CELL_DIMENSIONS/2), y + CELL_DIMENSIONS);
-        p.addPoint(x + CELL_DIMENSIONS, y + (CELL_DIMENSIONS/2));
-        p.addPoint(x + CELL_DIMENSIONS, y);
-        
-        //return polygon
-        return p;
-    }
-    
-    private Polygon getFrontSide(final int col, final int row)
+    /**
+     * Get the cell at the associated location, without checking the cells one at a time
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return The cell, NO_CELL if not on the playable board
+     */
+    @Override
+    public int getCell(final int x, final int y)
     {
-        //determine the starting coordinate
-        final int x = this.getCoordinateX(col, row) + (int)getX();
-        final int y = this.getCoordinateY(col, row) + (int)getY();
-        
-        //remove existing
-        p.reset();
-        
-        //clear cache
-        p.invalidate();
-        
-        //add points
-        p.addPoint(x, y);
-        p.addPoint(x + (CELL_DIMENSIONS/2), y + (CELL_DIMENSIONS/2));
-        p.addPoint(x + (CELL_DIMENSIONS/2), y + CELL_DIMENSIONS);
-        p.addPoint(x, y + (CELL_DIMENSIONS / 2));
-        
-        //return polygon
-        return p;
-    }
-    
-    private Polygon getTopSide(final int col, final int row)
-    {
-        //determine the starting coordinate
-        final int x = this.getCoordinateX(col, row) + (int)getX();
-        final int y = this.getCoordinateY(col, row) + (int)getY();
-
-        //remove existing
-        p.reset();
-        
-        //clear cache
-        p.invalidate();
-        
-        //add points
-        p.addPoint(x, y);
-        p.addPoint(x + (CELL_DIMENSIONS/2), y + (CELL_DIMENSIONS/2));
-        p.addPoint(x + CELL_DIMENSIONS, y);
-        p.addPoint(x + (CELL_DIMENSIONS/2), y - (CELL_DIMENSIONS/2));
-        
-        //return polygon
-        return p;
+        return geometry.getCell(x - (int)getX(), y - (int)getY());
     }
     
     @Override
@@ -244,56 +186,33 @@ public final class Board3d extends Board
         super.setX(0);
         super.setY(0);
         
-        //we want to alternate colors between each cell
-        boolean flag = true;
-        
         for (int row = ROWS_MIN; row <= ROWS_MAX; row++)
         {
             for (int col = COLUMNS_MIN; col <= COLUMNS_MAX; col++)
             {
-                //temporary object reference
-                Polygon tmp;
+                final int cell = toCell(col, row);
+                final Color color = geometry.getColor(cell);
                 
                 //we only need to the front if the last row
                 if (row == ROWS_MAX)
                 {
-                    //front side
-                    tmp = this.getFrontSide(col, row);
-
-                    getGraphics2D().setColor((flag) ? light : dark);
-                    getGraphics2D().fillPolygon(tmp);
-                    getGraphics2D().setColor(dark);
-                    getGraphics2D().drawPolygon(tmp);
+                    geometry.fill(getGraphics2D(), CellGeometry.Side.Front, cell, color);
+                    geometry.draw(getGraphics2D(), CellGeometry.Side.Front, cell, geometry.getOutline());
                 }
                 
                 //we only need to draw the depth for the cells in the last column, and the last row
                 if (col == COLUMNS_MAX)
                 {
-                    //right side (east)
-                    tmp = this.getRightSide(col, row);
-                    
-                    getGraphics2D().setColor((flag) ? light : dark);
-                    getGraphics2D().fillPolygon(tmp);
-                    getGraphics2D().setColor(dark);
-                    getGraphics2D().drawPolygon(tmp);
+                    geometry.fill(getGraphics2D(), CellGeometry.Side.Right, cell, color);
+                    geometry.draw(getGraphics2D(), CellGeometry.Side.Right, cell, geometry.getOutline());
                 }
-
+                
                 //top side
-                tmp = this.getTopSide(col, row);
-
-                getGraphics2D().setColor((flag) ? light : dark);
-                getGraphics2D().fillPolygon(tmp);
+                geometry.fill(getGraphics2D(), CellGeometry.Side.Top, cell, color);
                 
                 //draw the outline if the cell if on the ends
                 if (col == COLUMNS_MAX || row == ROWS_MAX || col == COLUMNS_MIN || row == ROWS_MIN)
-                {
-                    getGraphics2D().setColor(dark);
-                    getGraphics2D().drawPolygon(tmp);
-                }
-                
-                //alternate the color
-                if (col != COLUMNS_MAX)
-                    flag = !flag;
+                    geometry.draw(getGraphics2D(), CellGeometry.Side.Top, cell, geometry.getOutline());
             }
         }
         
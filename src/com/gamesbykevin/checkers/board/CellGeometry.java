@@ -0,0 +1,179 @@
+package com.gamesbykevin.checkers.board;
+
+import java.awt.Color;
+import java.awt.Graphics;
+
+/**
+ * The corners and colors of every cell of the isometric board, calculated once when the board is created.<br>
+ * Each side of a cell is a 4 point polygon kept in its own int[] arrays, the arrays are never changed or handed out,
+ * so the geometry can be read from any thread while the board is being rendered.<br>
+ * All coordinates are relative to the top left of the board image.
+ * @author GOD
+ */
+public final class CellGeometry
+{
+    /**
+     * The sides of a cell, only the top is played on, the front and right give the board its depth
+     */
+    public enum Side
+    {
+        Top, Front, Right
+    }
+    
+    /**
+     * The number of points of each polygon
+     */
+    public static final int POINTS = 4;
+    
+    //the width of a cell, the height of the top side is half of this
+    private final int dimensions;
+    
+    //the coordinates of the left corner of the top side of cell (0,0)
+    private final int startX, startY;
+    
+    //the corners of each side of each cell [side][cell][point]
+    private final int[][][] pointsX, pointsY;
+    
+    //the light and dark colors
+    private final Color[] palette;
+    
+    //the index of the palette color of each cell
+    private final int[] shades;
+    
+    /**
+     * Calculate the geometry
+     * @param dimensions The width of a cell
+     * @param startX The x-coordinate of the left corner of the top side of cell (0,0)
+     * @param startY The y-coordinate of the left corner of the top side of cell (0,0)
+     * @param light The color of the first cell
+     * @param dark The alternate color, also used for the outlines
+     */
+    public CellGeometry(final int dimensions, final int startX, final int startY, final Color light, final Color dark)
+    {
+        this.dimensions = dimensions;
+        this.startX = startX;
+        this.startY = startY;
+        this.palette = new Color[] {light, dark};
+        this.shades = new int[Board.COLUMNS * Board.ROWS];
+        this.pointsX = new int[Side.values().length][Board.COLUMNS * Board.ROWS][];
+        this.pointsY = new int[Side.values().length][Board.COLUMNS * Board.ROWS][];
+        
+        final int half = dimensions / 2;
+        
+        //we want to alternate colors between each cell
+        boolean flag = true;
+        
+        for (int row = Board.ROWS_MIN; row <= Board.ROWS_MAX; row++)
+        {
+            for (int col = Board.COLUMNS_MIN; col <= Board.COLUMNS_MAX; col++)
+            {
+                final int cell = Board.toCell(col, row);
+                
+                //the left corner of the top side
+                final int x = ((col - row) * half) + startX;
+                final int y = ((col + row) * half) + startY;
+                
+                set(Side.Top, cell,
+                    new int[] {x, x + half, x + dimensions, x + half},
+                    new int[] {y, y + half, y, y - half});
+                set(Side.Front, cell,
+                    new int[] {x, x + half, x + half, x},
+                    new int[] {y, y + half, y + dimensions, y + half});
+                set(Side.Right, cell,
+                    new int[] {x + half, x + half, x + dimensions, x + dimensions},
+                    new int[] {y + half, y + dimensions, y + half, y});
+                
+                shades[cell] = (flag) ? 0 : 1;
+                
+                //alternate the color, the last cell of a row matches the first cell of the next
+                if (col != Board.COLUMNS_MAX)
+                    flag = !flag;
+            }
+        }
+    }
+    
+    private void set(final Side side, final int cell, final int[] x, final int[] y)
+    {
+        pointsX[side.ordinal()][cell] = x;
+        pointsY[side.ordinal()][cell] = y;
+    }
+    
+    /**
+     * Get the fill color of the cell
+     * @param cell The cell
+     * @return The light or dark color
+     */
+    public Color getColor(final int cell)
+    {
+        return palette[shades[cell]];
+    }
+    
+    /**
+     * @return The color of the cell outlines
+     */
+    public Color getOutline()
+    {
+        return palette[1];
+    }
+    
+    /**
+     * Fill a side of the cell
+     * @param graphics Object used to draw graphics
+     * @param side The side
+     * @param cell The cell
+     * @param color The color to fill with
+     */
+    public void fill(final Graphics graphics, final Side side, final int cell, final Color color)
+    {
+        graphics.setColor(color);
+        graphics.fillPolygon(pointsX[side.ordinal()][cell], pointsY[side.ordinal()][cell], POINTS);
+    }
+    
+    /**
+     * Draw the outline of a side of the cell
+     * @param graphics Object used to draw graphics
+     * @param side The side
+     * @param cell The cell
+     * @param color The color of the outline
+     */
+    public void draw(final Graphics graphics, final Side side, final int cell, final Color color)
+    {
+        graphics.setColor(color);
+        graphics.drawPolygon(pointsX[side.ordinal()][cell], pointsY[side.ordinal()][cell], POINTS);
+    }
+    
+    /**
+     * Get the cell whose top side contains the location, without checking the cells one at a time.<br>
+     * Each top side is a diamond, measuring from the center of cell (0,0) the sum of the x, y distances increases by
+     * the cell dimensions for each column and the difference increases by the cell dimensions for each row, so both can be divided out directly.<br>
+     * A pixel on the edge between 2 cells goes to the same cell as a polygon containment test of the top sides,
+     * the edges on the left of the diamond are inside the cell and the edges on the right are not.
+     * @param x x-coordinate, relative to the board image
+     * @param y y-coordinate, relative to the board image
+     * @return The cell, Board.NO_CELL if not on the playable board
+     */
+    public int getCell(final int x, final int y)
+    {
+        final int half = dimensions / 2;
+        
+        //the distance from the center of the top side of cell (0,0)
+        final int dx = x - (startX + half);
+        final int dy = y - startY;
+        
+        final int col = floorDivide(dx + dy + half, dimensions);
+        final int row = floorDivide(dy - dx + half - 1, dimensions);
+        
+        return (Board.hasBoundary(col, row)) ? Board.toCell(col, row) : Board.NO_CELL;
+    }
+    
+    /**
+     * Divide rounding down, a negative value still needs to round towards the smaller number
+     * @param value The value to divide
+     * @param divisor The divisor, must be positive
+     * @return The value divided, rounded down
+     */
+    private static int floorDivide(final int value, final int divisor)
+    {
+        return (value >= 0) ? value / divisor : -((divisor - 1 - value) / divisor);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.gamesbykevin.checkers.book;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Search;
+import com.gamesbykevin.checkers.simulation.GameRecord;
+import com.gamesbykevin.checkers.simulation.HeadlessGame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Create an opening book from the results of games.<br>
+ * Each move played before the book depth is scored for the player that made it,
+ * 2 points for a win and 1 point for a draw, and that score is the weight of the move in the book.<br>
+ * Usage: BookBuilder [games] [book depth] [thinking time ms] [random plies] [seed] [file]<br>
+ * The games are played by the hard cpu against itself, the first moves of each game are random so the book covers more openings.
+ * @author GOD
+ */
+public final class BookBuilder
+{
+    //the default settings
+    private static final int DEFAULT_GAMES = 200;
+    private static final int DEFAULT_DEPTH = 16;
+    private static final long DEFAULT_THINKING = 50L;
+    private static final int DEFAULT_RANDOM_PLIES = 4;
+    
+    //how often the progress is reported
+    private static final int REPORT_GAMES = 10;
+    
+    //the points for each result
+    private static final int POINTS_WIN = 2, POINTS_DRAW = 1;
+    
+    //moves are only added to the book before this ply
+    private final int depth;
+    
+    //the moves played in each position
+    private final Map<Long, Map<Long, Entry>> positions = new HashMap<>();
+    
+    /**
+     * Create the builder
+     * @param depth Moves are only added to the book before this ply
+     */
+    public BookBuilder(final int depth)
+    {
+        this.depth = depth;
+    }
+    
+    /**
+     * Add the moves of a finished game
+     * @param start The position the game started from
+     * @param moves The moves played
+     * @param result The result of the game
+     */
+    public void add(final Position start, final long[] moves, final GameRecord.Result result)
+    {
+        final Position position = new Position(start);
+        
+        for (int ply = 0; ply < moves.length && ply < depth; ply++)
+        {
+            final boolean north = position.isNorthTurn();
+            
+            Map<Long, Entry> entries = positions.get(position.getKey());
+            
+            if (entries == null)
+            {
+                entries = new HashMap<>();
+                positions.put(position.getKey(), entries);
+            }
+            
+            Entry entry = entries.get(moves[ply]);
+            
+            if (entry == null)
+            {
+                entry = new Entry(ply);
+                entries.put(moves[ply], entry);
+            }
+            
+            //score the move for the player that made it
+            if (result == GameRecord.Result.Draw)
+            {
+                entry.points += POINTS_DRAW;
+            }
+            else if ((result == GameRecord.Result.NorthWin) == north)
+            {
+                entry.points += POINTS_WIN;
+            }
+            
+            //a position reached in a different order keeps the earliest ply
+            entry.ply = Math.min(entry.ply, ply);
+            
+            position.play(moves[ply]);
+        }
+    }
+    
+    /**
+     * Write the book, the moves that never scored a point are left out
+     * @param file The book file
+     * @return The number of records written
+     * @throws Exception If the file can't be written
+     */
+    public int write(final File file) throws Exception
+    {
+        final List<long[]> records = new ArrayList<>();
+        
+        for (Map.Entry<Long, Map<Long, Entry>> position : positions.entrySet())
+        {
+            for (Map.Entry<Long, Entry> move : position.getValue().entrySet())
+            {
+                if (move.getValue().points > 0)
+                    records.add(new long[]{position.getKey(), move.getKey(), move.getValue().points, move.getValue().ply});
+            }
+        }
+        
+        //sort by key so a position can be found with a binary search, then by weight
+        Collections.sort(records, new Comparator<long[]>()
+        {
+            @Override
+            public int compare(final long[] record1, final long[] record2)
+            {
+                if (record1[0] != record2[0])
+                    return (record1[0] < record2[0]) ? -1 : 1;
+                
+                return Long.compare(record2[2], record1[2]);
+            }
+        });
+        
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            output.writeInt(OpeningBook.MAGIC);
+            output.writeInt(OpeningBook.VERSION);
+            output.writeInt(records.size());
+            output.writeInt(depth);
+            
+            for (long[] record : records)
+            {
+                output.writeLong(record[0]);
+                output.writeLong(record[1]);
+                output.writeInt((int)Math.min(record[2], Integer.MAX_VALUE));
+                output.writeInt((int)record[3]);
+            }
+        }
+        
+        return records.size();
+    }
+    
+    /**
+     * A move played in a position
+     */
+    private static final class Entry
+    {
+        //the points scored by the player making the move
+        private long points = 0;
+        
+        //the earliest ply the position was reached
+        private int ply;
+        
+        private Entry(final int ply)
+        {
+            this.ply = ply;
+        }
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final int depth = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+        final long thinking = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_THINKING;
+        final int randomPlies = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_RANDOM_PLIES;
+        final Random random = new Random((args.length > 4) ? Long.parseLong(args[4]) : System.nanoTime());
+        final File file = new File((args.length > 5) ? args[5] : OpeningBook.DEFAULT_FILE);
+        
+        final BookBuilder builder = new BookBuilder(depth);
+        
+        final Search north = new Search();
+        final Search south = new Search();
+        
+        try
+        {
+            final HeadlessGame game = new HeadlessGame(north, south, thinking * 1000000L);
+            
+            final Position start = new Position();
+            start.setup();
+            
+            final long[] moves = new long[MoveGenerator.MAX_MOVES];
+            final long[] opening = new long[randomPlies];
+            
+            final long time = System.nanoTime();
+            
+            for (int i = 1; i <= games; i++)
+            {
+                //make the random moves
+                final Position position = new Position(start);
+                int plies = 0;
+                
+                while (plies < randomPlies)
+                {
+                    final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+                    
+                    if (count == 0)
+                        break;
+                    
+                    opening[plies] = moves[random.nextInt(count)];
+                    position.play(opening[plies++]);
+                }
+                
+                //let the cpu finish the game
+                final GameRecord record = game.play(position);
+                
+                //add the whole game from the start
+                final long[] played = new long[plies + record.getPlies()];
+                System.arraycopy(opening, 0, played, 0, plies);
+                System.arraycopy(record.getMoves(), 0, played, plies, record.getPlies());
+                
+                builder.add(start, played, record.getResult());
+                
+                if (i % REPORT_GAMES == 0)
+                    System.out.println("games " + i + ", positions " + builder.positions.size() + ", " + ((System.nanoTime() - time) / 1000000L) + "ms");
+            }
+        }
+        finally
+        {
+            north.dispose();
+            south.dispose();
+        }
+        
+        System.out.println("records " + builder.write(file) + ", positions " + builder.positions.size() + ", book " + file.getAbsolutePath());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.gamesbykevin.checkers.book;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.SearchResult;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.TimeManager;
+
+import java.util.Random;
+
+/**
+ * Play from the opening book while the position is in it, otherwise search for the best move.
+ * @author GOD
+ */
+public final class BookSearch implements Searcher
+{
+    //the search used once we are out of the book
+    private final Searcher search;
+    
+    //the opening book
+    private final OpeningBook book;
+    
+    //object used to pick a book move
+    private final Random random;
+    
+    /**
+     * Create the search
+     * @param search The search used once we are out of the book
+     * @param book The opening book
+     * @param random Object used to pick a book move
+     */
+    public BookSearch(final Searcher search, final OpeningBook book, final Random random)
+    {
+        this.search = search;
+        this.book = book;
+        this.random = random;
+    }
+    
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager) throws Exception
+    {
+        final long start = System.nanoTime();
+        
+        //a book move is instant
+        final long move = book.probe(position, random);
+        
+        if (move != MoveGenerator.NO_MOVE)
+            return new SearchResult(move, 0, 0, new long[]{move}, 0, System.nanoTime() - start);
+        
+        return search.search(position, timeManager);
+    }
+    
+    @Override
+    public void stop()
+    {
+        search.stop();
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //the book is shared, only the search is recycled
+        search.dispose();
+    }
+}
\ No newline at end of file
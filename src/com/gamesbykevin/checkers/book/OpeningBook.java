@@ -0,0 +1,289 @@
+package com.gamesbykevin.checkers.book;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/**
+ * The opening book, a sorted file of fixed size records that is memory mapped so a lookup never copies the file.<br>
+ * The file starts with a header: magic, version, record count, book depth (4 byte ints).<br>
+ * Each record is: position key (8 bytes), move (8 bytes), weight (4 bytes), ply (4 bytes).<br>
+ * The records are sorted by key, so the moves of a position are found with a binary search,
+ * and a move is picked at random weighted by how well it scored.<br>
+ * A record is only used if the position was reached before the depth limit.
+ * @author GOD
+ */
+public final class OpeningBook
+{
+    /**
+     * Identifies an opening book file
+     */
+    public static final int MAGIC = 0x434B424B;
+    
+    /**
+     * The version of the file format
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * The size of the header (bytes)
+     */
+    public static final int HEADER_SIZE = 16;
+    
+    /**
+     * The size of each record (bytes)
+     */
+    public static final int RECORD_SIZE = 24;
+    
+    //the location of each part of a record
+    private static final int OFFSET_MOVE = 8;
+    private static final int OFFSET_WEIGHT = 16;
+    private static final int OFFSET_PLY = 20;
+    
+    /**
+     * The system property with the location of the book the cpu uses
+     */
+    public static final String PROPERTY_FILE = "checkers.book";
+    
+    /**
+     * The default location of the book the cpu uses
+     */
+    public static final String DEFAULT_FILE = "checkers.book";
+    
+    /**
+     * The system property with the depth limit of the book the cpu uses, positions reached at this ply or later are not used
+     */
+    public static final String PROPERTY_DEPTH = "checkers.book.depth";
+    
+    //the book the cpu uses, loaded the first time it is needed
+    private static OpeningBook defaultBook;
+    
+    //have we tried to load the default book
+    private static boolean defaultLoaded = false;
+    
+    //the mapped file
+    private final ByteBuffer buffer;
+    
+    //the number of records
+    private final int count;
+    
+    //the ply of the deepest position in the book
+    private final int depth;
+    
+    //positions reached at this ply or later are not used
+    private final int maxPly;
+    
+    //the legal moves, used to make sure the book move can be played
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    
+    private OpeningBook(final ByteBuffer buffer, final int maxPly) throws Exception
+    {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new Exception("The file is not an opening book");
+        if (buffer.getInt(4) != VERSION)
+            throw new Exception("The opening book version is not supported. version=" + buffer.getInt(4));
+        
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.depth = buffer.getInt(12);
+        this.maxPly = maxPly;
+        
+        if (buffer.capacity() != HEADER_SIZE + (long)count * RECORD_SIZE)
+            throw new Exception("The opening book size does not match the number of records. records=" + count);
+    }
+    
+    /**
+     * Open the book using every position in it
+     * @param file The book file
+     * @return The opening book
+     * @throws Exception If the file can't be read or is not an opening book
+     */
+    public static OpeningBook open(final File file) throws Exception
+    {
+        return open(file, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Open the book
+     * @param file The book file
+     * @param maxPly Positions reached at this ply or later are not used
+     * @return The opening book
+     * @throws Exception If the file can't be read or is not an opening book
+     */
+    public static OpeningBook open(final File file, final int maxPly) throws Exception
+    {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r"))
+        {
+            final FileChannel channel = input.getChannel();
+            
+            //the mapping stays valid after the file is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), maxPly);
+        }
+    }
+    
+    /**
+     * Get the book the cpu uses.<br>
+     * The location is the system property PROPERTY_FILE, or DEFAULT_FILE in the working directory.<br>
+     * The depth limit is the system property PROPERTY_DEPTH, by default every position in the book is used.
+     * @return The opening book, null if there is no book
+     */
+    public static synchronized OpeningBook getDefault()
+    {
+        if (!defaultLoaded)
+        {
+            defaultLoaded = true;
+            
+            final File file = new File(System.getProperty(PROPERTY_FILE, DEFAULT_FILE));
+            
+            try
+            {
+                if (file.isFile())
+                    defaultBook = open(file, Integer.getInteger(PROPERTY_DEPTH, Integer.MAX_VALUE));
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+        
+        return defaultBook;
+    }
+    
+    public int getCount()
+    {
+        return this.count;
+    }
+    
+    public int getDepth()
+    {
+        return this.depth;
+    }
+    
+    public int getMaxPly()
+    {
+        return this.maxPly;
+    }
+    
+    /**
+     * Pick a move from the book for the player to move.<br>
+     * Each move is picked at random, weighted by how well it scored.
+     * @param position The current position
+     * @param random Object used to make random decisions
+     * @return The legal book move, or NO_MOVE if the position is not in the book
+     */
+    public synchronized long probe(final Position position, final Random random)
+    {
+        final long key = position.getKey();
+        final int first = find(key);
+        
+        if (first < 0)
+            return MoveGenerator.NO_MOVE;
+        
+        final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+        
+        //the total weight of the usable moves
+        long total = 0;
+        
+        for (int index = first; index < this.count && getKey(index) == key; index++)
+        {
+            if (isUsable(index, count))
+                total += getWeight(index);
+        }
+        
+        if (total <= 0)
+            return MoveGenerator.NO_MOVE;
+        
+        //pick a move weighted by score
+        long pick = (long)(random.nextDouble() * total);
+        
+        for (int index = first; index < this.count && getKey(index) == key; index++)
+        {
+            if (!isUsable(index, count))
+                continue;
+            
+            pick -= getWeight(index);
+            
+            if (pick < 0)
+                return getMove(index);
+        }
+        
+        return MoveGenerator.NO_MOVE;
+    }
+    
+    /**
+     * Can the record be played, it has to be within the depth limit and a legal move
+     */
+    private boolean isUsable(final int index, final int count)
+    {
+        if (getPly(index) >= maxPly || getWeight(index) <= 0)
+            return false;
+        
+        final long move = getMove(index);
+        
+        for (int i = 0; i < count; i++)
+        {
+            if (moves[i] == move)
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Find the first record of the position
+     * @param key The position key
+     * @return The index of the first record, -1 if the position is not in the book
+     */
+    private int find(final long key)
+    {
+        int low = 0;
+        int high = count - 1;
+        int result = -1;
+        
+        while (low <= high)
+        {
+            final int middle = (low + high) >>> 1;
+            final long current = getKey(middle);
+            
+            if (current < key)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                //keep looking to the left for the first record of the key
+                if (current == key)
+                    result = middle;
+                
+                high = middle - 1;
+            }
+        }
+        
+        return result;
+    }
+    
+    private long getKey(final int index)
+    {
+        return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE);
+    }
+    
+    private long getMove(final int index)
+    {
+        return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE + OFFSET_MOVE);
+    }
+    
+    private int getWeight(final int index)
+    {
+        return buffer.getInt(HEADER_SIZE + index * RECORD_SIZE + OFFSET_WEIGHT);
+    }
+    
+    private int getPly(final int index)
+    {
+        return buffer.getInt(HEADER_SIZE + index * RECORD_SIZE + OFFSET_PLY);
+    }
+}
\ No newline at end of file
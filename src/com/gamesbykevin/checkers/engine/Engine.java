@@ -264,6 +264,34 @@ public final class Engine implements KeyListener, MouseMotionListener, MouseList
         }
     }
     
+    @Override
+    public Scene createScene()
+    {
+        //the menu and loading screen are drawn by render()
+        if (!isPlaying())
+            return null;
+        
+        //the image for the mouse, if it is drawn
+        final Image image = (Shared.HIDE_MOUSE) ? null : getMenu().getMouseImage(getMouse());
+        
+        return new Scene(
+            getManager(), 
+            image, 
+            (image == null) ? 0 : getMouse().getLocation().x, 
+            (image == null) ? 0 : getMouse().getLocation().y
+        );
+    }
+    
+    /**
+     * Is only the game visible, without the menu or loading screen in front of it
+     * @return true if the game is being played, false otherwise
+     */
+    private boolean isPlaying()
+    {
+        return (getMenu() != null && getMenu().hasFinished() && getMenu().hasFocus() && 
+            getResources() != null && !getResources().isLoading() && getManager() != null);
+    }
+    
     /**
      * Draw the Game Menu
      * 
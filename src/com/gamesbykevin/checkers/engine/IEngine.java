@@ -16,6 +16,14 @@ public interface IEngine extends Disposable
      */
     public void render(Graphics graphics) throws Exception;
     
+    /**
+     * Record the game for the render thread to draw.<br>
+     * This is called on the update thread after each update.
+     * 
+     * @return The scene, null if the menu or loading screen is visible and render() needs to be used instead
+     */
+    public Scene createScene();
+    
     /**
      * The Main class where the application is initialized
      * and contains our main loop so we need a method for the
@@ -0,0 +1,183 @@
+package com.gamesbykevin.checkers.engine;
+
+import com.gamesbykevin.checkers.background.Background;
+import com.gamesbykevin.checkers.board.Board;
+import com.gamesbykevin.checkers.manager.Manager;
+import com.gamesbykevin.checkers.message.Message;
+import com.gamesbykevin.checkers.player.Players.PieceKey;
+import com.gamesbykevin.checkers.player.Players.Snapshot;
+import com.gamesbykevin.checkers.shared.DirtyRegions;
+
+import java.awt.Graphics;
+import java.awt.Image;
+
+/**
+ * What the render thread draws after an update: the background, board, message, checkers and mouse.<br>
+ * A scene is created on the update thread and never changed, it only holds images that are never drawn on again and where they go,
+ * so the render thread can draw it while the next update runs without holding a lock.
+ * @author GOD
+ */
+public final class Scene
+{
+    //the scrolling background, it is drawn twice side by side so it wraps around
+    private final Image background;
+    private final int backgroundX, backgroundY;
+    
+    //the image of the board
+    private final Image board;
+    private final int boardX, boardY, boardWidth, boardHeight;
+    
+    //the image of the message
+    private final Image message;
+    private final int messageX, messageY;
+    
+    //the sprite sheet for the checkers
+    private final Image pieces;
+    
+    //the checkers after the previous update and after the latest update
+    private final Snapshot previous, current;
+    
+    //the image for the mouse, null if the mouse is not drawn
+    private final Image cursor;
+    
+    //where the mouse is drawn
+    private final int cursorX, cursorY;
+    
+    /**
+     * Create the scene from the game after the latest update
+     * @param manager The game elements
+     * @param cursor The image for the mouse, null if the mouse is not drawn
+     * @param cursorX x-coordinate of the mouse
+     * @param cursorY y-coordinate of the mouse
+     */
+    public Scene(final Manager manager, final Image cursor, final int cursorX, final int cursorY)
+    {
+        final Background background = manager.getBackground();
+        
+        this.background = background.getImage();
+        this.backgroundX = (int)background.getX();
+        this.backgroundY = (int)background.getY();
+        
+        //the board image is only drawn when the board is created
+        final Board board = manager.getBoard();
+        
+        this.board = board.getBufferedImage();
+        this.boardX = (int)board.getX();
+        this.boardY = (int)board.getY();
+        this.boardWidth = (int)board.getWidth();
+        this.boardHeight = (int)board.getHeight();
+        
+        final Message message = manager.getMessage();
+        
+        this.message = message.getCopy();
+        this.messageX = (int)message.getX();
+        this.messageY = (int)message.getY();
+        
+        this.pieces = manager.getPlayers().getImage();
+        this.previous = manager.getPlayers().getPreviousSnapshot();
+        this.current = manager.getPlayers().getSnapshot();
+        this.cursor = cursor;
+        this.cursorX = cursorX;
+        this.cursorY = cursorY;
+    }
+    
+    /**
+     * Add the areas of the screen that look different from the scene drawn before this one.<br>
+     * The checkers and mouse are not included, they move between updates so they are checked every frame.
+     * @param drawn The scene drawn before this one, null if there wasn't one
+     * @param regions The damaged areas of the screen
+     */
+    public void addDamage(final Scene drawn, final DirtyRegions regions)
+    {
+        //the background fills the screen, so if it has scrolled everything needs to be drawn
+        if (drawn == null || drawn.background != background || drawn.backgroundX != backgroundX || drawn.backgroundY != backgroundY)
+        {
+            regions.addAll();
+            return;
+        }
+        
+        //a new board is only created when the game is reset
+        if (drawn.board != board || drawn.boardX != boardX || drawn.boardY != boardY)
+        {
+            regions.addAll();
+            return;
+        }
+        
+        //erase the old message and draw the new one
+        if (drawn.message != message || drawn.messageX != messageX || drawn.messageY != messageY)
+        {
+            regions.add(drawn.messageX, drawn.messageY, drawn.message.getWidth(null), drawn.message.getHeight(null));
+            regions.add(messageX, messageY, message.getWidth(null), message.getHeight(null));
+        }
+    }
+    
+    /**
+     * Draw everything under the checkers
+     * @param graphics Object used to draw graphics
+     */
+    public void drawLayers(final Graphics graphics)
+    {
+        //draw the scrolling background
+        graphics.drawImage(background, backgroundX, backgroundY, null);
+        graphics.drawImage(background, backgroundX + background.getWidth(null), backgroundY, null);
+        
+        //draw the board
+        graphics.drawImage(board, boardX, boardY, boardWidth, boardHeight, null);
+        
+        //draw the message
+        graphics.drawImage(message, messageX, messageY, null);
+    }
+    
+    /**
+     * Get the number of checkers drawn
+     * @return The number of checkers
+     */
+    public int getCount()
+    {
+        return (current == null) ? 0 : current.getCount();
+    }
+    
+    /**
+     * Decide where each checker is drawn, part way between the previous and latest update
+     * @param time The time the frame is drawn (nanoseconds)
+     * @param x The x-coordinate of each checker, needs room for getCount() checkers
+     * @param y The y-coordinate of each checker, needs room for getCount() checkers
+     * @param animations The animation of each checker, needs room for getCount() checkers
+     */
+    public void place(final long time, final int[] x, final int[] y, final PieceKey[] animations)
+    {
+        if (current != null)
+            current.place(previous, time, x, y, animations);
+    }
+    
+    /**
+     * Draw a checker
+     * @param graphics Object used to draw graphics
+     * @param animation The animation of the checker
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void drawPiece(final Graphics graphics, final PieceKey animation, final int x, final int y)
+    {
+        animation.draw(graphics, pieces, x, y);
+    }
+    
+    /**
+     * Get the image for the mouse
+     * @return The image, null if the mouse is not drawn
+     */
+    public Image getCursor()
+    {
+        return this.cursor;
+    }
+    
+    public int getCursorX()
+    {
+        return this.cursorX;
+    }
+    
+    public int getCursorY()
+    {
+        return this.cursorY;
+    }
+}
\ No newline at end of file
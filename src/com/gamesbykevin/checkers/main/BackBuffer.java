@@ -0,0 +1,227 @@
+package com.gamesbykevin.checkers.main;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import com.gamesbykevin.checkers.shared.Shared;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.VolatileImage;
+
+/**
+ * The image the game is rendered to before it is drawn on screen.<br>
+ * When accelerated the image is a VolatileImage kept in video memory, so drawing it to the screen
+ * (including scaling it to full screen) is done by the graphics card instead of a software blit.<br>
+ * The contents of a VolatileImage can be lost at any time (for example when the display mode changes),
+ * so the image has to be validated before each frame and everything rendered again if the contents were lost.<br>
+ * If an accelerated image can't be created the regular image from the component is used instead.
+ * @author GOD
+ */
+public final class BackBuffer implements Disposable
+{
+    /**
+     * The system property to turn the accelerated image on/off
+     */
+    public static final String PROPERTY_ACCELERATED = "checkers.accelerated";
+    
+    //the component the image will be drawn on
+    private Component component;
+    
+    //the size of the image
+    private final int width, height;
+    
+    //are we using an accelerated image
+    private boolean accelerated;
+    
+    //the regular image
+    private Image image;
+    
+    //the accelerated image
+    private VolatileImage volatileImage;
+    
+    //the object used to draw on the image
+    private Graphics graphics;
+    
+    /**
+     * Create the back buffer, the image itself is created once the component is displayed
+     * @param component The component the image will be drawn on
+     * @param width The width of the image
+     * @param height The height of the image
+     */
+    public BackBuffer(final Component component, final int width, final int height)
+    {
+        this.component = component;
+        this.width = width;
+        this.height = height;
+        
+        //the accelerated image is used unless turned off
+        this.accelerated = Boolean.parseBoolean(System.getProperty(PROPERTY_ACCELERATED, "true"));
+    }
+    
+    @Override
+    public void dispose()
+    {
+        disposeImage();
+        
+        component = null;
+    }
+    
+    /**
+     * Release the current image and the object used to draw on it
+     */
+    private void disposeImage()
+    {
+        if (graphics != null)
+        {
+            graphics.dispose();
+            graphics = null;
+        }
+        
+        if (volatileImage != null)
+        {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        
+        if (image != null)
+        {
+            image.flush();
+            image = null;
+        }
+    }
+    
+    /**
+     * Is the image stored in video memory
+     * @return true if the accelerated image is used, false if the regular image is used
+     */
+    public boolean isAccelerated()
+    {
+        return this.accelerated;
+    }
+    
+    /**
+     * Make sure the image exists and can be drawn on.<br>
+     * This needs to be called before rendering each frame.
+     * @return true if the image is new or its contents were lost, so everything needs to be rendered again
+     */
+    public boolean validate()
+    {
+        if (accelerated)
+        {
+            return validateVolatileImage();
+        }
+        else
+        {
+            //the regular image is never lost, we only need to create it
+            if (image != null)
+                return false;
+            
+            //the image can't be created until the component is displayed
+            image = component.createImage(width, height);
+            
+            return (image != null);
+        }
+    }
+    
+    /**
+     * Make sure the accelerated image exists and is compatible with the screen
+     * @return true if the image is new or its contents were lost
+     */
+    private boolean validateVolatileImage()
+    {
+        final GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+        
+        //the component is not displayed yet
+        if (configuration == null)
+            return false;
+        
+        if (volatileImage != null)
+        {
+            switch (volatileImage.validate(configuration))
+            {
+                case VolatileImage.IMAGE_OK:
+                    return false;
+                
+                case VolatileImage.IMAGE_RESTORED:
+                    //the image is still usable, but what was on it is gone
+                    if (graphics != null)
+                    {
+                        graphics.dispose();
+                        graphics = null;
+                    }
+                    
+                    return true;
+                
+                case VolatileImage.IMAGE_INCOMPATIBLE:
+                default:
+                    //the screen has changed, so a new image is needed
+                    disposeImage();
+                    break;
+            }
+        }
+        
+        try
+        {
+            volatileImage = component.createVolatileImage(width, height);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            volatileImage = null;
+        }
+        
+        //if the accelerated image is not available, use the regular image instead
+        if (volatileImage == null)
+        {
+            if (Shared.DEBUG)
+                System.out.println("Accelerated image not available, using regular image");
+            accelerated = false;
+            return validate();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Were the contents of the image lost since it was validated.<br>
+     * This needs to be checked after rendering and after drawing the image, if true the frame needs to be rendered again.
+     * @return true if the contents were lost, false otherwise
+     */
+    public boolean contentsLost()
+    {
+        return (accelerated && volatileImage != null && volatileImage.contentsLost());
+    }
+    
+    /**
+     * Get the image to be drawn on screen
+     * @return The image, null if it has not been created yet
+     */
+    public Image getImage()
+    {
+        return (accelerated) ? volatileImage : image;
+    }
+    
+    /**
+     * Get the object used to draw on the image
+     * @return The graphics object, null if the image has not been created yet
+     */
+    public Graphics getGraphics()
+    {
+        if (graphics == null && getImage() != null)
+            graphics = getImage().getGraphics();
+        
+        return graphics;
+    }
+    
+    public int getWidth()
+    {
+        return this.width;
+    }
+    
+    public int getHeight()
+    {
+        return this.height;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.gamesbykevin.checkers.main;
+
+import com.gamesbykevin.checkers.board.Board;
+import com.gamesbykevin.checkers.engine.Scene;
+import com.gamesbykevin.checkers.main.Frames.Frame;
+import com.gamesbykevin.checkers.player.Players.PieceKey;
+import com.gamesbykevin.checkers.shared.DirtyRegions;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+
+/**
+ * Draws the latest frame from the update thread onto the back buffer.<br>
+ * During the game the background, board, message, checkers and mouse are all drawn here from the scene,
+ * otherwise the menu or loading screen drawn by the update thread is copied.<br>
+ * The checkers are drawn part way between the last 2 updates, so they move smoothly at any frame rate.<br>
+ * Everything here belongs to the render thread, the game itself is only read through the finished frame.
+ * @author GOD
+ */
+final class Compositor
+{
+    //the size of the screen
+    private final Rectangle screen;
+    
+    //the frame being drawn
+    private Frame frame;
+    
+    //the version of the menu image on the back buffer
+    private int version = Integer.MIN_VALUE;
+    
+    //the scene on the back buffer, null if it is the menu image
+    private Scene scene;
+    
+    //where every checker was drawn, and its animation, the last time damage was collected
+    private int[] drawnX = new int[24], drawnY = new int[24];
+    private PieceKey[] drawnKey = new PieceKey[24];
+    
+    //the number of checkers drawn the last time damage was collected
+    private int drawnCount = 0;
+    
+    //where every checker is drawn this frame, and its animation
+    private int[] frameX = new int[24], frameY = new int[24];
+    private PieceKey[] frameKey = new PieceKey[24];
+    
+    //where the mouse was drawn the last time damage was collected
+    private final Rectangle cursor = new Rectangle();
+    
+    /**
+     * Create the compositor
+     * @param screen The size of the screen
+     */
+    Compositor(final Rectangle screen)
+    {
+        this.screen = new Rectangle(screen);
+    }
+    
+    /**
+     * Add the areas of the screen that have changed since the previous frame.<br>
+     * This also decides where each checker is drawn this frame, so it needs to be called before rendering.
+     * @param frame The latest frame from the update thread
+     * @param regions The damaged areas of the screen
+     */
+    void addDamage(final Frame frame, final DirtyRegions regions)
+    {
+        this.frame = frame;
+        
+        final Scene scene = frame.getScene();
+        
+        if (scene == null)
+        {
+            //if the menu image has changed, or the game was drawn before it, everything needs to be drawn
+            if (frame.getVersion() != version || this.scene != null)
+                regions.addAll();
+        }
+        else
+        {
+            //check the background, board and message
+            scene.addDamage(this.scene, regions);
+        }
+        
+        version = frame.getVersion();
+        this.scene = scene;
+        
+        //the number of checkers drawn this frame
+        final int count = (scene == null) ? 0 : scene.getCount();
+        
+        //make sure we have room for every checker
+        if (frameX.length < count)
+        {
+            frameX = new int[count];
+            frameY = new int[count];
+            frameKey = new PieceKey[count];
+        }
+        
+        if (scene != null)
+            scene.place(System.nanoTime(), frameX, frameY, frameKey);
+        
+        //the checkers are compared in the order they are drawn, so a change in which checkers are on top is also found
+        for (int index = 0; index < count; index++)
+        {
+            if (index >= drawnCount || drawnX[index] != frameX[index] || drawnY[index] != frameY[index] || drawnKey[index] != frameKey[index])
+            {
+                //erase where the checker was
+                if (index < drawnCount)
+                    regions.add(drawnX[index], drawnY[index], Board.CELL_DIMENSIONS, Board.CELL_DIMENSIONS);
+                
+                //draw where the checker is now
+                regions.add(frameX[index], frameY[index], Board.CELL_DIMENSIONS, Board.CELL_DIMENSIONS);
+            }
+        }
+        
+        //any checkers no longer drawn need to be erased
+        for (int index = count; index < drawnCount; index++)
+        {
+            regions.add(drawnX[index], drawnY[index], Board.CELL_DIMENSIONS, Board.CELL_DIMENSIONS);
+        }
+        
+        //this frame is now what is drawn
+        final int[] x = drawnX;
+        final int[] y = drawnY;
+        final PieceKey[] keys = drawnKey;
+        
+        drawnX = frameX;
+        drawnY = frameY;
+        drawnKey = frameKey;
+        drawnCount = count;
+        
+        frameX = x;
+        frameY = y;
+        frameKey = keys;
+        
+        //the image for the mouse, if it is drawn
+        final Image image = (scene == null) ? null : scene.getCursor();
+        
+        final int cursorX = (image == null) ? 0 : scene.getCursorX();
+        final int cursorY = (image == null) ? 0 : scene.getCursorY();
+        final int width = (image == null) ? 0 : image.getWidth(null);
+        final int height = (image == null) ? 0 : image.getHeight(null);
+        
+        //if the mouse moved or changed, erase the old cursor and draw the new one
+        if (cursor.x != cursorX || cursor.y != cursorY || cursor.width != width || cursor.height != height)
+        {
+            regions.add(cursor);
+            regions.add(cursorX, cursorY, width, height);
+            cursor.setBounds(cursorX, cursorY, width, height);
+        }
+    }
+    
+    /**
+     * Draw the frame where it was placed by the last call to addDamage()
+     * @param graphics Object used to draw graphics
+     */
+    void render(final Graphics graphics)
+    {
+        if (frame == null)
+            return;
+        
+        //draw the menu image
+        if (scene == null)
+        {
+            graphics.drawImage(frame.getImage(), 0, 0, null);
+            return;
+        }
+        
+        //background by itself will be a black rectangle
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(screen.x, screen.y, screen.width, screen.height);
+        
+        //draw the background, board and message
+        scene.drawLayers(graphics);
+        
+        //draw the checkers
+        for (int index = 0; index < drawnCount; index++)
+        {
+            scene.drawPiece(graphics, drawnKey[index], drawnX[index], drawnY[index]);
+        }
+        
+        //draw the mouse
+        if (scene.getCursor() != null)
+            graphics.drawImage(scene.getCursor(), cursor.x, cursor.y, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.gamesbykevin.checkers.main;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import com.gamesbykevin.checkers.engine.Scene;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The frames handed from the update thread to the render thread.<br>
+ * There are 3 frames: 1 the update thread is drawing, 1 the render thread is drawing from,
+ * and 1 waiting in between holding the latest finished frame.
+ * Each thread only swaps its frame with the waiting one, so neither thread ever waits for the other
+ * and a frame is never changed while the render thread is using it.
+ * @author GOD
+ */
+final class Frames implements Disposable
+{
+    //set on the waiting index when it holds a frame the render thread has not seen
+    private static final int NEW = 4;
+    
+    //the frames
+    private final Frame[] frames;
+    
+    //the frame the update thread is drawing, only used on the update thread
+    private int back = 0;
+    
+    //the frame the render thread is drawing from, only used on the render thread
+    private int front = 1;
+    
+    //the frame waiting to be picked up by the render thread
+    private final AtomicInteger waiting = new AtomicInteger(2);
+    
+    /**
+     * Create the frames
+     * @param width The width of the game image
+     * @param height The height of the game image
+     */
+    Frames(final int width, final int height)
+    {
+        this.frames = new Frame[3];
+        
+        for (int index = 0; index < frames.length; index++)
+        {
+            frames[index] = new Frame(width, height);
+        }
+    }
+    
+    @Override
+    public void dispose()
+    {
+        for (int index = 0; index < frames.length; index++)
+        {
+            frames[index].dispose();
+        }
+    }
+    
+    /**
+     * Get the frame to draw the next update on, only called on the update thread
+     * @return The frame
+     */
+    Frame getBack()
+    {
+        return frames[back];
+    }
+    
+    /**
+     * Hand the finished frame to the render thread, only called on the update thread
+     */
+    void publish()
+    {
+        back = waiting.getAndSet(back | NEW) & ~NEW;
+    }
+    
+    /**
+     * Get the latest finished frame, only called on the render thread.<br>
+     * The frame stays the same until this is called again.
+     * @return The frame
+     */
+    Frame getFront()
+    {
+        //only swap if the update thread has finished a frame since the last time
+        if ((waiting.get() & NEW) != 0)
+            front = waiting.getAndSet(front) & ~NEW;
+        
+        return frames[front];
+    }
+    
+    /**
+     * A frame of the game
+     */
+    static final class Frame implements Disposable
+    {
+        //the menu or loading screen, only drawn when there is no scene
+        private final BufferedImage image;
+        
+        //the object used to draw on the image
+        private Graphics graphics;
+        
+        //the version of the menu or loading screen drawn on the image
+        private int version = -1;
+        
+        //the game, null if the menu or loading screen is drawn instead
+        private Scene scene;
+        
+        private Frame(final int width, final int height)
+        {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.graphics = image.createGraphics();
+        }
+        
+        @Override
+        public void dispose()
+        {
+            if (graphics != null)
+            {
+                graphics.dispose();
+                graphics = null;
+            }
+            
+            image.flush();
+            scene = null;
+        }
+        
+        BufferedImage getImage()
+        {
+            return this.image;
+        }
+        
+        Graphics getGraphics()
+        {
+            return this.graphics;
+        }
+        
+        /**
+         * Get the version of the menu or loading screen drawn on the image
+         * @return The version, images with the same version look the same
+         */
+        int getVersion()
+        {
+            return this.version;
+        }
+        
+        void setVersion(final int version)
+        {
+            this.version = version;
+        }
+        
+        Scene getScene()
+        {
+            return this.scene;
+        }
+        
+        void setScene(final Scene scene)
+        {
+            this.scene = scene;
+        }
+    }
+}
\ No newline at end of file
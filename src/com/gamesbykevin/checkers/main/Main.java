@@ -6,15 +6,13 @@ import javax.swing.*;
 import com.gamesbykevin.framework.resources.Disposable;
 
 import com.gamesbykevin.checkers.engine.Engine;
+import com.gamesbykevin.checkers.shared.DirtyRegions;
 import com.gamesbykevin.checkers.shared.Shared;
 
 public final class Main extends Thread implements Disposable
 {
     //image where all game/menu elements will be written to
-    private Image bufferedImage;
-    
-    //Graphics object used to draw buffered image
-    private Graphics bufferedImageGraphics;
+    private BackBuffer backBuffer;
     
     //our dimensions for the original screen window
     private Rectangle originalSizeWindow;
@@ -37,6 +35,24 @@ public final class Main extends Thread implements Disposable
     //need double for accuracy
     private double nanoSecondsPerUpdate;
     
+    //the duration of each frame in nanoseconds
+    private double nanoSecondsPerFrame;
+    
+    //the most updates we will run back to back to catch up, before giving up on the missed time
+    private static final int MAX_CATCH_UP_UPDATES = 5;
+    
+    //the frames handed from this thread (the update thread) to the render thread
+    private Frames frames;
+    
+    //draws the frames onto the back buffer, only used on the render thread
+    private Compositor compositor;
+    
+    //the render thread, this thread waits for it to finish before run() returns
+    private Thread renderer;
+    
+    //the version of the menu image, this changes every time the menu or loading screen is drawn
+    private int version = 0;
+    
     //reference to our applet
     private JApplet applet;
     
@@ -47,35 +63,85 @@ public final class Main extends Thread implements Disposable
     private Graphics graphics;
     
     //is the thread active
-    private boolean active = true;
+    private volatile boolean active = true;
+    
+    //has full screen been switched on/off, the window is changed on the render thread
+    private volatile boolean resized = false;
+    
+    //the areas of the buffered image that have changed and need to be drawn
+    private DirtyRegions regions;
+    
+    //the number of frames between drawing the entire image to the screen
+    private final int framesPerRefresh;
+    
+    //the number of frames since the entire image was drawn to the screen
+    private int framesSinceRefresh = 0;
+    
+    //do we need to draw the entire image to the screen
+    private boolean refresh = true;
+    
+    //the number of pixels rendered, used for debugging
+    private long pixels = 0;
+    
+    //the time it took to draw the last frame on screen (in nanoseconds)
+    private long presentTime = 0;
+    
+    //the total and longest time spent drawing frames on screen, used for debugging
+    private long presentTimeTotal = 0, presentTimeMax = 0;
     
     public Main(final int ups, final JApplet applet)
     {
-        this(ups);
+        this(ups, Shared.DEFAULT_FPS, applet);
+    }
+    
+    public Main(final int ups, final JPanel panel)
+    {
+        this(ups, Shared.DEFAULT_FPS, panel);
+    }
+    
+    public Main(final int ups, final int fps, final JApplet applet)
+    {
+        this(ups, fps);
         
         this.applet = applet;
     }
     
-    public Main(final int ups, final JPanel panel)
+    public Main(final int ups, final int fps, final JPanel panel)
     {
-        this(ups);
+        this(ups, fps);
         
         this.panel = panel;
     }
     
     /**
-     * Main class that manages the game engine
+     * Main class that manages the game engine.<br>
+     * The game is updated on this thread at a fixed rate, and rendered on a separate thread at its own rate.
      * 
      * @param ups Desired updates per second
+     * @param fps Desired frames per second
      */
-    private Main(final int ups)
+    private Main(final int ups, final int fps)
     {
         //the dimensions used for original/full screen
         originalSizeWindow = new Rectangle(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
         fullSizeWindow     = new Rectangle(originalSizeWindow);
-
+        
+        //nothing has been rendered yet so the entire image is damaged
+        regions = new DirtyRegions(originalSizeWindow);
+        regions.addAll();
+        
+        //the game is drawn on these frames for the render thread
+        frames = new Frames(originalSizeWindow.width, originalSizeWindow.height);
+        compositor = new Compositor(originalSizeWindow);
+        
         //duration of each update in nanoseconds
         this.nanoSecondsPerUpdate = NANO_SECONDS_PER_SECOND / ups;
+        
+        //duration of each frame in nanoseconds
+        this.nanoSecondsPerFrame = NANO_SECONDS_PER_SECOND / fps;
+        
+        //draw the entire image once per second, in case the window was painted over
+        this.framesPerRefresh = fps;
     }
     
     /**
@@ -84,16 +150,10 @@ public final class Main extends Thread implements Disposable
     @Override
     public void dispose()
     {
-        if (bufferedImage != null)
+        if (backBuffer != null)
         {
-            bufferedImage.flush();
-            bufferedImage = null;
-        }
-        
-        if (bufferedImageGraphics != null)
-        {
-            bufferedImageGraphics.dispose();
-            bufferedImageGraphics = null;
+            backBuffer.dispose();
+            backBuffer = null;
         }
         
         if (graphics != null)
@@ -102,6 +162,12 @@ public final class Main extends Thread implements Disposable
             graphics = null;
         }
         
+        if (frames != null)
+        {
+            frames.dispose();
+            frames = null;
+        }
+        
         if (engine != null)
         {
             engine.dispose();
@@ -117,6 +183,9 @@ public final class Main extends Thread implements Disposable
         originalSizeWindow = null;
         fullSizeWindow = null;
         currentWindow = null;
+        regions = null;
+        compositor = null;
+        renderer = null;
     }
     
     /**
@@ -146,6 +215,41 @@ public final class Main extends Thread implements Disposable
     
     @Override
     public void run()
+    {
+        //render on a separate thread so a slow frame doesn't delay the game, and a slow update doesn't delay drawing
+        renderer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                runRender();
+            }
+        }, "Render");
+        
+        //don't keep the game running once the window is closed
+        renderer.setDaemon(true);
+        renderer.start();
+        
+        runUpdate();
+        
+        try
+        {
+            //wait for the render thread to stop, so nothing it uses is disposed while it is drawing
+            renderer.join();
+        }
+        catch(InterruptedException e)
+        {
+            //dislay error
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Update the game at a fixed rate.<br>
+     * Each update always advances the game by the same amount of time,
+     * so if we fall behind we run several updates back to back to catch up.
+     */
+    private void runUpdate()
     {
         //keep track of the number of updates
         int updates = 0;
@@ -153,24 +257,36 @@ public final class Main extends Thread implements Disposable
         //store the time to track ups (updates per second)
         long previous = System.nanoTime();
         
+        //the time the next update is due
+        double next = System.nanoTime();
+        
         while (active)
         {
             try
             {
-                //get the current time
-                final long before = System.nanoTime();
+                //the number of updates run back to back
+                int count = 0;
                 
-                //update game
-                engine.update(this);
+                //run every update that is due
+                while (System.nanoTime() >= next && count < MAX_CATCH_UP_UPDATES)
+                {
+                    //update game
+                    engine.update(this);
+                    
+                    next += nanoSecondsPerUpdate;
+                    count++;
+                    
+                    //keep track of the number of updates
+                    updates++;
+                }
                 
-                //render image
-                renderImage();
-
-                //draw image
-                drawScreen();
+                //hand the result to the render thread
+                if (count > 0)
+                    publish();
                 
-                //keep track of the number of updates
-                updates++;
+                //if we are too far behind, forget about the missed time instead of trying to catch up
+                if (count == MAX_CATCH_UP_UPDATES)
+                    next = System.nanoTime();
                 
                 //get the time after processing complete
                 final long after = System.nanoTime();
@@ -183,45 +299,153 @@ public final class Main extends Thread implements Disposable
                     {
                         //display updates per second
                         System.out.println("UPS = " + updates);
-
+                        
                         //reset count
                         updates = 0;
-
+                        
                         //update the previous time with the current
                         previous = after;
                     }
                 }
                 
-                //get the time passed for this update (in nanoseconds)
-                final long passed = (after - before);
+                //sleep until the next update is due
+                pause(next - after);
+            }
+            catch(Exception e)
+            {
+                //dislay error
+                e.printStackTrace();
+                
+                //no longer active thread
+                active = false;
+            }
+        }
+    }
+    
+    /**
+     * Render and draw the game at a fixed rate, independent of the updates.<br>
+     * Rendering skips any frames it falls behind on, there is no need to catch up.
+     */
+    private void runRender()
+    {
+        //keep track of the number of frames
+        int frames = 0;
+        
+        //store the time to track fps (frames per second)
+        long previous = System.nanoTime();
+        
+        //the time the next frame is due
+        double next = System.nanoTime();
+        
+        while (active)
+        {
+            try
+            {
+                //render image
+                renderImage();
+                
+                //draw image
+                drawScreen();
                 
-                //get the extra leftover time
-                double remaining = nanoSecondsPerUpdate - passed;
+                //keep track of the number of frames
+                frames++;
+                
+                //get the time after processing complete
+                final long after = System.nanoTime();
                 
-                //the time remaining can't be negative
-                if (remaining < 0)
-                    remaining = 0;
+                //if we are debugging
+                if (Shared.DEBUG)
+                {
+                    //if 1 second has passed display fps
+                    if (after - previous >= NANO_SECONDS_PER_SECOND)
+                    {
+                        //display frames per second, how much of the image was rendered, and how long it took to draw on screen
+                        System.out.println("FPS = " + frames + ", Rendered = " +
+                            (100 * pixels / ((long)frames * originalSizeWindow.width * originalSizeWindow.height)) + "%" +
+                            ", Present avg = " + (presentTimeTotal / frames / NANO_SECONDS_PER_MILLISECOND) + "ms" +
+                            ", Present max = " + (presentTimeMax / NANO_SECONDS_PER_MILLISECOND) + "ms" +
+                            ", Accelerated = " + (backBuffer != null && backBuffer.isAccelerated()));
+                        
+                        //reset count
+                        frames = 0;
+                        pixels = 0;
+                        presentTimeTotal = 0;
+                        presentTimeMax = 0;
+                        
+                        //update the previous time with the current
+                        previous = after;
+                    }
+                }
                 
-                //get the milliseconds to sleep
-                long millis = (long)(remaining / NANO_SECONDS_PER_MILLISECOND);
+                next += nanoSecondsPerFrame;
                 
-                //take the remainder to get the nanoseconds
-                int nanos = (int)(((remaining / NANO_SECONDS_PER_MILLISECOND) - (double)millis) * NANO_SECONDS_PER_MILLISECOND);
+                //if we have fallen behind skip the missed frames
+                if (next < after)
+                    next = after;
                 
-                //sleep thread for the specified amount so each second maintains the same number of updates
-                Thread.sleep(millis, nanos);
+                //sleep until the next frame is due
+                pause(next - after);
             }
             catch(Exception e)
             {
                 //dislay error
                 e.printStackTrace();
-
+                
                 //no longer active thread
                 active = false;
             }
         }
     }
     
+    /**
+     * Hand the latest update to the render thread.<br>
+     * During the game only a scene is recorded, the render thread draws it.
+     * The menu and loading screen are drawn here on the next frame, they change with every update.
+     * 
+     * @throws Exception 
+     */
+    private void publish() throws Exception
+    {
+        final Frames.Frame frame = frames.getBack();
+        
+        //record the game
+        frame.setScene(engine.createScene());
+        
+        if (frame.getScene() == null)
+        {
+            //background by itself will be a black rectangle
+            frame.getGraphics().setColor(Color.BLACK);
+            frame.getGraphics().fillRect(0, 0, originalSizeWindow.width, originalSizeWindow.height);
+            
+            engine.render(frame.getGraphics());
+            
+            frame.setVersion(++version);
+        }
+        
+        frames.publish();
+    }
+    
+    /**
+     * Sleep the current thread
+     * @param remaining The time to sleep in nanoseconds, nothing happens if not positive
+     * @throws InterruptedException
+     */
+    private static void pause(final double remaining) throws InterruptedException
+    {
+        //the time remaining can't be negative
+        if (remaining <= 0)
+            return;
+        
+        //get the milliseconds to sleep
+        long millis = (long)(remaining / NANO_SECONDS_PER_MILLISECOND);
+        
+        //take the remainder to get the nanoseconds
+        int nanos = (int)(((remaining / NANO_SECONDS_PER_MILLISECOND) - (double)millis) * NANO_SECONDS_PER_MILLISECOND);
+        
+        //sleep thread for the specified amount
+        Thread.sleep(millis, nanos);
+    }
+    
     /**
      * Set this thread active.<br>
      * If the thread is not active the game will end
@@ -254,17 +478,17 @@ public final class Main extends Thread implements Disposable
     }
     
     /**
-     * Create buffered Image
+     * Create the back buffer the game will be rendered to
      */
-    private void createBufferedImage()
+    private void createBackBuffer()
     {
         if (applet != null)
         {
-            bufferedImage = applet.createImage(originalSizeWindow.width, originalSizeWindow.height);
+            backBuffer = new BackBuffer(applet, originalSizeWindow.width, originalSizeWindow.height);
         }
         else
         {
-            bufferedImage = panel.createImage(originalSizeWindow.width, originalSizeWindow.height);
+            backBuffer = new BackBuffer(panel, originalSizeWindow.width, originalSizeWindow.height);
         }
     }
     
@@ -278,10 +502,22 @@ public final class Main extends Thread implements Disposable
     }
     
     /**
-     * This method will be called whenever the user turns full-screen on/off
+     * This method will be called whenever the user turns full-screen on/off.<br>
+     * The window is only read and drawn on by the render thread, so the change is made there before the next frame is drawn.
      */
     public void setFullScreen()
     {
+        this.resized = true;
+    }
+    
+    /**
+     * Get the size of the window and create a new graphics object to draw on it, only called on the render thread
+     */
+    private void resize()
+    {
+        //clear the flag first, so a switch made while we are reading the size is not lost
+        resized = false;
+        
         if (applet != null)
         {
             fullSizeWindow = new Rectangle(0, 0, applet.getWidth(), applet.getHeight());
@@ -296,6 +532,18 @@ public final class Main extends Thread implements Disposable
         
         //since full screen switched on/off create a new graphics object
         createGraphicsObject();
+        
+        //the window has changed so the entire image needs to be drawn
+        refresh = true;
+    }
+    
+    /**
+     * Get the time it took to draw the last frame on screen
+     * @return The time in nanoseconds, 0 if nothing needed to be drawn
+     */
+    public long getPresentTime()
+    {
+        return this.presentTime;
     }
     
     /**
@@ -308,29 +556,55 @@ public final class Main extends Thread implements Disposable
     }
     
     /**
-     * Writes all game/menu elements in our 
-     * engine to our single bufferedImage.
+     * Writes the latest frame from the update thread 
+     * to our back buffer, the game itself is never read here.<br>
+     * Only the areas that have changed since the previous frame are written, 
+     * if nothing has changed nothing is rendered.<br>
+     * If the contents of an accelerated image are lost while rendering, the entire image is rendered again.
      * 
      * @throws Exception 
      */
     private void renderImage() throws Exception
     {
-        if (bufferedImage != null)
+        //create the image that will be displayed to the user
+        if (backBuffer == null)
+            createBackBuffer();
+        
+        //find the areas that have changed in the latest frame from the update thread
+        compositor.addDamage(frames.getFront(), regions);
+        
+        do
         {
-            if (bufferedImageGraphics == null)
-                bufferedImageGraphics = bufferedImage.getGraphics();
+            //make sure the image is ready, if it is new or was lost everything needs to be rendered
+            if (backBuffer.validate())
+            {
+                regions.addAll();
+                refresh = true;
+            }
             
-            //background by itself will be a black rectangle
-            bufferedImageGraphics.setColor(Color.BLACK);
-            bufferedImageGraphics.fillRect(0, 0, Shared.ORIGINAL_WIDTH, Shared.ORIGINAL_HEIGHT);
-
-            engine.render(bufferedImageGraphics);
-        }
-        else
-        {
-            //create the image that will be displayed to the user
-            createBufferedImage();
+            final Graphics bufferGraphics = backBuffer.getGraphics();
+            
+            //the image can't be created until the container is displayed
+            if (bufferGraphics == null)
+                return;
+            
+            for (int index = 0; index < regions.getCount(); index++)
+            {
+                final Rectangle region = regions.get(index);
+                
+                //only draw inside the damaged area
+                bufferGraphics.setClip(region.x, region.y, region.width, region.height);
+                
+                compositor.render(bufferGraphics);
+            }
+            
+            //remove the clip
+            bufferGraphics.setClip(null);
+            
+            //keep track of the pixels rendered
+            pixels += regions.getArea();
         }
+        while (backBuffer.contentsLost());
     }
     
     /**
@@ -364,42 +638,101 @@ public final class Main extends Thread implements Disposable
     }
     
     /**
-     * Draw Image onto screen
+     * Draw Image onto screen.<br>
+     * Only the areas that were rendered are drawn, 
+     * except once per second when the entire image is drawn to repair anything the window system painted over.
      */
     private void drawScreen()
     {
         //if no image has been rendered yet return
-        if (bufferedImage == null)
+        if (backBuffer == null || backBuffer.getImage() == null)
             return;
         
         //cache graphics object to save resources
         if (graphics == null)
             createGraphicsObject();
         
-        //make sure current window dimensions are set
-        if (currentWindow == null)
-            setFullScreen();
+        //make sure current window dimensions are set, and up to date if full screen was switched
+        if (currentWindow == null || resized)
+            resize();
+        
+        //is it time to draw the entire image
+        if (++framesSinceRefresh >= framesPerRefresh)
+            refresh = true;
+        
+        //if nothing has changed there is nothing to draw
+        if (!refresh && regions.isEmpty())
+        {
+            presentTime = 0;
+            return;
+        }
+        
+        final long start = System.nanoTime();
         
         try
         {
-            //the destination will be the size of the window
-            int dx1 = currentWindow.x;
-            int dy1 = currentWindow.y;
-            int dx2 = currentWindow.x + currentWindow.width;
-            int dy2 = currentWindow.y + currentWindow.height;
-
-            //the source will be the entire image
-            int sx1 = 0;
-            int sy1 = 0;
-            int sx2 = bufferedImage.getWidth(null);
-            int sy2 = bufferedImage.getHeight(null);
+            if (refresh)
+            {
+                //the source will be the entire image
+                drawRegion(0, 0, backBuffer.getWidth(), backBuffer.getHeight());
+                
+                refresh = false;
+                framesSinceRefresh = 0;
+            }
+            else
+            {
+                for (int index = 0; index < regions.getCount(); index++)
+                {
+                    final Rectangle region = regions.get(index);
+                    
+                    //the source will be the damaged area
+                    drawRegion(region.x, region.y, region.x + region.width, region.y + region.height);
+                }
+            }
             
-            //draw our rendered image at the specified location
-            graphics.drawImage(bufferedImage, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+            //make sure the frame is actually sent to the screen before we measure
+            Toolkit.getDefaultToolkit().sync();
         }
         catch(Exception e)
         {
             e.printStackTrace();
         }
+        
+        //the damage is now on screen
+        regions.clear();
+        
+        //if the accelerated image was lost while drawing, render and draw everything next frame
+        if (backBuffer.contentsLost())
+        {
+            regions.addAll();
+            refresh = true;
+        }
+        
+        //keep track of the time it took to draw on screen
+        presentTime = System.nanoTime() - start;
+        presentTimeTotal += presentTime;
+        presentTimeMax = Math.max(presentTimeMax, presentTime);
+    }
+    
+    /**
+     * Draw part of the image onto the screen, scaled to the size of the window
+     * @param sx1 x-coordinate of the first corner of the source
+     * @param sy1 y-coordinate of the first corner of the source
+     * @param sx2 x-coordinate of the second corner of the source
+     * @param sy2 y-coordinate of the second corner of the source
+     */
+    private void drawRegion(final int sx1, final int sy1, final int sx2, final int sy2)
+    {
+        final int width = backBuffer.getWidth();
+        final int height = backBuffer.getHeight();
+        
+        //the destination is scaled to the size of the window, round outward so the edges are covered
+        final int dx1 = currentWindow.x + (int)((long)sx1 * currentWindow.width / width);
+        final int dy1 = currentWindow.y + (int)((long)sy1 * currentWindow.height / height);
+        final int dx2 = currentWindow.x + (int)(((long)sx2 * currentWindow.width + width - 1) / width);
+        final int dy2 = currentWindow.y + (int)(((long)sy2 * currentWindow.height + height - 1) / height);
+        
+        //draw our rendered image at the specified location
+        graphics.drawImage(backBuffer.getImage(), dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
     }
 }
\ No newline at end of file
@@ -247,6 +247,11 @@ public final class Manager implements IManager
         return this.board;
     }
     
+    public Background getBackground()
+    {
+        return this.background;
+    }
+    
     /**
      * Free up resources
      */
@@ -299,6 +304,9 @@ public final class Manager implements IManager
         //update the players
         players.update(engine);
         
+        //record where the checkers are, so they can be drawn while the next update runs
+        players.takeSnapshot();
+        
         //update the scrolling background
         background.update(engine.getMain().getTime());
     }
@@ -13,6 +13,7 @@ import com.gamesbykevin.checkers.shared.IElement;
 import com.gamesbykevin.checkers.shared.Shared;
 
 import java.awt.Graphics;
+import java.awt.Image;
 import java.awt.event.KeyEvent;
 
 /**
@@ -346,17 +347,24 @@ public final class CustomMenu extends Menu implements IElement
      */
     public void renderMouse(final Graphics graphics, final Mouse mouse)
     {
-        if (mouse.getLocation() != null && images != null)
-        {
-            if (mouse.isMouseDragged())
-            {
-                graphics.drawImage(images.get(MouseKey.MouseDrag), mouse.getLocation().x, mouse.getLocation().y, null);
-            }
-            else
-            {
-                graphics.drawImage(images.get(MouseKey.Mouse), mouse.getLocation().x, mouse.getLocation().y, null);
-            }
-        }
+        //get the image for the current state of the mouse
+        final Image image = getMouseImage(mouse);
+        
+        if (image != null)
+            graphics.drawImage(image, mouse.getLocation().x, mouse.getLocation().y, null);
+    }
+    
+    /**
+     * Get the image drawn for the mouse
+     * @param mouse Object representing the state of the mouse
+     * @return The image for the mouse cursor, null if the mouse is not drawn
+     */
+    public Image getMouseImage(final Mouse mouse)
+    {
+        if (mouse.getLocation() == null || images == null)
+            return null;
+        
+        return images.get((mouse.isMouseDragged()) ? MouseKey.MouseDrag : MouseKey.Mouse);
     }
     
     @Override
@@ -6,6 +6,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.image.BufferedImage;
 
 /**
  * Here we will create a custom message to be displayed on screen
@@ -49,6 +50,9 @@ public final class Message extends CustomImage
     //the font height
     private int fontHeight = 10;
     
+    //a copy of the finished message, a new copy is made every time so it can be drawn while the next message is rendered
+    private BufferedImage copy;
+    
     public Message(final Image background)
     {
         //call parent constructor
@@ -128,6 +132,23 @@ public final class Message extends CustomImage
         //set the dimensions
         super.setWidth(WIDTH);
         super.setHeight(HEIGHT);
+        
+        //copy the finished message
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final Graphics graphics = image.getGraphics();
+        graphics.drawImage(getBufferedImage(), 0, 0, null);
+        graphics.dispose();
+        
+        this.copy = image;
+    }
+    
+    /**
+     * Get a copy of the message as it was last rendered
+     * @return The image, this is never drawn on again
+     */
+    public Image getCopy()
+    {
+        return this.copy;
     }
     
     /**
@@ -6,26 +6,93 @@ import com.gamesbykevin.framework.resources.Disposable;
 import com.gamesbykevin.framework.util.Timer;
 import com.gamesbykevin.framework.util.Timers;
 
-import com.gamesbykevin.checkers.piece.Checker;
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
 import com.gamesbykevin.checkers.engine.Engine;
 import com.gamesbykevin.checkers.resources.GameAudio;
 import com.gamesbykevin.checkers.resources.Resources;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.SearchResult;
+import com.gamesbykevin.checkers.search.Strength;
+import com.gamesbykevin.checkers.search.TimeManager;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * This class will control a cpu opponent
+ * This class will control a cpu opponent.<br>
+ * When pondering, once our move is made we start searching the position after the reply we expect from the opponent.
+ * If the opponent makes that move (a ponder hit) the search keeps going and the time already spent counts towards our move,
+ * otherwise (a ponder miss) the search is stopped and we think about the real position.
  * @author GOD
  */
 public final class Cpu extends Player implements Disposable
 {
+    //how the cpu decides on a move
+    private final Strength strength;
+    
+    //the search used to find the best move
+    private Searcher search;
+    
+    //decides how long the search can think
+    private TimeManager timeManager;
+    
+    //the thread the search runs on, so the game loop is never blocked
+    private ExecutorService executor;
+    
+    //the search in progress on our own thread, null if we aren't thinking
+    private Future<SearchResult> thinking;
+    
+    //the key of the position we are thinking about
+    private long thinkingKey;
+    
+    //do we think about the opponent's expected reply while the opponent decides on a move
+    private boolean pondering = false;
+    
+    //is the search in progress thinking about the opponent's expected reply
+    private boolean ponderSearch = false;
+    
+    //is the search in progress being stopped, because we no longer need the result
+    private boolean cancelling = false;
+    
+    //when the ponder search started
+    private long ponderStart;
+    
+    //the time the search needs to stop after a ponder hit, 0 if the time manager decides
+    private long deadline = 0;
+    
+    //the number of times the opponent made the move we expected, and the number of times they didn't
+    private int ponderHits = 0, ponderMisses = 0;
+    
+    //the result of our last search, used to predict the opponent's reply
+    private SearchResult lastResult;
+    
+    //the ponder search has no time limit, it is stopped once the opponent moves
+    private TimeManager ponderTimeManager;
+    
+    /**
+     * The default time the search can think about each move
+     */
+    public static final long DELAY_THINKING = Timers.toNanoSeconds(1000L);
+    
     //the object representing the current move
     private Move currentMove;
     
-    //our object containing possible checker selections for various things, etc...
-    private List<Move> options;
+    //the complete move we are making, currentMove is the step or jump being animated
+    private long sequence = MoveGenerator.NO_MOVE;
+    
+    //every legal move available this turn
+    private long[] moves;
+    
+    //the number of legal moves
+    private int moveCount = 0;
+    
+    //our own copy of the position, used to check moves without touching the checkers on the board
+    private Position scratch;
     
     /**
      * The time delay to complete a regular move
@@ -40,9 +107,38 @@ public final class Cpu extends Player implements Disposable
     //our timer to determine how long a move takes to finish
     private Timer timer;
     
-    public Cpu(final boolean attackNorth, final Players.PieceKey pieceRegular, final Players.PieceKey pieceKing)
+    public Cpu(final Position position, final boolean attackNorth, final Players.PieceKey pieceRegular, final Players.PieceKey pieceKing, final Strength strength) throws Exception
     {
-        super(attackNorth, pieceRegular, pieceKing);
+        super(position, attackNorth, pieceRegular, pieceKing);
+        
+        //assign how we decide on a move
+        this.strength = strength;
+        
+        //create the search
+        this.search = strength.create(new Random());
+        
+        //create the time manager
+        this.timeManager = new TimeManager(DELAY_THINKING);
+        this.ponderTimeManager = new TimeManager(DELAY_THINKING);
+        
+        //only a cpu that searches ahead needs its own thread
+        if (strength.isThinking())
+        {
+            //create the thread to search on
+            this.executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "Cpu search");
+                    
+                    //don't keep the game running once the window is closed
+                    thread.setDaemon(true);
+                    
+                    return thread;
+                }
+            });
+        }
         
         //create the object representing the move
         this.currentMove = new Move();
@@ -50,8 +146,11 @@ public final class Cpu extends Player implements Disposable
         //create a new timer
         this.timer = new Timer();
         
-        //create a new list of options
-        this.options = new ArrayList<>();
+        //create the buffer for the legal moves
+        this.moves = new long[MoveGenerator.MAX_MOVES];
+        
+        //create our copy of the position
+        this.scratch = new Position();
     }
     
     @Override
@@ -59,12 +158,89 @@ public final class Cpu extends Player implements Disposable
     {
         this.currentMove = null;
         
-        this.options.clear();
-        this.options = null;
+        this.moves = null;
+        this.scratch = null;
+        
+        //stop the search in progress
+        if (thinking != null)
+        {
+            search.stop();
+            thinking.cancel(true);
+            thinking = null;
+        }
+        
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+        
+        if (search != null)
+        {
+            search.dispose();
+            search = null;
+        }
+        
+        this.timeManager = null;
+        this.ponderTimeManager = null;
+        this.lastResult = null;
         
         this.timer = null;
     }
     
+    /**
+     * Set how long the search can think about each move, an easy cpu decides instantly
+     * @param time The time allowed per move (nanoseconds)
+     */
+    public void setThinkingTime(final long time)
+    {
+        timeManager.setBudget(time);
+    }
+    
+    /**
+     * Think about the opponent's expected reply while the opponent decides on a move.<br>
+     * Only a cpu that searches on its own thread can ponder.
+     * @param pondering true to ponder, false otherwise
+     */
+    public void setPondering(final boolean pondering)
+    {
+        this.pondering = pondering;
+    }
+    
+    public boolean isPondering()
+    {
+        return this.pondering;
+    }
+    
+    /**
+     * @return The number of times the opponent made the move we were pondering
+     */
+    public int getPonderHits()
+    {
+        return this.ponderHits;
+    }
+    
+    /**
+     * @return The number of times the opponent made a different move than the one we were pondering
+     */
+    public int getPonderMisses()
+    {
+        return this.ponderMisses;
+    }
+    
+    /**
+     * Stop thinking about the opponent's reply, for example when the game is over
+     */
+    public void stopPondering()
+    {
+        if (thinking != null && ponderSearch)
+        {
+            ponderSearch = false;
+            cancelling = true;
+            search.stop();
+        }
+    }
+    
     @Override
     public boolean update(final Engine engine) throws Exception
     {
@@ -78,79 +254,21 @@ public final class Cpu extends Player implements Disposable
         if (isTrapped(opponent))
             return false;
         
-        /**
-         * The logic to picking/moving a checker piece is prioritized as follows
-         * 1. If we have a capture, we must take it
-         * 2. If we have a piece that can be captured, lets see if we can avoid capture
-         * 3. Lets see if we can move a piece to capture the opponent, without risking capture
-         * 4. Is there a piece we can move to create a king
-         * 5. Lets see if we can just move a piece to a safe location without risking capture
-         * 5. Worst case scenario move any piece at random
-         */
         if (!hasSelection())
         {
-            /**
-             * If we have a capture we must make that move
-             */
-            if (hasCapture(opponent))
-            {
-                //determine what piece performs the capture
-                checkCapture(opponent);
-            }
-            /**
-             * If we don't have a capture, check if one of our pieces is in danger.<br>
-             * If so we will move out of the way.
-             */
-            else if (opponent.hasCapture(this))
-            {
-                //avoid capture "if possible"
-                avoidCapture(opponent);
-            }
-             
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //lets see if we can attack the opponent without risking our pieces using a king
-                moveSafelyCapture(opponent, true);
-            }
-            
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //lets see if we can attack the opponent without risking our pieces using a regular piece
-                moveSafelyCapture(opponent, true);
-            }
+            //get every legal move, if we have a capture only the captures are returned
+            moveCount = MoveGenerator.generate(getPosition(), assignedNorth(), moves, 0);
             
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //now lets see if we can advance a checker to be king
-                advanceToKing(opponent);
-            }
-            
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //see if we can move a regular piece that won't put any checker in immediate danger
-                moveSafely(opponent, false);
-            }
-     
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //see if we can move a king piece that won't put any checker in immediate danger
-                moveSafely(opponent, true);
-            }
+            //copy the current position, it is our turn
+            scratch.assign(getPosition());
+            scratch.setNorthTurn(assignedNorth());
             
-            //if we still don't have any exiting options
-            if (options.isEmpty())
-            {
-                //move random
-                moveRandom(opponent);
-            }
+            //if we are still thinking, continue next update
+            if (!think())
+                return false;
             
-            //pick a random move
-            pickMove(engine.getRandom());
+            //assign the first step or jump of the move
+            assignHop(sequence);
             
             //play sound effect
             engine.getResources().playGameAudio(GameAudio.Keys.Select2);
@@ -158,7 +276,11 @@ public final class Cpu extends Player implements Disposable
         else
         {
             //move the piece and get the result if the move has completed
-            valid = move(engine.getMain().getTime(), engine.getManager().getBoard(), opponent, engine.getRandom(), engine.getResources());
+            valid = move(engine.getMain().getTime(), engine.getManager().getBoard(), opponent, engine.getResources());
+            
+            //think about the opponent's reply while they decide
+            if (valid)
+                ponder();
         }
         
         //return our result
@@ -166,585 +288,153 @@ public final class Cpu extends Player implements Disposable
     }
     
     /**
-     * Move a piece at random
-     * @param opponent The opponent we are facing
+     * Decide on the move we will make.<br>
+     * A cpu that searches ahead thinks on its own thread, each update we check if the search is done.
+     * @return true if we decided on a move, false if still thinking
+     * @throws Exception If the search failed
      */
-    private void moveRandom(final Player opponent)
+    private boolean think() throws Exception
     {
-        for (int i = 0; i < getPieces().size(); i++)
+        //an easy cpu decides right away
+        if (executor == null)
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //get the original location
-            final int col = (int)piece.getCol();
-            final int row = (int)piece.getRow();
-
-            //the place we want to move to
-            int newCol;
-            int newRow;
-
-            /**
-             * Lets try to move the piece to see if the capture count can be lowered
-             */
-            if (assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set our start and destination, and select the piece
-                    addOptionalMove(col, row, newCol, newRow, i);
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set our start and destination, and select the piece
-                    addOptionalMove(col, row, newCol, newRow, i);
-                }
-            }
-
-            if (!assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set our start and destination, and select the piece
-                    addOptionalMove(col, row, newCol, newRow, i);
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set our start and destination, and select the piece
-                    addOptionalMove(col, row, newCol, newRow, i);
-                }
-            }
+            timeManager.start(moveCount);
+            sequence = search.search(scratch, timeManager).getMove();
+            return true;
         }
-    }
-    
-    /**
-     * Lets see if we have any pieces to move to capture the opponent without putting in immediate danger.<br>
-     * @param opponent The opponent we are facing
-     * @param checkKing true if attempting to capture with a king safely, false if attempting to capture with a regular piece safely
-     */
-    private void moveSafelyCapture(final Player opponent, final boolean checkKing)
-    {
-        //lets see if we can move 1 piece forward without being captured
-        for (int i = 0; i < getPieces().size(); i++)
+        
+        //we were thinking about the opponent's expected reply
+        if (thinking != null && ponderSearch)
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //if we are checking for kings
-            if (checkKing)
-            {
-                //if the piece is not king, don't check it
-                if (!piece.isKing())
-                    continue;
-            }
-            else
-            {
-                //if the piece is king, don't check it
-                if (piece.isKing())
-                    continue;
-            }
+            ponderSearch = false;
             
-            //get the original location
-            final int col = (int)piece.getCol();
-            final int row = (int)piece.getRow();
-
-            //the place we want to move to
-            int newCol;
-            int newRow;
-
-            /**
-             * Lets try to move the piece to see if the capture count can be lowered
-             */
-            if (assignedNorth() || piece.isKing())
+            if (thinkingKey == scratch.getKey())
             {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //make sure this is a safe place to move
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //we also want to check that we have a capture available
-                        if (hasCapture(opponent))
-                        {
-                            //set our start and destination, and select the piece
-                            addOptionalMove(col, row, newCol, newRow, i);
-                        }
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //make sure this is a safe place to move
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //we also want to check that we have a capture available
-                        if (hasCapture(opponent))
-                        {
-                            //set our start and destination, and select the piece
-                            addOptionalMove(col, row, newCol, newRow, i);
-                        }
-                    }
-                }
+                //the opponent made the move we expected, the time spent pondering counts towards this move
+                ponderHits++;
+                timeManager.start(moveCount);
+                deadline = ponderStart + timeManager.getAllocated();
             }
-
-            if (!assignedNorth() || piece.isKing())
+            else
             {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //make sure this is a safe place to move
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //we also want to check that we have a capture available
-                        if (hasCapture(opponent))
-                        {
-                            //set our start and destination, and select the piece
-                            addOptionalMove(col, row, newCol, newRow, i);
-                        }
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //make sure this is a safe place to move
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //we also want to check that we have a capture available
-                        if (hasCapture(opponent))
-                        {
-                            //set our start and destination, and select the piece
-                            addOptionalMove(col, row, newCol, newRow, i);
-                        }
-                    }
-                }
+                //the opponent made a different move, we don't need this search anymore
+                ponderMisses++;
+                cancelling = true;
             }
-
-            //reset location
-            piece.setCol(col);
-            piece.setRow(row);
         }
-    }
-    
-    /**
-     * Lets see if we have any pieces that we can move without putting in immediate danger.<br>
-     * @param opponent The opponent we are facing
-     * @param checkKing true if attempting to move kings safely, false if attempting to move regular pieces safely
-     */
-    private void moveSafely(final Player opponent, final boolean checkKing)
-    {
-        //lets see if we can move 1 piece forward without being captured
-        for (int i = 0; i < getPieces().size(); i++)
+        
+        //wait for a search we don't need to stop, the search could have started after the last stop so keep asking
+        if (cancelling)
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //if we are checking for kings
-            if (checkKing)
-            {
-                //if the piece is not king, don't check it
-                if (!piece.isKing())
-                    continue;
-            }
-            else
-            {
-                //if the piece is king, don't check it
-                if (piece.isKing())
-                    continue;
-            }
+            search.stop();
             
-            //get the original location
-            final int col = (int)piece.getCol();
-            final int row = (int)piece.getRow();
-
-            //the place we want to move to
-            int newCol;
-            int newRow;
-
-            /**
-             * Lets try to move the piece to see if the capture count can be lowered
-             */
-            if (assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if there are no captures for the opponent this location is good
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if there are no captures for the opponent this location is good
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-            }
-
-            if (!assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if there are no captures for the opponent this location is good
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if there are no captures for the opponent this location is good
-                    if (opponent.getCaptureCount(this) <= Checker.NO_CAPTURES)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-            }
-
-            //reset location
-            piece.setCol(col);
-            piece.setRow(row);
+            if (!thinking.isDone())
+                return false;
+            
+            thinking = null;
+            cancelling = false;
         }
-    }
-    
-    /**
-     * Lets see if we have any pieces that can become a king
-     * @param opponent The opponent we are facing
-     */
-    private void advanceToKing(final Player opponent)
-    {
-        //lets see if we can advance 1 checker to be a king
-        for (int i = 0; i < getPieces().size(); i++)
+        
+        //start a new search if we aren't already thinking
+        if (thinking == null)
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //we are not concerned with advancing a piece if already a king
-            if (piece.isKing())
-                continue;
-
-            //get the original location
-            final int col = (int)piece.getCol();
-            final int row = (int)piece.getRow();
-
-            //check which way we are heading
-            if (assignedNorth())
-            {
-                if (piece.getRow() == Board.ROWS_MIN + Player.MOVE_NORMAL)
-                {
-                    //if valid location move accordingly
-                    if (piece.isValidLocation(opponent, this, col - Player.MOVE_NORMAL, Board.ROWS_MIN))
-                    {
-                        addOptionalMove(col, row, col - Player.MOVE_NORMAL, Board.ROWS_MIN, i);
-                    }
-                    else if (piece.isValidLocation(opponent, this, col + Player.MOVE_NORMAL, Board.ROWS_MIN))
-                    {
-                        addOptionalMove(col, row, col + Player.MOVE_NORMAL, Board.ROWS_MIN, i);
-                    }
-                }
-            }
-            else
+            //a position with fewer choices will get less time
+            timeManager.start(moveCount);
+            
+            //the search gets its own copy, our scratch position is reused every update
+            final Position root = new Position(scratch);
+            
+            //remember what we are thinking about
+            thinkingKey = root.getKey();
+            
+            thinking = executor.submit(new Callable<SearchResult>()
             {
-                if (piece.getRow() == Board.ROWS_MAX - Player.MOVE_NORMAL)
+                @Override
+                public SearchResult call() throws Exception
                 {
-                    //if valid location move accordingly
-                    if (piece.isValidLocation(opponent, this, col - Player.MOVE_NORMAL, Board.ROWS_MAX))
-                    {
-                        addOptionalMove(col, row, col - Player.MOVE_NORMAL, Board.ROWS_MAX, i);
-                    }
-                    else if (piece.isValidLocation(opponent, this, col + Player.MOVE_NORMAL, Board.ROWS_MAX))
-                    {
-                        addOptionalMove(col, row, col + Player.MOVE_NORMAL, Board.ROWS_MAX, i);
-                    }
+                    return search.search(root, timeManager);
                 }
-            }
+            });
+            
+            return false;
         }
-    }
-    
-    /**
-     * Check if we can avoid capture.<br>
-     * We only want to check if we currently have a piece that will be captured if we do not act
-     * @param opponent The opponent we are facing
-     */
-    private void avoidCapture(final Player opponent)
-    {
-        //get the capture count
-        final int captureMax = opponent.getCaptureCount(this);
-
-        //check each piece to see if we can lower the capture count
-        for (int i = 0; i < getPieces().size(); i++)
+        
+        //we are still thinking
+        if (!thinking.isDone())
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //get the original location
-            final int col = (int)piece.getCol();
-            final int row = (int)piece.getRow();
-
-            //the place we want to move to
-            int newCol;
-            int newRow;
-
-            /**
-             * Lets try to move the piece to see if the capture count can be lowered
-             */
-            if (assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if the capture count is lower this is a good move
-                    if (opponent.getCaptureCount(this) < captureMax)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row - Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if the capture count is lower this is a good move
-                    if (opponent.getCaptureCount(this) < captureMax)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-            }
-
-            if (!assignedNorth() || piece.isKing())
-            {
-                //set the new location
-                newCol = col - Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if the capture count is lower this is a good move
-                    if (opponent.getCaptureCount(this) < captureMax)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-
-                //set the new location
-                newCol = col + Player.MOVE_NORMAL;
-                newRow = row + Player.MOVE_NORMAL;
-
-                //make sure this is a valid location
-                if (piece.isValidLocation(opponent, this, newCol, newRow))
-                {
-                    //set new location
-                    piece.setCol(newCol);
-                    piece.setRow(newRow);
-
-                    //if the capture count is lower this is a good move
-                    if (opponent.getCaptureCount(this) < captureMax)
-                    {
-                        //set our start and destination, and select the piece
-                        addOptionalMove(col, row, newCol, newRow, i);
-                    }
-                }
-            }
-
-            //reset location
-            piece.setCol(col);
-            piece.setRow(row);
+            //after a ponder hit the search doesn't know when to stop, so we tell it
+            if (deadline != 0 && System.nanoTime() >= deadline)
+                search.stop();
+            
+            return false;
         }
+        
+        final SearchResult result = thinking.get();
+        
+        //the search is done
+        thinking = null;
+        deadline = 0;
+        
+        //if the board changed while we were thinking (the game was reset), think again
+        if (thinkingKey != scratch.getKey())
+            return false;
+        
+        //this is the move we will make
+        sequence = result.getMove();
+        
+        //remember the reply we expect
+        lastResult = result;
+        
+        return true;
     }
     
     /**
-     * Determine which piece will capture.
-     * @param opponent The opponent we are facing
+     * Start searching the position after the opponent's expected reply to the move we just made.<br>
+     * The expected reply is the second move of the principal variation of our last search.
      */
-    private void checkCapture(final Player opponent)
+    private void ponder()
     {
-        //check each piece to see where we can capture
-        for (int i = 0; i < getPieces().size(); i++)
+        if (!pondering || executor == null || thinking != null || lastResult == null || lastResult.getVariation().length < 2)
+            return;
+        
+        final long reply = lastResult.getVariation()[1];
+        
+        //the position after our move, with the opponent to move
+        final Position root = new Position(getPosition());
+        root.setNorthTurn(!assignedNorth());
+        
+        //make sure the reply is still legal
+        final int count = MoveGenerator.generate(root, root.isNorthTurn(), moves, 0);
+        
+        boolean legal = false;
+        
+        for (int i = 0; i < count; i++)
         {
-            //get the current piece
-            final Checker piece = getPieces().get(i);
-
-            //check the captures for this piece and add optional selections (if available)
-            checkCapturePiece(opponent, piece, i);
+            if (moves[i] == reply)
+                legal = true;
         }
-    }
-    
-    /**
-     * Check the captures for the given piece.<br>
-     * If the piece has captures, they will be added to the list of optional moves.
-     * @param opponent Opponent we are facing
-     * @param piece The current piece we want to check for captures
-     * @param indexSelection The index of the checker we are targeting
-     */
-    private void checkCapturePiece(final Player opponent, final Checker piece, final int indexSelection)
-    {
-        //get the original location
-        final int col = (int)piece.getCol();
-        final int row = (int)piece.getRow();
-
-        //the place we want to move to
-        int newCol;
-        int newRow;
-
-        //if this piece has a capture
-        if (piece.getCaptureCount(opponent, this) > Checker.NO_CAPTURES)
+        
+        if (!legal)
+            return;
+        
+        root.play(reply);
+        
+        //remember what we are thinking about
+        thinkingKey = root.getKey();
+        ponderSearch = true;
+        ponderStart = System.nanoTime();
+        
+        //search until the opponent moves
+        ponderTimeManager.startUnlimited();
+        
+        thinking = executor.submit(new Callable<SearchResult>()
         {
-            //north-west
-            newCol = col - Player.MOVE_CAPTURE;
-            newRow = row - Player.MOVE_CAPTURE;
-
-            //mark at selection if we can capture
-            if (piece.hasCapture(opponent, this, newCol, newRow))
-                addOptionalMove(col, row, newCol, newRow, indexSelection);
-
-            //north-east
-            newCol = col + Player.MOVE_CAPTURE;
-            newRow = row - Player.MOVE_CAPTURE;
-
-            //mark at selection if we can capture
-            if (piece.hasCapture(opponent, this, newCol, newRow))
-                addOptionalMove(col, row, newCol, newRow, indexSelection);
-
-            //south-west
-            newCol = col - Player.MOVE_CAPTURE;
-            newRow = row + Player.MOVE_CAPTURE;
-
-            //mark at selection if we can capture
-            if (piece.hasCapture(opponent, this, newCol, newRow))
-                addOptionalMove(col, row, newCol, newRow, indexSelection);
-
-            //south-east
-            newCol = col + Player.MOVE_CAPTURE;
-            newRow = row + Player.MOVE_CAPTURE;
-
-            //mark at selection if we can capture
-            if (piece.hasCapture(opponent, this, newCol, newRow))
-                addOptionalMove(col, row, newCol, newRow, indexSelection);
-        }
+            @Override
+            public SearchResult call() throws Exception
+            {
+                return search.search(root, ponderTimeManager);
+            }
+        });
     }
     
     /**
@@ -752,12 +442,11 @@ public final class Cpu extends Player implements Disposable
      * @param time Time to deduct from timer
      * @param board The game board
      * @param opponent The opponent we are facing
-     * @param random Object used to make random decisions
      * @param resources Object used to play sound
      * @return true if the cpu move has been completed, false otherwise
      * @throws Exception 
      */
-    private boolean move(final long time, final Board board, final Player opponent, final Random random, final Resources resources) throws Exception
+    private boolean move(final long time, final Board board, final Player opponent, final Resources resources) throws Exception
     {
         boolean valid = false;
         
@@ -824,8 +513,8 @@ public final class Cpu extends Player implements Disposable
             //store the current piece selection
             final int selection = getSelection();
 
-            //place the piece
-            placeSelection(board, currentMove.endCol, currentMove.endRow);
+            //place the piece, the position still has it at the start of the move
+            placeSelection(board, currentMove.startCol, currentMove.startRow, currentMove.endCol, currentMove.endRow);
 
             //assign the piece once more
             setSelection(selection);
@@ -841,8 +530,8 @@ public final class Cpu extends Player implements Disposable
             }
             else
             {
-                //if we did perform a capture, but no longer have captures with this piece, the turn is complete
-                if (getCurrentSelection().getCaptureCount(opponent, this) == Checker.NO_CAPTURES)
+                //if we did perform a capture, but there are no more jumps in our sequence, the turn is complete
+                if (!assignNextJump())
                 {
                     //do not have a piece selected
                     setSelection(NO_SELECTION);
@@ -850,26 +539,6 @@ public final class Cpu extends Player implements Disposable
                     //a valid move has been made
                     valid = true;
                 }
-                else
-                {
-                    //locate the capture moves for this piece
-                    checkCapturePiece(opponent, getCurrentSelection(), super.getSelection());
-                    
-                    //if there are no more captures in the optional list, the turn is over
-                    if (options.isEmpty())
-                    {
-                        //do not have a piece selected
-                        setSelection(NO_SELECTION);
-
-                        //a valid move has been made
-                        valid = true;
-                    }
-                    else
-                    {
-                        //else pick the next jump move
-                        pickMove(random);
-                    }
-                }
             }
 
             //reset timer
@@ -881,44 +550,66 @@ public final class Cpu extends Player implements Disposable
     }
     
     /**
-     * Pick a move from our available options
-     * @param random Object used to make random decisions
+     * Locate the next jump of the sequence we are performing.<br>
+     * The jumps remaining are generated from the current location of the selected piece.
+     * @return true if another jump is to be made, false if the sequence is complete
      */
-    private void pickMove(final Random random)
+    private boolean assignNextJump()
     {
-        //pick random optional move
-        final Move move = options.get(random.nextInt(options.size()));
+        //the opponent pieces in our sequence that have not been captured yet
+        final int remaining = MoveGenerator.getCaptured(sequence) & getPosition().getPieces(!assignedNorth());
         
-        //assign the current move
-        currentMove.assign(move);
+        //if everything has been captured, the sequence is complete
+        if (remaining == 0)
+            return false;
         
-        setSelection(move.selection);
+        //the current location of the piece
+        final int square = Position.getSquare((int)getCurrentSelection().getCol(), (int)getCurrentSelection().getRow());
         
-        //get the row difference
-        int rowDiff = (int)((currentMove.endRow > currentMove.startRow) ? currentMove.endRow - currentMove.startRow : currentMove.startRow - currentMove.endRow);
-
-        //if the row difference is 2, we have a capture and we will alter the timer accordingly
-        timer.setReset((rowDiff == Player.MOVE_CAPTURE) ? DELAY_MOVE_CAPTURE : DELAY_MOVE_REGULAR);
+        //get the jumps available from here
+        final int count = MoveGenerator.generateJumps(getPosition(), assignedNorth(), square, moves, 0);
         
-        //reset timer
-        timer.reset();
+        for (int i = 0; i < count; i++)
+        {
+            //find the rest of our sequence
+            if (MoveGenerator.getDestination(moves[i]) == MoveGenerator.getDestination(sequence) && MoveGenerator.getCaptured(moves[i]) == remaining)
+            {
+                //this is now the sequence we are performing
+                sequence = moves[i];
+                
+                //assign the next jump
+                assignHop(sequence);
+                
+                return true;
+            }
+        }
         
-        //also remove existing options
-        options.clear();
+        //the sequence could not be continued
+        return false;
     }
     
     /**
-     * Assign the start and finish as well as checker selection
-     * @param startCol Starting Column
-     * @param startRow Starting Row
-     * @param endCol End Column
-     * @param endRow End Row
-     * @param selection Checker selected
+     * Assign the first step or jump of the move as the current move to animate, and select the piece
+     * @param move The move we are performing
      */
-    private void addOptionalMove(final int startCol, final int startRow, final int endCol, final int endRow, final int selection)
+    private void assignHop(final long move)
     {
-        //add option to list
-        this.options.add(new Move(startCol, startRow, endCol, endRow, selection));
+        final int start = MoveGenerator.getStart(move);
+        final int destination = MoveGenerator.getHopDestination(move);
+        
+        //assign the current move
+        currentMove.assign(
+            Position.getColumn(start), Position.getRow(start), 
+            Position.getColumn(destination), Position.getRow(destination), 
+            getPieceIndex(Position.getColumn(start), Position.getRow(start)));
+        
+        setSelection(currentMove.selection);
+        
+        //if we have a capture we will alter the timer accordingly
+        timer.setReset((MoveGenerator.isCapture(move)) ? DELAY_MOVE_CAPTURE : DELAY_MOVE_REGULAR);
+        
+        //reset timer
+        timer.reset();
     }
     
     /**
@@ -953,15 +644,19 @@ public final class Cpu extends Player implements Disposable
         
         /**
          * Assign the move with the given
-         * @param move Object representing a checker move
+         * @param startCol Starting Column
+         * @param startRow Starting Row
+         * @param endCol End Column
+         * @param endRow End Row
+         * @param selection Checker selected
          */
-        private void assign(final Move move)
+        private void assign(final int startCol, final int startRow, final int endCol, final int endRow, final int selection)
         {
-            this.startCol   = move.startCol;
-            this.startRow   = move.startRow;
-            this.endCol     = move.endCol;
-            this.endRow     = move.endRow;
-            this.selection  = move.selection;
+            this.startCol   = startCol;
+            this.startRow   = startRow;
+            this.endCol     = endCol;
+            this.endRow     = endRow;
+            this.selection  = selection;
         }
     }
 }
\ No newline at end of file
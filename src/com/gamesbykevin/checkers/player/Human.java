@@ -8,6 +8,8 @@ import com.gamesbykevin.checkers.board.Board;
 import com.gamesbykevin.checkers.engine.Engine;
 import com.gamesbykevin.checkers.message.Message;
 import com.gamesbykevin.checkers.piece.Checker;
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
 import com.gamesbykevin.checkers.resources.GameAudio;
 
 /**
@@ -16,9 +18,27 @@ import com.gamesbykevin.checkers.resources.GameAudio;
  */
 public final class Human extends Player
 {
-    public Human(final boolean attackNorth, final Players.PieceKey pieceRegular, final Players.PieceKey pieceKing)
+    //the buffer for the legal moves
+    private final long[] moves;
+    
+    //the square of the piece in the middle of a capture, it has to keep jumping
+    private int jumping = Position.NO_SQUARE;
+    
+    public Human(final Position position, final boolean attackNorth, final Players.PieceKey pieceRegular, final Players.PieceKey pieceKing)
     {
-        super(attackNorth, pieceRegular, pieceKing);
+        super(position, attackNorth, pieceRegular, pieceKing);
+        
+        //create the buffer for the legal moves
+        this.moves = new long[MoveGenerator.MAX_MOVES];
+    }
+    
+    @Override
+    public void reset()
+    {
+        super.reset();
+        
+        //a capture that was not finished in the last game is gone
+        jumping = Position.NO_SQUARE;
     }
     
     @Override
@@ -55,12 +75,11 @@ public final class Human extends Player
                 //get the game board
                 final Board board = engine.getManager().getBoard();
                 
-                //get the column, row where we want to place
-                final int newCol = board.getColumn(x, y);
-                final int newRow = board.getRow(x, y);
+                //get the cell where we want to place
+                final int cell = board.getCell(x, y);
                 
                 //make sure the location is on the playable board
-                if (!Board.hasBoundary(newCol, newRow))
+                if (cell == Board.NO_CELL)
                 {
                     //prompt user of invalid move
                     engine.getManager().getMessage().setDescription2(Message.MESSAGE_INVALID_MOVE);
@@ -72,6 +91,10 @@ public final class Human extends Player
                     return false;
                 }
                 
+                //the column, row where we want to place
+                final int newCol = Board.getCellColumn(cell);
+                final int newRow = Board.getCellRow(cell);
+                
                 //do we already have a piece at this location
                 if (hasPiece(newCol, newRow))
                 {
@@ -95,141 +118,91 @@ public final class Human extends Player
                 }
                 else
                 {
-                    //check if the piece can be placed here, lets see which direction we are heading
-                    final boolean north = (piece.getRow() > newRow);
+                    //the location of the piece and where we want to place it
+                    final int start = Position.getSquare((int)piece.getCol(), (int)piece.getRow());
+                    final int destination = Position.getSquare(newCol, newRow);
+                    
+                    //get the legal moves, if we are in the middle of a capture only that piece can continue jumping
+                    final int count = (jumping == Position.NO_SQUARE) ? 
+                        MoveGenerator.generate(getPosition(), assignedNorth(), moves, 0) : 
+                        MoveGenerator.generateJumps(getPosition(), assignedNorth(), jumping, moves, 0);
                     
-                    //are we heading in the correct direction
-                    boolean correctDirection = true;
+                    //find the legal move that starts with this step or jump
+                    final int index = (destination == Position.NO_SQUARE) ? -1 : MoveGenerator.findHop(moves, 0, count, start, destination);
                     
-                    //if the piece is not a king, let's see if we can move in this direction
-                    if (!piece.isKing())
+                    if (index < 0)
                     {
-                        //if we are moving in a direction we are not assigned
-                        if (assignedNorth() && !north || !assignedNorth() && north)
+                        if (opponent.hasPiece(newCol, newRow))
                         {
-                            //not the correct direction
-                            correctDirection = false;
-                            
-                            //prompt user, that they made an invalid move
+                            //can't place a piece where the enemy is
+                            engine.getManager().getMessage().setDescription2(Message.MESSAGE_PIECE_EXISTS);
+                        }
+                        else if (jumping != Position.NO_SQUARE)
+                        {
+                            //display to user they have to complete the capture
+                            engine.getManager().getMessage().setDescription2(Message.MESSAGE_COMPLETE_JUMP);
+                        }
+                        else if (count > 0 && MoveGenerator.isCapture(moves[0]))
+                        {
+                            //prompt user, they must capture the opponent
+                            engine.getManager().getMessage().setDescription2(Message.MESSAGE_JUMP_REQUIRED);
+                        }
+                        else
+                        {
+                            //display to user invalid move
                             engine.getManager().getMessage().setDescription2(Message.MESSAGE_INVALID_MOVE);
-                            
-                            //play sound effect
-                            engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
                         }
+                        
+                        //play sound effect
+                        engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
                     }
-                    else
+                    else if (!MoveGenerator.isCapture(moves[index]))
                     {
-                        //a king can move in any direction
-                        correctDirection = true;
+                        //reset selection
+                        placeSelection(board, newCol, newRow);
+                        
+                        //a valid move has been made
+                        valid = true;
+                        
+                        //play sound effect
+                        engine.getResources().playGameAudio(GameAudio.Keys.Place1);
                     }
-                    
-                    //if we are heading in the appropriate direction
-                    if (correctDirection)
+                    else
                     {
-                        final boolean hasCapture = this.hasCapture(opponent);
+                        //get the enemy position
+                        final int enemyCol = (newCol > piece.getCol()) ? newCol - Player.MOVE_NORMAL : newCol + Player.MOVE_NORMAL;
+                        final int enemyRow = (newRow > piece.getRow()) ? newRow - Player.MOVE_NORMAL : newRow + Player.MOVE_NORMAL;
+                        
+                        //a regular piece crowned during a capture ends the turn
+                        final boolean crowned = (getPosition().getKings() & (1 << start)) == 0 && 
+                            ((1 << destination) & MoveGenerator.getCrownRow(assignedNorth())) != 0;
+                        
+                        //remove enemy piece
+                        opponent.remove(enemyCol, enemyRow);
+                        
+                        //reset selection
+                        placeSelection(board, newCol, newRow);
                         
-                        //you can't place a piece on top of the cpu
-                        if (!opponent.hasPiece(newCol, newRow))
+                        //if this piece was crowned or no longer has any captures, the turn is complete
+                        if (crowned || MoveGenerator.generateJumps(getPosition(), assignedNorth(), destination, moves, 0) == 0)
                         {
-                            //now check if the new location is in range
-                            final int rowDiff = (int)((piece.getRow() > newRow) ? piece.getRow() - newRow : newRow - piece.getRow());
-                            final int colDiff = (int)((piece.getCol() > newCol) ? piece.getCol() - newCol : newCol - piece.getCol());
+                            //we are no longer jumping
+                            jumping = Position.NO_SQUARE;
                             
-                            //if moving 1 spot
-                            if (colDiff == Player.MOVE_NORMAL && rowDiff == Player.MOVE_NORMAL)
-                            {
-                                //make sure the player doesn't have to make a required capture
-                                if (!hasCapture)
-                                {
-                                    //reset selection
-                                    placeSelection(board, newCol, newRow);
-
-                                    //a valid move has been made
-                                    valid = true;
-                                    
-                                    //play sound effect
-                                    engine.getResources().playGameAudio(GameAudio.Keys.Place1);
-                                }
-                                else
-                                {
-                                    //prompt user, they must capture the opponent
-                                    engine.getManager().getMessage().setDescription2(Message.MESSAGE_JUMP_REQUIRED);
-                                    
-                                    //play sound effect
-                                    engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
-                                }
-                            }
-                            else if (colDiff == Player.MOVE_CAPTURE && rowDiff == Player.MOVE_CAPTURE)
-                            {
-                                //get the enemy position
-                                final int enemyCol = (newCol > piece.getCol()) ? newCol - Player.MOVE_NORMAL : newCol + Player.MOVE_NORMAL;
-                                final int enemyRow = (newRow > piece.getRow()) ? newRow - Player.MOVE_NORMAL : newRow + Player.MOVE_NORMAL;
-                                
-                                //make sure we are jumping the enemy
-                                if (opponent.hasPiece(enemyCol, enemyRow))
-                                {
-                                    //store the current piece selection
-                                    final int selection = getSelection();
-                                    
-                                    //remove enemy piece
-                                    opponent.remove(enemyCol, enemyRow);
-
-                                    //reset selection
-                                    placeSelection(board, newCol, newRow);
-
-                                    //assign the piece once more
-                                    setSelection(selection);
-                                    
-                                    //if this piece no longer has any captures, the turn is complete
-                                    if (getCurrentSelection().getCaptureCount(opponent, this) == Checker.NO_CAPTURES)
-                                    {
-                                        //a valid move has been made
-                                        valid = true;
-                                    }
-                                    else
-                                    {
-                                        //display to user they have to complete the capture
-                                        engine.getManager().getMessage().setDescription2(Message.MESSAGE_COMPLETE_JUMP);
-                                    }
-                                        
-                                    //do not have a piece selected
-                                    setSelection(NO_SELECTION);
-                                    
-                                    //play sound effect
-                                    engine.getResources().playGameAudio(GameAudio.Keys.Capture1);
-                                }
-                                else
-                                {
-                                    //not a valid jump
-                                    valid = false;
-                                    
-                                    //display to user invalid move
-                                    engine.getManager().getMessage().setDescription2(Message.MESSAGE_INVALID_MOVE);
-                                    
-                                    //play sound effect
-                                    engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
-                                }
-                            }
-                            else
-                            {
-                                //display to user invalid move
-                                engine.getManager().getMessage().setDescription2(Message.MESSAGE_INVALID_MOVE);
-                                
-                                //play sound effect
-                                engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
-                            }
+                            //a valid move has been made
+                            valid = true;
                         }
                         else
                         {
-                            //can't place a piece where the enemy is
-                            valid = false;
-                            
-                            //display to user that there is already a piece here
-                            engine.getManager().getMessage().setDescription2(Message.MESSAGE_PIECE_EXISTS);
+                            //this piece has to complete the capture
+                            jumping = destination;
                             
-                            //play sound effect
-                            engine.getResources().playGameAudio(GameAudio.Keys.Invalid);
+                            //display to user they have to complete the capture
+                            engine.getManager().getMessage().setDescription2(Message.MESSAGE_COMPLETE_JUMP);
                         }
+                        
+                        //play sound effect
+                        engine.getResources().playGameAudio(GameAudio.Keys.Capture1);
                     }
                 }
             }
@@ -255,8 +228,17 @@ public final class Human extends Player
                     //play sound effect
                     engine.getResources().playGameAudio(GameAudio.Keys.Select1);
                     
+                    //if we are in the middle of a capture, only that piece can be moved
+                    if (jumping != Position.NO_SQUARE && !getCurrentSelection().hasMatch(Position.getColumn(jumping), Position.getRow(jumping)))
+                    {
+                        //we will unselect this piece
+                        setSelection(NO_SELECTION);
+                        
+                        //display message
+                        engine.getManager().getMessage().setDescription2(Message.MESSAGE_COMPLETE_JUMP);
+                    }
                     //if we have a capture
-                    if (hasCapture(opponent))
+                    else if (hasCapture(opponent))
                     {
                         //but the current piece does not have any captures
                         if (getCurrentSelection().getCaptureCount(opponent, this) == Checker.NO_CAPTURES)
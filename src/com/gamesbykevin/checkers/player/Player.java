@@ -6,6 +6,7 @@ import com.gamesbykevin.framework.resources.Disposable;
 import com.gamesbykevin.checkers.board.Board;
 import com.gamesbykevin.checkers.engine.Engine;
 import com.gamesbykevin.checkers.piece.Checker;
+import com.gamesbykevin.checkers.position.Position;
 import com.gamesbykevin.checkers.player.Players.PieceKey;
 
 import java.awt.Point;
@@ -25,6 +26,9 @@ public abstract class Player implements Disposable
     //list of checker pieces
     private List<Checker> pieces;
     
+    //the location of every checker on the board, shared with the opponent
+    private Position position;
+    
     //the direction the player is attacking (either north or south)
     private final boolean north;
     
@@ -43,8 +47,11 @@ public abstract class Player implements Disposable
     //the animations to user for the players checkers
     private final PieceKey pieceKeyRegular, pieceKeyKing;
     
-    protected Player(final boolean north, final PieceKey pieceKeyRegular, final PieceKey pieceKeyKing)
+    protected Player(final Position position, final boolean north, final PieceKey pieceKeyRegular, final PieceKey pieceKeyKing)
     {
+        //assign the position shared by both players
+        this.position = position;
+        
         //assign the direction we are attacking
         this.north = north;
         
@@ -74,6 +81,16 @@ public abstract class Player implements Disposable
         return this.pieceKeyKing;
     }
     
+    /**
+     * Get the position of every checker on the board.<br>
+     * The position is shared by both players and kept in sync with each player's list of pieces.
+     * @return The position used for all rules checks
+     */
+    public Position getPosition()
+    {
+        return this.position;
+    }
+    
     /**
      * Get the index of the piece located within the coordinates
      * @param location x,y coordinates
@@ -183,6 +200,9 @@ public abstract class Player implements Disposable
         if (hasPiece(col, row))
             throw new Exception("A checker piece already exists here. col=" + col + ", row=" + row);
         
+        //add the piece to the position
+        getPosition().add(assignedNorth(), col, row, king);
+        
         getPieces().add(new Checker(col, row, king));
     }
     
@@ -197,6 +217,9 @@ public abstract class Player implements Disposable
         if (!hasPiece(col, row))
             throw new Exception("The checker piece does not exist. col=" + col + ", row=" + row);
         
+        //remove the piece from the position
+        getPosition().remove(assignedNorth(), col, row);
+        
         //check each piece to see if we have a match
         for (int i = 0; i < getPieces().size(); i++)
         {
@@ -230,18 +253,8 @@ public abstract class Player implements Disposable
      */
     public int getCaptureCount(final Player opponent)
     {
-        //keep track of the number of captures
-        int count = 0;
-        
-        //check each piece to see if we have a jump
-        for (int i = 0; i < getPieces().size(); i++)
-        {
-            //add the number of captures this piece has to our total
-            count += getPiece(i).getCaptureCount(opponent, this);
-        }
-        
-        //no capture found, return false
-        return count;
+        //count the captures in each direction for all of our pieces at once
+        return getPosition().getCaptureCount(assignedNorth());
     }
     
     /**
@@ -274,6 +287,31 @@ public abstract class Player implements Disposable
     {
         //the current selected piece
         Checker piece = getCurrentSelection();
+        
+        //the piece is moving from its current location
+        placeSelection(board, (int)piece.getCol(), (int)piece.getRow(), col, row);
+    }
+    
+    /**
+     * Assign the location for the current selected piece.<br>
+     * Then assign the appropriate x,y coordinates.<br>
+     * We will also check if the piece qualifies to become a king<br>
+     * Finally reset the current piece selection<br>
+     * 
+     * @param board The game board, used to get the x,y coordinates
+     * @param startCol The column the piece was located at before it started moving
+     * @param startRow The row the piece was located at before it started moving
+     * @param col The column we want to place the current assigned piece
+     * @param row The row we want to place the current assigned piece
+     * @throws Exception if the column or row is out of range of the board
+     */
+    protected void placeSelection(final Board board, final int startCol, final int startRow, final int col, final int row) throws Exception
+    {
+        //the current selected piece
+        Checker piece = getCurrentSelection();
+        
+        //move the piece in the position
+        getPosition().move(assignedNorth(), startCol, startRow, col, row);
 
         //assign the location
         piece.setCol(col);
@@ -290,6 +328,9 @@ public abstract class Player implements Disposable
             {
                 piece.setKing(piece.getRow() == Board.ROWS_MAX);
             }
+            
+            //update the position accordingly
+            getPosition().setKing(col, row, piece.isKing());
         }
         
         //set the appropriate coordinates
@@ -318,16 +359,7 @@ public abstract class Player implements Disposable
      */
     public boolean hasPiece(final int col, final int row)
     {
-        //check each piece to see if we have one
-        for (int i = 0; i < getPieces().size(); i++)
-        {
-            //if the location matches we have a piece here
-            if (getPiece(i).hasMatch(col, row))
-                return true;
-        }
-        
-        //we do not have a piece at this location
-        return false;
+        return getPosition().hasPiece(assignedNorth(), col, row);
     }
     
     /**
@@ -354,6 +386,26 @@ public abstract class Player implements Disposable
         return null;
     }
     
+    /**
+     * Get the index of the checker piece at the specified location.
+     * @param col Column
+     * @param row Row
+     * @return The index of the piece in the list, if not found NO_SELECTION -1 will be returned
+     */
+    protected int getPieceIndex(final int col, final int row)
+    {
+        //check each piece
+        for (int i = 0; i < getPieces().size(); i++)
+        {
+            //if the locations match return the index
+            if (getPiece(i).hasMatch(col, row))
+                return i;
+        }
+        
+        //the piece was not found
+        return NO_SELECTION;
+    }
+    
     /**
      * Get the checker piece
      * @param index The location of the piece in the list
@@ -380,23 +432,18 @@ public abstract class Player implements Disposable
      */
     public boolean isTrapped(final Player opponent)
     {
-        //there are no more pieces, we are trapped
-        if (getPieces().isEmpty())
-            return true;
-        
-        //check each piece
-        for (int i = 0; i < getPieces().size(); i++)
-        {
-            //get the current piece
-            final Checker piece = getPiece(i);
-            
-            //if this piece is not trapped, then the player can make at least 1 move
-            if (!piece.isTrapped(opponent, this))
-                return false;
-        }
+        //if no piece can move or capture in any direction, we are trapped (this includes having no pieces)
+        return getPosition().isTrapped(assignedNorth());
+    }
+    
+    /**
+     * Remove all of the player's pieces and any selection, so a new game can start
+     */
+    public void reset()
+    {
+        getPieces().clear();
         
-        //we couldn't find 1 piece that is not trapped, so the player is trapped
-        return true;
+        setSelection(NO_SELECTION);
     }
     
     /**
@@ -420,5 +467,7 @@ public abstract class Player implements Disposable
             pieces.clear();
             pieces = null;
         }
+        
+        position = null;
     }
 }
\ No newline at end of file
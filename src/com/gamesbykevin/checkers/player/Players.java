@@ -6,7 +6,9 @@ import com.gamesbykevin.checkers.board.Board;
 import com.gamesbykevin.checkers.engine.Engine;
 import com.gamesbykevin.checkers.message.Message;
 import com.gamesbykevin.checkers.piece.Checker;
+import com.gamesbykevin.checkers.position.Position;
 import com.gamesbykevin.checkers.resources.GameAudio;
+import com.gamesbykevin.checkers.search.Strength;
 import com.gamesbykevin.checkers.shared.IElement;
 
 import java.awt.event.KeyEvent;
@@ -22,12 +24,18 @@ public final class Players extends Sprite implements IElement
     //the players in the game
     private Player player1, player2;
     
+    //the location of every checker, shared by both players
+    private Position position;
+    
     //player 1 will go first
     private boolean player1turn = true;
     
     //has the game ended
     private boolean gameover = false;
     
+    //the checkers after the previous update and after the latest update, only used on the update thread
+    private Snapshot previous, current;
+    
     /**
      * The button to hit for reset
      */
@@ -38,10 +46,18 @@ public final class Players extends Sprite implements IElement
      * 1) human vs. cpu
      * 2) cpu vs. cpu
      * 3) human vs. human
+     * 4) human vs. cpu (hard)
+     * 5) cpu vs. cpu (hard)
+     * 6) human vs. cpu (expert)
+     * 7) cpu vs. cpu (expert)
      */
     public static final int HUMAN_CPU = 0;
     public static final int CPU_CPU = 1;
     public static final int HUMAN_HUMAN = 2;
+    public static final int HUMAN_CPU_HARD = 3;
+    public static final int CPU_CPU_HARD = 4;
+    public static final int HUMAN_CPU_EXPERT = 5;
+    public static final int CPU_CPU_EXPERT = 6;
     
     public enum PieceKey
     {
@@ -59,6 +75,24 @@ public final class Players extends Sprite implements IElement
             this.col = col;
             this.row = row;
         }
+        
+        /**
+         * Draw the checker straight from the sprite sheet.<br>
+         * No sprite is changed, so this is safe to call from the render thread.
+         * @param graphics Object used to draw graphics
+         * @param image The sprite sheet
+         * @param x x-coordinate
+         * @param y y-coordinate
+         */
+        public void draw(final Graphics graphics, final Image image, final int x, final int y)
+        {
+            final int sourceX = col * Board.CELL_DIMENSIONS;
+            final int sourceY = row * Board.CELL_DIMENSIONS;
+            
+            graphics.drawImage(image, 
+                x, y, x + Board.CELL_DIMENSIONS, y + Board.CELL_DIMENSIONS, 
+                sourceX, sourceY, sourceX + Board.CELL_DIMENSIONS, sourceY + Board.CELL_DIMENSIONS, null);
+        }
     }
     
     public Players(final Image image, final boolean random, final int playerModeIndex) throws Exception
@@ -69,6 +103,9 @@ public final class Players extends Sprite implements IElement
         //create spritesheet
         super.createSpriteSheet();
         
+        //create the position both players will share
+        this.position = new Position();
+        
         //pick checker animations for player 1
         PieceKey regular = (random) ? PieceKey.RegularPlayer1 : PieceKey.RegularPlayer1Other;
         PieceKey king = (random) ? PieceKey.KingPlayer1 : PieceKey.KingPlayer1Other;
@@ -78,26 +115,58 @@ public final class Players extends Sprite implements IElement
             case HUMAN_CPU:
             default:
                 //player 1 will attack north
-                this.player1 = new Human(true, regular, king);
+                this.player1 = new Human(position, true, regular, king);
                 
                 //player 2 will attack south
-                this.player2 = new Cpu(false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2);
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Easy);
                 break;
                 
             case CPU_CPU:
                 //player 1 will attack north
-                this.player1 = new Cpu(true, regular, king);
+                this.player1 = new Cpu(position, true, regular, king, Strength.Easy);
 
                 //player 2 will attack south
-                this.player2 = new Cpu(false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2);
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Easy);
+                break;
+                
+            case HUMAN_CPU_HARD:
+                //player 1 will attack north
+                this.player1 = new Human(position, true, regular, king);
+                
+                //player 2 will attack south
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Hard);
+                break;
+                
+            case CPU_CPU_HARD:
+                //player 1 will attack north
+                this.player1 = new Cpu(position, true, regular, king, Strength.Hard);
+
+                //player 2 will attack south
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Hard);
+                break;
+                
+            case HUMAN_CPU_EXPERT:
+                //player 1 will attack north
+                this.player1 = new Human(position, true, regular, king);
+                
+                //player 2 will attack south
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Expert);
+                break;
+                
+            case CPU_CPU_EXPERT:
+                //player 1 will attack north
+                this.player1 = new Cpu(position, true, regular, king, Strength.Expert);
+
+                //player 2 will attack south
+                this.player2 = new Cpu(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2, Strength.Expert);
                 break;
                 
             case HUMAN_HUMAN:
                 //player 1 will attack north
-                this.player1 = new Human(true, regular, king);
+                this.player1 = new Human(position, true, regular, king);
                 
                 //player 2 will attack south
-                this.player2 = new Human(false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2);
+                this.player2 = new Human(position, false, PieceKey.RegularPlayer2, PieceKey.KingPlayer2);
                 break;
         }
         
@@ -107,6 +176,10 @@ public final class Players extends Sprite implements IElement
             super.getSpriteSheet().add(key.col * Board.CELL_DIMENSIONS, key.row * Board.CELL_DIMENSIONS, Board.CELL_DIMENSIONS, Board.CELL_DIMENSIONS, 0, key);
         }
         
+        //a cpu playing a human thinks about its next move while the human decides
+        if (getPlayer2() instanceof Cpu && getPlayer1() instanceof Human)
+            ((Cpu)getPlayer2()).setPondering(true);
+        
         //make sure players aren't attacking in the same direction
         if (getPlayer1().assignedNorth() && getPlayer2().assignedNorth() || !getPlayer1().assignedNorth() && !getPlayer2().assignedNorth())
             throw new Exception("Both players can't be attacking in the same direction.");
@@ -126,6 +199,18 @@ public final class Players extends Sprite implements IElement
         return this.gameover;
     }
     
+    /**
+     * Stop any cpu thinking about the opponent's reply
+     */
+    private void stopPondering()
+    {
+        if (getPlayer1() instanceof Cpu)
+            ((Cpu)getPlayer1()).stopPondering();
+        
+        if (getPlayer2() instanceof Cpu)
+            ((Cpu)getPlayer2()).stopPondering();
+    }
+    
     private Player getPlayer1()
     {
         return this.player1;
@@ -160,9 +245,16 @@ public final class Players extends Sprite implements IElement
      */
     public final void reset(final Board board) throws Exception
     {
-        //remove the players pieces
-        this.getPlayer1().getPieces().clear();
-        this.getPlayer2().getPieces().clear();
+        //remove the players pieces, and anything they were in the middle of
+        this.getPlayer1().reset();
+        this.getPlayer2().reset();
+        
+        //also clear the position
+        this.position.clear();
+        
+        //the checkers start over, so there is nothing to animate from
+        this.previous = null;
+        this.current = null;
         
         //player 1 goes first
         setPlayer1Turn(true);
@@ -234,6 +326,8 @@ public final class Players extends Sprite implements IElement
             player2.dispose();
             player2 = null;
         }
+        
+        position = null;
     }
     
     /**
@@ -252,6 +346,9 @@ public final class Players extends Sprite implements IElement
     private void setPlayer1Turn(final boolean player1turn)
     {
         this.player1turn = player1turn;
+        
+        //player 1 is always attacking north
+        this.position.setNorthTurn(player1turn);
     }
             
     @Override
@@ -326,6 +423,9 @@ public final class Players extends Sprite implements IElement
                 //flag game over
                 setGameover(true);
                 
+                //the cpu doesn't need to think about its next move
+                stopPondering();
+                
                 //set message
                 engine.getManager().getMessage().setDescription1(Message.MESSAGE_PLAYER_2_WINS);
                 engine.getManager().getMessage().setDescription2(Message.MESSAGE_RESET);
@@ -341,6 +441,9 @@ public final class Players extends Sprite implements IElement
                 //flag game over
                 setGameover(true);
                 
+                //the cpu doesn't need to think about its next move
+                stopPondering();
+                
                 //set message
                 engine.getManager().getMessage().setDescription1(Message.MESSAGE_PLAYER_1_WINS);
                 engine.getManager().getMessage().setDescription2(Message.MESSAGE_RESET);
@@ -358,6 +461,45 @@ public final class Players extends Sprite implements IElement
             engine.getMouse().reset();
     }
     
+    /**
+     * Record where every checker is after the update.<br>
+     * The checkers are drawn between the previous and latest snapshot, 
+     * so the animation stays smooth no matter how often the game is drawn.<br>
+     * This is called on the update thread, the render thread only ever sees the finished snapshots.
+     */
+    public void takeSnapshot()
+    {
+        final Snapshot snapshot = new Snapshot(this, System.nanoTime());
+        
+        //after a reset there is nothing to move from
+        previous = (current != null) ? current : snapshot;
+        current = snapshot;
+    }
+    
+    /**
+     * Get the checkers after the update before the latest
+     * @return The snapshot, null if there has not been an update since the game was reset
+     */
+    public Snapshot getPreviousSnapshot()
+    {
+        return this.previous;
+    }
+    
+    /**
+     * Get the checkers after the latest update
+     * @return The snapshot, null if there has not been an update since the game was reset
+     */
+    public Snapshot getSnapshot()
+    {
+        return this.current;
+    }
+    
+    /**
+     * Draw the checkers where they are now, the player who's turn it is is drawn on top.<br>
+     * This is used when the game is drawn behind the menu, during the game the render thread draws the snapshots instead.
+     * @param graphics Object used to draw graphics
+     * @throws Exception 
+     */
     @Override
     public void render(final Graphics graphics) throws Exception
     {
@@ -365,7 +507,7 @@ public final class Players extends Sprite implements IElement
         super.setDimensions(Board.CELL_DIMENSIONS);
         
         //render the players depending on the current turn
-        if (!player1turn)
+        if (!isPlayer1Turn())
         {
             renderPlayer(graphics, getPlayer1());
             renderPlayer(graphics, getPlayer2());
@@ -388,7 +530,7 @@ public final class Players extends Sprite implements IElement
         for (int index = 0; index < player.getPieces().size(); index++)
         {
             //get the current checker
-            Checker piece = player.getPiece(index);
+            final Checker piece = player.getPiece(index);
             
             //assign the location
             super.setLocation(piece.getX(), piece.getY());
@@ -400,4 +542,140 @@ public final class Players extends Sprite implements IElement
             super.draw(graphics);
         }
     }
+    
+    /**
+     * The location and animation of every checker after an update, in the order they are drawn.<br>
+     * A snapshot is never changed once created, so it can be handed to the render thread.
+     */
+    public static final class Snapshot
+    {
+        //when the snapshot was taken
+        private final long time;
+        
+        //the checkers, only used to find the same checker in another snapshot
+        private final Checker[] pieces;
+        
+        //where each checker is
+        private final int[] x, y;
+        
+        //the animation for each checker
+        private final PieceKey[] keys;
+        
+        private Snapshot(final Players players, final long time)
+        {
+            this.time = time;
+            
+            final int count = players.getPlayer1().getPieces().size() + players.getPlayer2().getPieces().size();
+            
+            this.pieces = new Checker[count];
+            this.x = new int[count];
+            this.y = new int[count];
+            this.keys = new PieceKey[count];
+            
+            //the player who's turn it is is drawn on top
+            if (!players.isPlayer1Turn())
+            {
+                add(players.getPlayer2(), add(players.getPlayer1(), 0));
+            }
+            else
+            {
+                add(players.getPlayer1(), add(players.getPlayer2(), 0));
+            }
+        }
+        
+        /**
+         * Record the player's checkers
+         * @param player The player who's checkers we want to record
+         * @param count The number of checkers recorded so far
+         * @return The number of checkers recorded including this player
+         */
+        private int add(final Player player, int count)
+        {
+            for (int index = 0; index < player.getPieces().size(); index++)
+            {
+                final Checker piece = player.getPiece(index);
+                
+                pieces[count] = piece;
+                x[count] = piece.getX();
+                y[count] = piece.getY();
+                keys[count] = (piece.isKing()) ? player.getKeyKing() : player.getKeyRegular();
+                
+                count++;
+            }
+            
+            return count;
+        }
+        
+        /**
+         * Get the number of checkers
+         * @return The number of checkers in the snapshot
+         */
+        public int getCount()
+        {
+            return this.keys.length;
+        }
+        
+        /**
+         * Decide where each checker is drawn, part way between the previous snapshot and this one.<br>
+         * The checkers are placed in the order they are drawn.
+         * @param previous The snapshot before this one, null if there is nothing to move from
+         * @param time The time the frame is drawn (nanoseconds)
+         * @param x The x-coordinate of each checker, needs room for getCount() checkers
+         * @param y The y-coordinate of each checker, needs room for getCount() checkers
+         * @param animations The animation of each checker, needs room for getCount() checkers
+         */
+        public void place(final Snapshot previous, final long time, final int[] x, final int[] y, final PieceKey[] animations)
+        {
+            //how far we are from the previous snapshot to this one
+            final double progress;
+            
+            if (previous == null || previous == this || previous.time == this.time)
+            {
+                progress = 1.0;
+            }
+            else
+            {
+                progress = Math.max(0.0, Math.min(1.0, (double)(time - this.time) / (this.time - previous.time)));
+            }
+            
+            for (int index = 0; index < keys.length; index++)
+            {
+                //find where this checker was in the previous snapshot
+                final int match = (progress < 1.0) ? previous.indexOf(pieces[index], index) : -1;
+                
+                if (match < 0)
+                {
+                    x[index] = this.x[index];
+                    y[index] = this.y[index];
+                }
+                else
+                {
+                    x[index] = previous.x[match] + (int)Math.round(progress * (this.x[index] - previous.x[match]));
+                    y[index] = previous.y[match] + (int)Math.round(progress * (this.y[index] - previous.y[match]));
+                }
+                
+                animations[index] = keys[index];
+            }
+        }
+        
+        /**
+         * Find the checker in this snapshot
+         * @param piece The checker we are looking for
+         * @param hint The index to check first, checkers usually stay at the same index
+         * @return The index of the checker, -1 if the checker is not in this snapshot
+         */
+        private int indexOf(final Checker piece, final int hint)
+        {
+            if (hint < pieces.length && pieces[hint] == piece)
+                return hint;
+            
+            for (int index = 0; index < pieces.length; index++)
+            {
+                if (pieces[index] == piece)
+                    return index;
+            }
+            
+            return -1;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.gamesbykevin.checkers.position;
+
+/**
+ * This class will generate every legal move for a player.<br>
+ * The moves are written into a buffer provided by the caller, so generating moves does not create any objects.<br>
+ * Each move is packed into a long:<br>
+ * bits 0-4 start square, bits 5-9 destination square, bit 10 promotion, bits 11-12 direction of the first step,<br>
+ * bit 13 the moving piece is a king, bits 32-63 the mask of every opponent piece captured.<br>
+ * If a capture is available the player must capture, and a capture has to continue while the piece can still jump.<br>
+ * A regular piece that reaches the last row during a capture is crowned and the move ends there.
+ * @author GOD
+ */
+public final class MoveGenerator
+{
+    /**
+     * The size of move buffer required for a single position
+     */
+    public static final int MAX_MOVES = 128;
+    
+    /**
+     * Represents no move
+     */
+    public static final long NO_MOVE = 0L;
+    
+    //the bit locations of each part of the move
+    private static final int SHIFT_DESTINATION = 5;
+    private static final int SHIFT_DIRECTION = 11;
+    private static final int SHIFT_CAPTURED = 32;
+    
+    //the masks for each part of the move
+    private static final long MASK_SQUARE = 0x1FL;
+    private static final long MASK_DIRECTION = 0x3L;
+    private static final long FLAG_PROMOTION = 1L << 10;
+    private static final long FLAG_KING = 1L << 13;
+    
+    //the row where each player is crowned
+    private static final int CROWN_NORTH = 0x0000000F;
+    private static final int CROWN_SOUTH = 0xF0000000;
+    
+    private MoveGenerator()
+    {
+        //this class only contains static methods
+    }
+    
+    /**
+     * Generate all legal moves for the player.<br>
+     * If any capture is available, only the captures are generated.
+     * @param position The current position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param moves The buffer to write the moves to
+     * @param offset The index in the buffer to start writing
+     * @return The number of moves written
+     */
+    public static int generate(final Position position, final boolean north, final long[] moves, final int offset)
+    {
+        //captures are mandatory
+        final int count = generateCaptures(position, north, moves, offset);
+        
+        if (count > 0)
+            return count;
+        
+        return generateSteps(position, north, moves, offset);
+    }
+    
+    /**
+     * Generate all capture sequences for the player.
+     * @param position The current position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param moves The buffer to write the moves to
+     * @param offset The index in the buffer to start writing
+     * @return The number of moves written
+     */
+    public static int generateCaptures(final Position position, final boolean north, final long[] moves, final int offset)
+    {
+        //the pieces that have at least 1 capture
+        int jumpers = 0;
+        
+        for (int direction = 0; direction < Position.DIRECTIONS; direction++)
+        {
+            jumpers |= position.getJumpers(north, direction);
+        }
+        
+        int count = 0;
+        
+        while (jumpers != 0)
+        {
+            final int square = Integer.numberOfTrailingZeros(jumpers);
+            
+            //remove the piece from the list
+            jumpers &= jumpers - 1;
+            
+            count += generateJumps(position, north, square, moves, offset + count);
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Generate all capture sequences for a single piece.
+     * @param position The current position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param square The square of the piece that will jump
+     * @param moves The buffer to write the moves to
+     * @param offset The index in the buffer to start writing
+     * @return The number of moves written
+     */
+    public static int generateJumps(final Position position, final boolean north, final int square, final long[] moves, final int offset)
+    {
+        final int mask = 1 << square;
+        
+        //make sure we have a piece here
+        if ((position.getPieces(north) & mask) == 0)
+            return 0;
+        
+        final boolean king = ((position.getKings() & mask) != 0);
+        
+        //the piece is no longer at the start once it starts jumping
+        final int empty = position.getEmpty() | mask;
+        
+        return jump(position.getPieces(!north), empty, north, square, square, king, 0, -1, moves, offset, 0);
+    }
+    
+    /**
+     * Continue the capture from the current square, recording the move once no more jumps are available.
+     * @return The number of moves written so far
+     */
+    private static int jump(
+        final int opponent, final int empty, final boolean north, final int start, final int square,
+        final boolean king, final int captured, final int firstDirection,
+        final long[] moves, final int offset, int count)
+    {
+        final int mask = 1 << square;
+        
+        //did we find at least 1 more jump
+        boolean jumped = false;
+        
+        for (int direction = 0; direction < Position.DIRECTIONS; direction++)
+        {
+            //regular pieces can only jump forward
+            if (!king && !Position.isForward(north, direction))
+                continue;
+            
+            //the opponent piece we are jumping, captured pieces are removed right away
+            final int enemy = Position.shift(direction, mask) & opponent & ~captured;
+            
+            if (enemy == 0)
+                continue;
+            
+            //where we will land
+            final int landing = Position.shift(direction, enemy) & (empty | captured);
+            
+            if (landing == 0)
+                continue;
+            
+            jumped = true;
+            
+            final int destination = Integer.numberOfTrailingZeros(landing);
+            final int direction1 = (firstDirection < 0) ? direction : firstDirection;
+            
+            //a piece crowned when landing here ends the move
+            if (!king && (landing & getCrownRow(north)) != 0)
+            {
+                count = record(encode(start, destination, true, direction1, false, captured | enemy), moves, offset, count);
+                continue;
+            }
+            
+            count = jump(opponent, empty, north, start, destination, king, captured | enemy, direction1, moves, offset, count);
+        }
+        
+        //if the piece can't jump any further and has captured, record the move
+        if (!jumped && captured != 0)
+            count = record(encode(start, square, false, firstDirection, king, captured), moves, offset, count);
+        
+        return count;
+    }
+    
+    /**
+     * Add the capture to the buffer
+     * @return The number of moves written so far
+     */
+    private static int record(final long move, final long[] moves, final int offset, int count)
+    {
+        //different paths can lead to the exact same move, only record it once
+        for (int index = offset; index < offset + count; index++)
+        {
+            if (moves[index] == move)
+                return count;
+        }
+        
+        //make sure we have room in the buffer
+        if (offset + count < moves.length)
+            moves[offset + count++] = move;
+        
+        return count;
+    }
+    
+    /**
+     * Generate all regular (non capture) moves for the player.
+     * @param position The current position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param moves The buffer to write the moves to
+     * @param offset The index in the buffer to start writing
+     * @return The number of moves written
+     */
+    public static int generateSteps(final Position position, final boolean north, final long[] moves, final int offset)
+    {
+        int count = 0;
+        
+        for (int direction = 0; direction < Position.DIRECTIONS; direction++)
+        {
+            //the pieces that can move this direction
+            int movers = position.getMovers(north, direction);
+            
+            while (movers != 0 && offset + count < moves.length)
+            {
+                final int mask = movers & -movers;
+                
+                //remove the piece from the list
+                movers &= movers - 1;
+                
+                final int destination = Position.shift(direction, mask);
+                final boolean king = ((position.getKings() & mask) != 0);
+                final boolean promotion = !king && (destination & getCrownRow(north)) != 0;
+                
+                moves[offset + count++] = encode(
+                    Integer.numberOfTrailingZeros(mask), Integer.numberOfTrailingZeros(destination), promotion, direction, king, 0);
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Find the move that starts with the specified single step or jump.<br>
+     * This is used to validate a piece being moved 1 hop at a time.
+     * @param moves The legal moves
+     * @param offset The index of the first legal move in the buffer
+     * @param count The number of legal moves
+     * @param start The square the piece is moving from
+     * @param destination The square the piece is moving to
+     * @return The index of the first legal move that begins with this hop, -1 if the hop is not legal
+     */
+    public static int findHop(final long[] moves, final int offset, final int count, final int start, final int destination)
+    {
+        for (int index = offset; index < offset + count; index++)
+        {
+            final long move = moves[index];
+            
+            if (getStart(move) == start && getHopDestination(move) == destination)
+                return index;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Get the square the piece lands on after its first step or jump
+     * @param move The move
+     * @return The square the piece lands on first
+     */
+    public static int getHopDestination(final long move)
+    {
+        //a regular move only has 1 step
+        if (!isCapture(move))
+            return getDestination(move);
+        
+        //jump over the opponent piece in the first direction
+        final int direction = getFirstDirection(move);
+        
+        return Integer.numberOfTrailingZeros(Position.shift(direction, Position.shift(direction, 1 << getStart(move))));
+    }
+    
+    /**
+     * Get the row where the player's pieces are crowned
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The mask of squares where the player is crowned
+     */
+    public static int getCrownRow(final boolean north)
+    {
+        return (north) ? CROWN_NORTH : CROWN_SOUTH;
+    }
+    
+    /**
+     * Pack the move into a long
+     * @param start Start square
+     * @param destination Destination square
+     * @param promotion Is the piece crowned during the move
+     * @param direction The direction of the first step or jump
+     * @param king Was the piece a king at the start of the move
+     * @param captured The mask of opponent pieces captured
+     * @return The packed move
+     */
+    public static long encode(final int start, final int destination, final boolean promotion, final int direction, final boolean king, final int captured)
+    {
+        long move = start | ((long)destination << SHIFT_DESTINATION) | ((long)direction << SHIFT_DIRECTION);
+        
+        if (promotion)
+            move |= FLAG_PROMOTION;
+        
+        if (king)
+            move |= FLAG_KING;
+        
+        return move | ((captured & 0xFFFFFFFFL) << SHIFT_CAPTURED);
+    }
+    
+    public static int getStart(final long move)
+    {
+        return (int)(move & MASK_SQUARE);
+    }
+    
+    public static int getDestination(final long move)
+    {
+        return (int)((move >>> SHIFT_DESTINATION) & MASK_SQUARE);
+    }
+    
+    public static int getFirstDirection(final long move)
+    {
+        return (int)((move >>> SHIFT_DIRECTION) & MASK_DIRECTION);
+    }
+    
+    public static int getCaptured(final long move)
+    {
+        return (int)(move >>> SHIFT_CAPTURED);
+    }
+    
+    public static boolean isCapture(final long move)
+    {
+        return (getCaptured(move) != 0);
+    }
+    
+    public static boolean isPromotion(final long move)
+    {
+        return ((move & FLAG_PROMOTION) != 0);
+    }
+    
+    public static boolean isKing(final long move)
+    {
+        return ((move & FLAG_KING) != 0);
+    }
+    
+    /**
+     * Describe the move using the (column, row) of the start and destination
+     * @param move The move
+     * @return Text describing the move, for example "(1,2)x(5,6)"
+     */
+    public static String toString(final long move)
+    {
+        final int start = getStart(move);
+        final int destination = getDestination(move);
+        
+        return "(" + Position.getColumn(start) + "," + Position.getRow(start) + ")" + (isCapture(move) ? "x" : "-") +
+               "(" + Position.getColumn(destination) + "," + Position.getRow(destination) + ")";
+    }
+}
\ No newline at end of file
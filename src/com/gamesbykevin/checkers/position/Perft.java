@@ -0,0 +1,181 @@
+package com.gamesbykevin.checkers.position;
+
+/**
+ * Count every position reachable from a position to a fixed depth (perft).<br>
+ * The counts from the start of the game are published, so this checks the move generator is correct,
+ * and the time taken measures how fast moves are generated.<br>
+ * Usage:<br>
+ * Perft - verify the known counts from the start of the game<br>
+ * Perft perft [depth] [position] - count the positions to the depth<br>
+ * Perft divide [depth] [position] - count the positions after each legal move<br>
+ * The position is the text read by Position.parse(), the start of the game is used if not provided.
+ * @author GOD
+ */
+public final class Perft
+{
+    /**
+     * The known number of positions from the start of the game, for each depth starting at 1
+     */
+    public static final long[] START_COUNTS = {
+        7L, 49L, 302L, 1469L, 7361L, 36768L, 179740L, 845931L, 3963680L, 18391564L, 85242128L
+    };
+    
+    //the depth verified if not specified
+    private static final int DEFAULT_VERIFY_DEPTH = 9;
+    
+    //the move buffer for each depth
+    private final long[][] moves;
+    
+    public Perft()
+    {
+        this.moves = new long[Position.MAX_PLY][MoveGenerator.MAX_MOVES];
+    }
+    
+    /**
+     * Count the positions reachable to the depth
+     * @param position The position to count from, the moves are unmade so it will not be changed
+     * @param depth The number of moves to make
+     * @return The number of positions at the depth
+     */
+    public long perft(final Position position, final int depth)
+    {
+        if (depth <= 0)
+            return 1;
+        
+        final long[] buffer = moves[depth];
+        final int count = MoveGenerator.generate(position, position.isNorthTurn(), buffer, 0);
+        
+        //the last move doesn't need to be made to be counted
+        if (depth == 1)
+            return count;
+        
+        long total = 0;
+        
+        for (int i = 0; i < count; i++)
+        {
+            position.makeMove(buffer[i]);
+            total += perft(position, depth - 1);
+            position.unmakeMove();
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Count the positions reachable to the depth after each legal move
+     * @param position The position to count from, the moves are unmade so it will not be changed
+     * @param depth The number of moves to make, including the legal move
+     * @param legal The buffer to write the legal moves to
+     * @param counts The buffer to write the count for each legal move to
+     * @return The number of legal moves
+     */
+    public int divide(final Position position, final int depth, final long[] legal, final long[] counts)
+    {
+        final int count = MoveGenerator.generate(position, position.isNorthTurn(), legal, 0);
+        
+        for (int i = 0; i < count; i++)
+        {
+            position.makeMove(legal[i]);
+            counts[i] = perft(position, depth - 1);
+            position.unmakeMove();
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Create the position from the start of the game
+     * @return The position
+     */
+    public static Position createStart()
+    {
+        final Position position = new Position();
+        position.setup();
+        return position;
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final String command = (args.length > 0) ? args[0] : "verify";
+        final int depth = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_VERIFY_DEPTH;
+        final Position position = (args.length > 2) ? Position.parse(args[2]) : createStart();
+        
+        final Perft perft = new Perft();
+        
+        if (command.equals("verify"))
+        {
+            if (!verify(perft, Math.min(depth, START_COUNTS.length)))
+                System.exit(1);
+        }
+        else if (command.equals("perft"))
+        {
+            final long start = System.nanoTime();
+            final long count = perft.perft(position, depth);
+            
+            System.out.println("depth " + depth + ", positions " + count + ", " + describeSpeed(count, System.nanoTime() - start));
+        }
+        else if (command.equals("divide"))
+        {
+            final long[] legal = new long[MoveGenerator.MAX_MOVES];
+            final long[] counts = new long[MoveGenerator.MAX_MOVES];
+            
+            final long start = System.nanoTime();
+            final int count = perft.divide(position, depth, legal, counts);
+            final long time = System.nanoTime() - start;
+            
+            long total = 0;
+            
+            for (int i = 0; i < count; i++)
+            {
+                System.out.println(MoveGenerator.toString(legal[i]) + " " + counts[i]);
+                total += counts[i];
+            }
+            
+            System.out.println("moves " + count + ", positions " + total + ", " + describeSpeed(total, time));
+        }
+        else
+        {
+            throw new Exception("Unknown command: " + command + ", expected verify, perft or divide");
+        }
+    }
+    
+    /**
+     * Check the counts from the start of the game match the known counts
+     * @param perft The object used to count
+     * @param depth The deepest depth to check
+     * @return true if every count matched, false otherwise
+     */
+    public static boolean verify(final Perft perft, final int depth)
+    {
+        boolean valid = true;
+        
+        for (int i = 1; i <= depth; i++)
+        {
+            final long start = System.nanoTime();
+            final long count = perft.perft(createStart(), i);
+            final long time = System.nanoTime() - start;
+            
+            final boolean match = (count == START_COUNTS[i - 1]);
+            
+            System.out.println(
+                "depth " + i + ", positions " + count + ", expected " + START_COUNTS[i - 1] +
+                ((match) ? " ok" : " FAILED") + ", " + describeSpeed(count, time));
+            
+            if (!match)
+                valid = false;
+        }
+        
+        return valid;
+    }
+    
+    /**
+     * Describe how fast the positions were counted
+     * @param positions The positions counted
+     * @param time The time taken (nanoseconds)
+     * @return Text with the time and positions per second
+     */
+    private static String describeSpeed(final long positions, final long time)
+    {
+        return "time " + (time / 1000000L) + "ms, nps " + ((time > 0) ? (long)(positions * 1000000000.0 / time) : 0);
+    }
+}
\ No newline at end of file
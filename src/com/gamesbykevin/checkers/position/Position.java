@@ -0,0 +1,813 @@
+package com.gamesbykevin.checkers.position;
+
+/**
+ * This class represents the location of every checker on the playable board.<br>
+ * Only the 32 dark cells can hold a checker, so each one is assigned a single bit of an int.<br>
+ * The square index is (row * 4) + (column / 2), so square 0 is (column 1, row 0) and square 31 is (column 6, row 7).<br>
+ * All occupancy, capture and trapped checks are mask operations and do not create any objects.<br>
+ * The 64-bit Zobrist key of the position is updated with each move made.
+ * @author GOD
+ */
+public final class Position
+{
+    /**
+     * The number of playable squares on the board
+     */
+    public static final int SQUARES = 32;
+    
+    /**
+     * The location is not a playable square
+     */
+    public static final int NO_SQUARE = -1;
+    
+    /**
+     * The number of columns and rows on the board
+     */
+    public static final int SIZE = 8;
+    
+    /**
+     * The directions a checker can move, opposite directions add up to 3
+     */
+    public static final int DIRECTION_NORTH_WEST = 0;
+    public static final int DIRECTION_NORTH_EAST = 1;
+    public static final int DIRECTION_SOUTH_WEST = 2;
+    public static final int DIRECTION_SOUTH_EAST = 3;
+    
+    /**
+     * The total number of directions
+     */
+    public static final int DIRECTIONS = 4;
+    
+    //the squares located on the even rows (0, 2, 4, 6)
+    private static final int ROWS_EVEN = 0x0F0F0F0F;
+    
+    //the squares located on the odd rows (1, 3, 5, 7)
+    private static final int ROWS_ODD = 0xF0F0F0F0;
+    
+    //the squares on the west edge of the board (column 0)
+    private static final int EDGE_WEST = 0x10101010;
+    
+    //the squares on the east edge of the board (column 7)
+    private static final int EDGE_EAST = 0x08080808;
+    
+    //the pieces of each player at the start of the game
+    private static final int START_SOUTH = 0x00000FFF;
+    private static final int START_NORTH = 0xFFF00000;
+    
+    //the characters used to describe a position as text
+    private static final char TEXT_EMPTY = '.';
+    private static final char TEXT_NORTH = 'n';
+    private static final char TEXT_NORTH_KING = 'N';
+    private static final char TEXT_SOUTH = 's';
+    private static final char TEXT_SOUTH_KING = 'S';
+    private static final char TEXT_SEPARATOR = ':';
+    
+    /**
+     * The maximum number of moves that can be made before they are unmade
+     */
+    public static final int MAX_PLY = 256;
+    
+    //the pieces attacking north, the pieces attacking south, and which of those are kings
+    private int north, south, kings;
+    
+    //is it the turn of the player attacking north
+    private boolean northTurn = true;
+    
+    //the zobrist key of the position
+    private long key;
+    
+    //the state before each move was made, so the move can be unmade exactly
+    private final int[] undoNorth, undoSouth, undoKings;
+    
+    //the key before each move was made
+    private final long[] undoKey;
+    
+    //the number of moves made that have not been unmade
+    private int ply = 0;
+    
+    public Position()
+    {
+        //create the undo stack
+        this.undoNorth = new int[MAX_PLY];
+        this.undoSouth = new int[MAX_PLY];
+        this.undoKings = new int[MAX_PLY];
+        this.undoKey = new long[MAX_PLY];
+        
+        //start with an empty board
+        clear();
+    }
+    
+    /**
+     * Create a copy of the position.<br>
+     * The moves made on the copy will not affect the original.
+     * @param position The position to copy
+     */
+    public Position(final Position position)
+    {
+        this();
+        
+        //copy the pieces
+        assign(position);
+    }
+    
+    /**
+     * Remove all pieces from the board.<br>
+     * The player attacking north will have the next turn.
+     */
+    public void clear()
+    {
+        this.north = 0;
+        this.south = 0;
+        this.kings = 0;
+        this.northTurn = true;
+        this.ply = 0;
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Copy the pieces and turn from the position.<br>
+     * Any moves that have not been unmade are forgotten.
+     * @param position The position to copy
+     */
+    public void assign(final Position position)
+    {
+        this.north = position.north;
+        this.south = position.south;
+        this.kings = position.kings;
+        this.northTurn = position.northTurn;
+        this.key = position.key;
+        this.ply = 0;
+    }
+    
+    /**
+     * Place the pieces from their masks.<br>
+     * Any moves that have not been unmade are forgotten.
+     * @param north The pieces attacking north
+     * @param south The pieces attacking south
+     * @param kings Which of the pieces are kings
+     * @param northTurn Is it the turn of the player attacking north
+     */
+    public void set(final int north, final int south, final int kings, final boolean northTurn)
+    {
+        this.north = north;
+        this.south = south;
+        this.kings = kings & (north | south);
+        this.northTurn = northTurn;
+        this.ply = 0;
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Place the pieces the same as the start of the game.<br>
+     * The player attacking south fills the first 3 rows, the player attacking north fills the last 3 rows and moves first.
+     */
+    public void setup()
+    {
+        clear();
+        
+        this.south = START_SOUTH;
+        this.north = START_NORTH;
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Create a position from text.<br>
+     * The text is the player to move (N or S), a colon, then 1 character for each square from 0 to 31:<br>
+     * '.' empty, 'n' regular piece attacking north, 'N' north king, 's' regular piece attacking south, 'S' south king.<br>
+     * For example the start of the game is "N:ssssssssssss........nnnnnnnnnnnn"
+     * @param text The text describing the position
+     * @return The position
+     * @throws Exception If the text is not valid
+     */
+    public static Position parse(final String text) throws Exception
+    {
+        if (text == null || text.length() != SQUARES + 2 || text.charAt(1) != TEXT_SEPARATOR)
+            throw new Exception("The position needs to be the turn, a colon, then " + SQUARES + " squares. text=" + text);
+        
+        final Position position = new Position();
+        
+        for (int square = 0; square < SQUARES; square++)
+        {
+            final int mask = 1 << square;
+            
+            switch (text.charAt(square + 2))
+            {
+                case TEXT_EMPTY:
+                    break;
+                    
+                case TEXT_NORTH:
+                    position.north |= mask;
+                    break;
+                    
+                case TEXT_NORTH_KING:
+                    position.north |= mask;
+                    position.kings |= mask;
+                    break;
+                    
+                case TEXT_SOUTH:
+                    position.south |= mask;
+                    break;
+                    
+                case TEXT_SOUTH_KING:
+                    position.south |= mask;
+                    position.kings |= mask;
+                    break;
+                    
+                default:
+                    throw new Exception("The square is not valid. square=" + square + ", text=" + text);
+            }
+        }
+        
+        switch (text.charAt(0))
+        {
+            case TEXT_NORTH_KING:
+                position.northTurn = true;
+                break;
+                
+            case TEXT_SOUTH_KING:
+                position.northTurn = false;
+                break;
+                
+            default:
+                throw new Exception("The turn needs to be " + TEXT_NORTH_KING + " or " + TEXT_SOUTH_KING + ". text=" + text);
+        }
+        
+        //update the key
+        position.updateKey();
+        
+        return position;
+    }
+    
+    /**
+     * Describe the position as text, the same format read by parse()
+     * @return The text describing the position
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder text = new StringBuilder(SQUARES + 2);
+        
+        text.append((northTurn) ? TEXT_NORTH_KING : TEXT_SOUTH_KING).append(TEXT_SEPARATOR);
+        
+        for (int square = 0; square < SQUARES; square++)
+        {
+            final int mask = 1 << square;
+            final boolean king = ((kings & mask) != 0);
+            
+            if ((north & mask) != 0)
+            {
+                text.append((king) ? TEXT_NORTH_KING : TEXT_NORTH);
+            }
+            else if ((south & mask) != 0)
+            {
+                text.append((king) ? TEXT_SOUTH_KING : TEXT_SOUTH);
+            }
+            else
+            {
+                text.append(TEXT_EMPTY);
+            }
+        }
+        
+        return text.toString();
+    }
+    
+    /**
+     * Is it the turn of the player attacking north?
+     * @return true if the player attacking north moves next, false otherwise
+     */
+    public boolean isNorthTurn()
+    {
+        return this.northTurn;
+    }
+    
+    /**
+     * Assign the turn
+     * @param northTurn true if the player attacking north moves next, false otherwise
+     */
+    public void setNorthTurn(final boolean northTurn)
+    {
+        this.northTurn = northTurn;
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Get the zobrist key of the position
+     * @return The 64-bit key, positions with the same pieces and turn have the same key
+     */
+    public long getKey()
+    {
+        return this.key;
+    }
+    
+    /**
+     * Create the key from scratch, this is needed each time the board is changed without making a move
+     */
+    private void updateKey()
+    {
+        this.key = Zobrist.getKey(north, south, kings, northTurn);
+    }
+    
+    /**
+     * Get the number of moves made that have not been unmade
+     * @return The depth of the undo stack
+     */
+    public int getPly()
+    {
+        return this.ply;
+    }
+    
+    /**
+     * Make the move for the player whose turn it is, so it can be unmade later.<br>
+     * The opponent pieces captured are removed, the piece is crowned if promoted, and the turn switches.
+     * @param move The legal move created by MoveGenerator
+     */
+    public void makeMove(final long move)
+    {
+        //remember the current state
+        undoNorth[ply] = north;
+        undoSouth[ply] = south;
+        undoKings[ply] = kings;
+        undoKey[ply] = key;
+        ply++;
+        
+        play(move);
+    }
+    
+    /**
+     * Undo the last move made by makeMove.<br>
+     * The captured pieces, the king status and the turn are restored.
+     */
+    public void unmakeMove()
+    {
+        ply--;
+        
+        north = undoNorth[ply];
+        south = undoSouth[ply];
+        kings = undoKings[ply];
+        key = undoKey[ply];
+        northTurn = !northTurn;
+    }
+    
+    /**
+     * Make the move for the player whose turn it is.<br>
+     * The move is permanent and can't be unmade.
+     * @param move The legal move created by MoveGenerator
+     */
+    public void play(final long move)
+    {
+        final int start = 1 << MoveGenerator.getStart(move);
+        final int destination = 1 << MoveGenerator.getDestination(move);
+        final int captured = MoveGenerator.getCaptured(move);
+        
+        //is the moving piece a king once the move is complete
+        final boolean king = ((kings & start) != 0) || MoveGenerator.isPromotion(move);
+        
+        //move the piece in the key, if the start and destination are the same these cancel each other
+        key ^= Zobrist.getPiece(northTurn, (kings & start) != 0, MoveGenerator.getStart(move));
+        key ^= Zobrist.getPiece(northTurn, king, MoveGenerator.getDestination(move));
+        
+        //remove the captured pieces from the key
+        key ^= Zobrist.getPieces(!northTurn, captured, kings);
+        
+        //switch turns in the key
+        key ^= Zobrist.getTurn(true) ^ Zobrist.getTurn(false);
+        
+        //a king can capture in a circle and land where it started, so remove before placing
+        if (northTurn)
+        {
+            north = (north & ~start) | destination;
+            south &= ~captured;
+        }
+        else
+        {
+            south = (south & ~start) | destination;
+            north &= ~captured;
+        }
+        
+        //the captured pieces and the start can no longer hold a king
+        kings &= ~(start | captured);
+        
+        if (king)
+            kings |= destination;
+        
+        //switch turns
+        northTurn = !northTurn;
+    }
+    
+    /**
+     * Get the square index of the location
+     * @param column Column
+     * @param row Row
+     * @return The square index (0 - 31), or NO_SQUARE if the location is not a playable dark cell
+     */
+    public static int getSquare(final int column, final int row)
+    {
+        //the location has to be on the board
+        if (column < 0 || column >= SIZE || row < 0 || row >= SIZE)
+            return NO_SQUARE;
+        
+        //checkers are only placed on the dark cells
+        if ((column + row) % 2 == 0)
+            return NO_SQUARE;
+        
+        return (row * 4) + (column / 2);
+    }
+    
+    /**
+     * Get the column of the square
+     * @param square Square index (0 - 31)
+     * @return The column on the board
+     */
+    public static int getColumn(final int square)
+    {
+        //the even rows start at column 1, the odd rows start at column 0
+        return ((square & 3) * 2) + ((getRow(square) % 2 == 0) ? 1 : 0);
+    }
+    
+    /**
+     * Get the row of the square
+     * @param square Square index (0 - 31)
+     * @return The row on the board
+     */
+    public static int getRow(final int square)
+    {
+        return (square >> 2);
+    }
+    
+    /**
+     * Get the bit mask for the location
+     * @param column Column
+     * @param row Row
+     * @return The mask with the single bit set, or 0 if the location is not a playable square
+     */
+    public static int getMask(final int column, final int row)
+    {
+        final int square = getSquare(column, row);
+        
+        return (square == NO_SQUARE) ? 0 : (1 << square);
+    }
+    
+    /**
+     * Shift every bit of the mask 1 cell in the specified direction.<br>
+     * Any bit that would leave the board is dropped.
+     * @param direction The direction to shift
+     * @param mask The squares to shift
+     * @return The shifted squares
+     */
+    public static int shift(final int direction, final int mask)
+    {
+        switch (direction)
+        {
+            case DIRECTION_NORTH_WEST:
+                return ((mask & ROWS_EVEN) >>> 4) | ((mask & ROWS_ODD & ~EDGE_WEST) >>> 5);
+            
+            case DIRECTION_NORTH_EAST:
+                return ((mask & ROWS_EVEN & ~EDGE_EAST) >>> 3) | ((mask & ROWS_ODD) >>> 4);
+            
+            case DIRECTION_SOUTH_WEST:
+                return ((mask & ROWS_EVEN) << 4) | ((mask & ROWS_ODD & ~EDGE_WEST) << 3);
+            
+            case DIRECTION_SOUTH_EAST:
+                return ((mask & ROWS_EVEN & ~EDGE_EAST) << 5) | ((mask & ROWS_ODD) << 4);
+            
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * Get the opposite direction
+     * @param direction The direction
+     * @return The direction heading the other way
+     */
+    public static int getOpposite(final int direction)
+    {
+        return (DIRECTIONS - 1) - direction;
+    }
+    
+    /**
+     * Can a regular (non king) checker move in this direction?
+     * @param north Is the checker attacking north
+     * @param direction The direction we want to move
+     * @return true if the direction is forward for the checker, false otherwise
+     */
+    public static boolean isForward(final boolean north, final int direction)
+    {
+        if (north)
+        {
+            return (direction == DIRECTION_NORTH_WEST || direction == DIRECTION_NORTH_EAST);
+        }
+        else
+        {
+            return (direction == DIRECTION_SOUTH_WEST || direction == DIRECTION_SOUTH_EAST);
+        }
+    }
+    
+    /**
+     * Get the pieces that belong to a player
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The mask of squares occupied by the player
+     */
+    public int getPieces(final boolean north)
+    {
+        return (north) ? this.north : this.south;
+    }
+    
+    /**
+     * Get the kings on the board
+     * @return The mask of squares occupied by a king, regardless of the player
+     */
+    public int getKings()
+    {
+        return this.kings;
+    }
+    
+    /**
+     * Get the empty squares
+     * @return The mask of playable squares that do not have a checker
+     */
+    public int getEmpty()
+    {
+        return ~(north | south);
+    }
+    
+    /**
+     * Is there a piece at this location?
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param column Column
+     * @param row Row
+     * @return true if the player has a piece here, false otherwise
+     */
+    public boolean hasPiece(final boolean north, final int column, final int row)
+    {
+        return ((getPieces(north) & getMask(column, row)) != 0);
+    }
+    
+    /**
+     * Is there a king at this location?
+     * @param column Column
+     * @param row Row
+     * @return true if a king is located here, false otherwise
+     */
+    public boolean isKing(final int column, final int row)
+    {
+        return ((kings & getMask(column, row)) != 0);
+    }
+    
+    /**
+     * Add a piece to the board
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param column Column
+     * @param row Row
+     * @param king Is the piece a king
+     * @throws Exception If the location is not a playable square
+     */
+    public void add(final boolean north, final int column, final int row, final boolean king) throws Exception
+    {
+        final int mask = getMask(column, row);
+        
+        if (mask == 0)
+            throw new Exception("A checker piece can't be placed here. col=" + column + ", row=" + row);
+        
+        if (north)
+        {
+            this.north |= mask;
+        }
+        else
+        {
+            this.south |= mask;
+        }
+        
+        //flag king accordingly
+        setKing(mask, king);
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Remove the piece from the board
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param column Column
+     * @param row Row
+     */
+    public void remove(final boolean north, final int column, final int row)
+    {
+        final int mask = getMask(column, row);
+        
+        if (north)
+        {
+            this.north &= ~mask;
+        }
+        else
+        {
+            this.south &= ~mask;
+        }
+        
+        //the square is empty so it can't hold a king
+        this.kings &= ~mask;
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Move a piece from the start to the destination.<br>
+     * If the piece is a king, it will remain a king.
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param startColumn Starting Column
+     * @param startRow Starting Row
+     * @param column Destination Column
+     * @param row Destination Row
+     */
+    public void move(final boolean north, final int startColumn, final int startRow, final int column, final int row)
+    {
+        final int start = getMask(startColumn, startRow);
+        final int destination = getMask(column, row);
+        
+        //if the start and destination are the same there is nothing to do
+        if (start == destination)
+            return;
+        
+        //is the piece a king
+        final boolean king = ((kings & start) != 0);
+        
+        //remove from the start
+        remove(north, startColumn, startRow);
+        
+        //place at the destination
+        if (north)
+        {
+            this.north |= destination;
+        }
+        else
+        {
+            this.south |= destination;
+        }
+        
+        setKing(destination, king);
+        
+        //update the key
+        updateKey();
+    }
+    
+    /**
+     * Flag the piece at this location as a king
+     * @param column Column
+     * @param row Row
+     * @param king true=yes, false=no
+     */
+    public void setKing(final int column, final int row, final boolean king)
+    {
+        setKing(getMask(column, row), king);
+        
+        //update the key
+        updateKey();
+    }
+    
+    private void setKing(final int mask, final boolean king)
+    {
+        if (king)
+        {
+            this.kings |= mask;
+        }
+        else
+        {
+            this.kings &= ~mask;
+        }
+    }
+    
+    /**
+     * Get the pieces that can jump an opponent piece in the specified direction.<br>
+     * Regular pieces are only considered if the direction is forward for the player.
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param direction The direction of the jump
+     * @return The mask of pieces that can capture in this direction
+     */
+    public int getJumpers(final boolean north, final int direction)
+    {
+        //the pieces allowed to move in this direction
+        final int pieces = (isForward(north, direction)) ? getPieces(north) : getPieces(north) & kings;
+        
+        //if no pieces can move this way, there are no jumpers
+        if (pieces == 0)
+            return 0;
+        
+        final int opposite = getOpposite(direction);
+        
+        //walk back from the empty landing squares across the opponent pieces
+        return shift(opposite, shift(opposite, getEmpty()) & getPieces(!north)) & pieces;
+    }
+    
+    /**
+     * Get the pieces that can move 1 cell in the specified direction.<br>
+     * Regular pieces are only considered if the direction is forward for the player.
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param direction The direction of the move
+     * @return The mask of pieces that can make a regular move in this direction
+     */
+    public int getMovers(final boolean north, final int direction)
+    {
+        //the pieces allowed to move in this direction
+        final int pieces = (isForward(north, direction)) ? getPieces(north) : getPieces(north) & kings;
+        
+        return shift(getOpposite(direction), getEmpty()) & pieces;
+    }
+    
+    /**
+     * Count the number of captures a player has.<br>
+     * Each piece counts once for each direction it can capture.
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The total number of captures available
+     */
+    public int getCaptureCount(final boolean north)
+    {
+        int count = 0;
+        
+        for (int direction = 0; direction < DIRECTIONS; direction++)
+        {
+            count += Integer.bitCount(getJumpers(north, direction));
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Count the number of captures the piece at this location has.
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param column Column
+     * @param row Row
+     * @return The total number of directions a capture can be performed (max 4)
+     */
+    public int getCaptureCount(final boolean north, final int column, final int row)
+    {
+        final int mask = getMask(column, row) & getPieces(north);
+        
+        //if there is no piece here, there are no captures
+        if (mask == 0)
+            return 0;
+        
+        final boolean king = ((kings & mask) != 0);
+        final int empty = getEmpty();
+        final int opponent = getPieces(!north);
+        
+        int count = 0;
+        
+        for (int direction = 0; direction < DIRECTIONS; direction++)
+        {
+            //regular pieces can only capture forward
+            if (!king && !isForward(north, direction))
+                continue;
+            
+            //jump the opponent piece and land on an empty square
+            if ((shift(direction, shift(direction, mask) & opponent) & empty) != 0)
+                count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Is the piece at this location unable to make any move?
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param column Column
+     * @param row Row
+     * @return true if the piece can't move or capture, false otherwise
+     */
+    public boolean isTrapped(final boolean north, final int column, final int row)
+    {
+        final int mask = getMask(column, row) & getPieces(north);
+        
+        for (int direction = 0; direction < DIRECTIONS; direction++)
+        {
+            if (((getMovers(north, direction) | getJumpers(north, direction)) & mask) != 0)
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Is every piece for the player unable to make a move?
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return true if the player has no pieces or no moves are available, false otherwise
+     */
+    public boolean isTrapped(final boolean north)
+    {
+        for (int direction = 0; direction < DIRECTIONS; direction++)
+        {
+            if ((getMovers(north, direction) | getJumpers(north, direction)) != 0)
+                return false;
+        }
+        
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.gamesbykevin.checkers.position;
+
+import java.util.Random;
+
+/**
+ * The random numbers used to create a 64-bit key for each position.<br>
+ * The key is the XOR of a number for each piece on its square, plus a number if the player attacking south moves next.<br>
+ * The numbers are created from a fixed seed, so the same position always has the same key.
+ * @author GOD
+ */
+public final class Zobrist
+{
+    //the seed used to create the random numbers
+    private static final long SEED = 0x436865636B657273L;
+    
+    //the number for each type of piece on each square
+    private static final long[][] PIECES;
+    
+    //the number included when the player attacking south moves next
+    private static final long SOUTH_TURN;
+    
+    //the index of each type of piece
+    private static final int NORTH_REGULAR = 0;
+    private static final int NORTH_KING = 1;
+    private static final int SOUTH_REGULAR = 2;
+    private static final int SOUTH_KING = 3;
+    
+    static
+    {
+        final Random random = new Random(SEED);
+        
+        PIECES = new long[SOUTH_KING + 1][Position.SQUARES];
+        
+        for (int type = 0; type < PIECES.length; type++)
+        {
+            for (int square = 0; square < Position.SQUARES; square++)
+            {
+                PIECES[type][square] = random.nextLong();
+            }
+        }
+        
+        SOUTH_TURN = random.nextLong();
+    }
+    
+    private Zobrist()
+    {
+        //this class only contains static methods
+    }
+    
+    /**
+     * Get the number for a piece on a square
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param king Is the piece a king
+     * @param square The square index (0 - 31)
+     * @return The number to XOR into the key
+     */
+    public static long getPiece(final boolean north, final boolean king, final int square)
+    {
+        if (north)
+            return PIECES[(king) ? NORTH_KING : NORTH_REGULAR][square];
+        
+        return PIECES[(king) ? SOUTH_KING : SOUTH_REGULAR][square];
+    }
+    
+    /**
+     * Get the number for every piece in the mask
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param pieces The mask of pieces
+     * @param kings The mask of kings
+     * @return The XOR of the number for each piece
+     */
+    public static long getPieces(final boolean north, int pieces, final int kings)
+    {
+        long key = 0;
+        
+        while (pieces != 0)
+        {
+            final int square = Integer.numberOfTrailingZeros(pieces);
+            
+            //remove the piece from the list
+            pieces &= pieces - 1;
+            
+            key ^= getPiece(north, (kings & (1 << square)) != 0, square);
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Get the number for the player to move
+     * @param northTurn true if the player attacking north moves next, false otherwise
+     * @return The number to XOR into the key
+     */
+    public static long getTurn(final boolean northTurn)
+    {
+        return (northTurn) ? 0L : SOUTH_TURN;
+    }
+    
+    /**
+     * Create the key from scratch
+     * @param north The pieces attacking north
+     * @param south The pieces attacking south
+     * @param kings The pieces that are kings
+     * @param northTurn true if the player attacking north moves next, false otherwise
+     * @return The key of the position
+     */
+    public static long getKey(final int north, final int south, final int kings, final boolean northTurn)
+    {
+        return getPieces(true, north, kings) ^ getPieces(false, south, kings) ^ getTurn(northTurn);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * The evaluation used by the search to score a position.<br>
+ * The search calls reset() with the position being searched, then makeMove() and unmakeMove() around every move,
+ * so an evaluation can update its score as the position changes instead of scoring every piece each time.
+ * @author GOD
+ */
+public interface Evaluation
+{
+    /**
+     * Score the position.<br>
+     * The score is from the point of view of the player whose turn it is, a positive score is good for that player.
+     * @param position The position to score
+     * @return The score of the position
+     */
+    public int evaluate(final Position position);
+    
+    /**
+     * Start evaluating a new position
+     * @param position The position
+     */
+    public void reset(final Position position);
+    
+    /**
+     * The move is about to be made.<br>
+     * This is called before the position changes, so the captured pieces are still on the board.
+     * @param position The position before the move
+     * @param move The legal move created by MoveGenerator
+     */
+    public void makeMove(final Position position, final long move);
+    
+    /**
+     * The last move made was unmade
+     */
+    public void unmakeMove();
+}
\ No newline at end of file
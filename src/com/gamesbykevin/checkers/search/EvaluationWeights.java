@@ -0,0 +1,234 @@
+package com.gamesbykevin.checkers.search;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * The weights of each part of the weighted evaluation.<br>
+ * The weights are read from an xml file like the other configuration files, for example:<br>
+ * &lt;weights&gt;&lt;weight id="Regular"&gt;100&lt;/weight&gt; ... &lt;/weights&gt;<br>
+ * Any weight missing from the file keeps its default value. The weights can't be changed once created.
+ * @author GOD
+ */
+public final class EvaluationWeights
+{
+    /**
+     * Each weight of the evaluation
+     */
+    public enum Keys
+    {
+        //the value of a regular piece
+        Regular(100),
+        
+        //the value of a king
+        King(160),
+        
+        //the bonus for a regular piece guarding the back row, where the opponent is crowned
+        BackRank(6),
+        
+        //the bonus for a piece in the center of the board
+        Center(4),
+        
+        //the bonus for each row a regular piece has advanced
+        Tempo(2),
+        
+        //the bonus for each regular (non capture) move available
+        Mobility(2),
+        
+        //the bonus for a regular piece with nothing between it and the row where it is crowned
+        Runaway(30);
+        
+        //the value used if the file doesn't have this weight
+        private final int defaultValue;
+        
+        private Keys(final int defaultValue)
+        {
+            this.defaultValue = defaultValue;
+        }
+        
+        public int getDefaultValue()
+        {
+            return this.defaultValue;
+        }
+    }
+    
+    /**
+     * The location of the default weights, relative to the root of the class path
+     */
+    public static final String DEFAULT_RESOURCE = "/resources/configuration/evaluation.xml";
+    
+    /**
+     * The system property with the location of a weights file to use instead of the default weights
+     */
+    public static final String PROPERTY_FILE = "checkers.evaluation";
+    
+    //the xml names
+    private static final String XML_WEIGHT = "weight";
+    private static final String XML_ID = "id";
+    
+    //the weights the cpu uses, loaded the first time they are needed
+    private static EvaluationWeights defaultWeights;
+    
+    //the value of each weight
+    private final int[] values;
+    
+    /**
+     * Create the weights with the default values
+     */
+    public EvaluationWeights()
+    {
+        this.values = new int[Keys.values().length];
+        
+        for (Keys key : Keys.values())
+        {
+            this.values[key.ordinal()] = key.getDefaultValue();
+        }
+    }
+    
+    /**
+     * Create the weights
+     * @param values The value of each weight, in the order of Keys
+     * @throws Exception If there isn't a value for each weight
+     */
+    public EvaluationWeights(final int[] values) throws Exception
+    {
+        if (values.length != Keys.values().length)
+            throw new Exception("There needs to be " + Keys.values().length + " weights, values = " + values.length);
+        
+        this.values = values.clone();
+    }
+    
+    /**
+     * Get the value of the weight
+     * @param key The weight
+     * @return The value
+     */
+    public int get(final Keys key)
+    {
+        return this.values[key.ordinal()];
+    }
+    
+    /**
+     * @return A copy of every value, in the order of Keys
+     */
+    public int[] getValues()
+    {
+        return this.values.clone();
+    }
+    
+    /**
+     * Get the weights the cpu uses.<br>
+     * The file in the system property PROPERTY_FILE is used if set, otherwise DEFAULT_RESOURCE.
+     * If the weights can't be read the default values are used.
+     * @return The weights
+     */
+    public static synchronized EvaluationWeights getDefault()
+    {
+        if (defaultWeights == null)
+        {
+            try
+            {
+                final String file = System.getProperty(PROPERTY_FILE);
+                
+                if (file != null)
+                {
+                    defaultWeights = load(new File(file));
+                }
+                else
+                {
+                    try (InputStream input = EvaluationWeights.class.getResourceAsStream(DEFAULT_RESOURCE))
+                    {
+                        if (input == null)
+                            throw new Exception("The weights were not found. resource=" + DEFAULT_RESOURCE);
+                        
+                        defaultWeights = load(input);
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+                
+                defaultWeights = new EvaluationWeights();
+            }
+        }
+        
+        return defaultWeights;
+    }
+    
+    /**
+     * Read the weights from an xml file
+     * @param file The file
+     * @return The weights
+     * @throws Exception If the file can't be read or a weight is not valid
+     */
+    public static EvaluationWeights load(final File file) throws Exception
+    {
+        try (InputStream input = new FileInputStream(file))
+        {
+            return load(input);
+        }
+    }
+    
+    /**
+     * Read the weights from xml
+     * @param input The xml
+     * @return The weights
+     * @throws Exception If the xml can't be read or a weight is not valid
+     */
+    public static EvaluationWeights load(final InputStream input) throws Exception
+    {
+        final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
+        final NodeList nodes = document.getElementsByTagName(XML_WEIGHT);
+        
+        final int[] values = new EvaluationWeights().values;
+        
+        for (int i = 0; i < nodes.getLength(); i++)
+        {
+            final Element element = (Element)nodes.item(i);
+            
+            //this will throw an exception if the weight does not exist
+            final Keys key = Keys.valueOf(element.getAttribute(XML_ID));
+            
+            values[key.ordinal()] = Integer.parseInt(element.getTextContent().trim());
+        }
+        
+        return new EvaluationWeights(values);
+    }
+    
+    /**
+     * Write the weights as an xml file, the same format read by load()
+     * @param file The file
+     * @throws Exception If the file can't be written
+     */
+    public void save(final File file) throws Exception
+    {
+        try (PrintWriter output = new PrintWriter(file, "UTF-8"))
+        {
+            output.print(toString());
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        final StringBuilder text = new StringBuilder();
+        
+        text.append("<?xml version=\"1.0\"?>\r\n");
+        text.append("<weights>\r\n");
+        
+        for (Keys key : Keys.values())
+        {
+            text.append("    <").append(XML_WEIGHT).append(" ").append(XML_ID).append("=\"").append(key).append("\">");
+            text.append(get(key)).append("</").append(XML_WEIGHT).append(">\r\n");
+        }
+        
+        return text.append("</weights>").toString();
+    }
+}
\ No newline at end of file
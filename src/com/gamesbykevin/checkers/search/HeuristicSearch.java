@@ -0,0 +1,260 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.util.Random;
+
+/**
+ * The easy cpu, it only looks at the moves that look good right now.<br>
+ * The logic to picking a move is prioritized as follows<br>
+ * 1. If we have a capture, we must take it<br>
+ * 2. If we have a piece that can be captured, lets see if we can avoid capture<br>
+ * 3. Lets see if we can move a piece to capture the opponent, without risking capture<br>
+ * 4. Is there a piece we can move to create a king<br>
+ * 5. Lets see if we can just move a piece to a safe location without risking capture<br>
+ * 6. Worst case scenario move any piece at random<br>
+ * If more than 1 move qualifies, 1 is picked at random.
+ * @author GOD
+ */
+public final class HeuristicSearch implements Searcher
+{
+    //there are no captures
+    private static final int NO_CAPTURES = 0;
+    
+    //object used to make random decisions
+    private final Random random;
+    
+    //every legal move available this turn
+    private final long[] moves;
+    
+    //the number of legal moves
+    private int moveCount = 0;
+    
+    //our candidate moves, chosen from the legal moves
+    private final long[] options;
+    
+    //the number of candidate moves
+    private int optionCount = 0;
+    
+    //our own copy of the position, used to check moves
+    private final Position scratch;
+    
+    /**
+     * Create the easy cpu
+     * @param random Object used to make random decisions
+     */
+    public HeuristicSearch(final Random random)
+    {
+        this.random = random;
+        this.moves = new long[MoveGenerator.MAX_MOVES];
+        this.options = new long[MoveGenerator.MAX_MOVES];
+        this.scratch = new Position();
+    }
+    
+    /**
+     * Pick a move, the time manager is ignored since the decision is instant
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Not used
+     * @return The move picked
+     */
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager)
+    {
+        final long start = System.nanoTime();
+        
+        //copy the position
+        scratch.assign(position);
+        
+        final boolean north = scratch.isNorthTurn();
+        
+        //get every legal move, if we have a capture only the captures are returned
+        moveCount = MoveGenerator.generate(scratch, north, moves, 0);
+        
+        //no candidates yet
+        optionCount = 0;
+        
+        //if we can't move we lost
+        if (moveCount == 0)
+            return new SearchResult(MoveGenerator.NO_MOVE, -Search.SCORE_WIN, 0, new long[0], 1, System.nanoTime() - start);
+        
+        if (scratch.getCaptureCount(north) > NO_CAPTURES)
+        {
+            //if we have a capture we must make that move
+            checkCapture();
+        }
+        else if (scratch.getCaptureCount(!north) > NO_CAPTURES)
+        {
+            //one of our pieces is in danger, avoid capture "if possible"
+            avoidCapture(north);
+        }
+        
+        //lets see if we can attack the opponent without risking our pieces using a king
+        if (optionCount == 0)
+            moveSafelyCapture(north, true);
+        
+        //lets see if we can attack the opponent without risking our pieces using a regular piece
+        if (optionCount == 0)
+            moveSafelyCapture(north, false);
+        
+        //now lets see if we can advance a checker to be king
+        if (optionCount == 0)
+            advanceToKing();
+        
+        //see if we can move a regular piece that won't put any checker in immediate danger
+        if (optionCount == 0)
+            moveSafely(north, false);
+        
+        //see if we can move a king piece that won't put any checker in immediate danger
+        if (optionCount == 0)
+            moveSafely(north, true);
+        
+        //move random
+        if (optionCount == 0)
+            moveRandom();
+        
+        //pick a random move from our options
+        final long move = options[random.nextInt(optionCount)];
+        
+        return new SearchResult(move, 0, 1, new long[]{move}, moveCount, System.nanoTime() - start);
+    }
+    
+    @Override
+    public void stop()
+    {
+        //the decision is instant, there is nothing to stop
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //nothing to recycle
+    }
+    
+    /**
+     * Every legal move is an option
+     */
+    private void moveRandom()
+    {
+        for (int i = 0; i < moveCount; i++)
+        {
+            addOptionalMove(moves[i]);
+        }
+    }
+    
+    /**
+     * Lets see if we have any pieces to move to capture the opponent without putting in immediate danger.<br>
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param checkKing true if attempting to capture with a king safely, false if attempting to capture with a regular piece safely
+     */
+    private void moveSafelyCapture(final boolean north, final boolean checkKing)
+    {
+        for (int i = 0; i < moveCount; i++)
+        {
+            final long move = moves[i];
+            
+            //only check the type of piece we are looking for
+            if (MoveGenerator.isKing(move) != checkKing)
+                continue;
+            
+            //make the move on our copy of the position
+            scratch.makeMove(move);
+            
+            //make sure this is a safe place to move, and that we have a capture available
+            if (scratch.getCaptureCount(!north) <= NO_CAPTURES && scratch.getCaptureCount(north) > NO_CAPTURES)
+                addOptionalMove(move);
+            
+            //undo the move
+            scratch.unmakeMove();
+        }
+    }
+    
+    /**
+     * Lets see if we have any pieces that we can move without putting in immediate danger.<br>
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param checkKing true if attempting to move kings safely, false if attempting to move regular pieces safely
+     */
+    private void moveSafely(final boolean north, final boolean checkKing)
+    {
+        for (int i = 0; i < moveCount; i++)
+        {
+            final long move = moves[i];
+            
+            //only check the type of piece we are looking for
+            if (MoveGenerator.isKing(move) != checkKing)
+                continue;
+            
+            //make the move on our copy of the position
+            scratch.makeMove(move);
+            
+            //if there are no captures for the opponent this location is good
+            if (scratch.getCaptureCount(!north) <= NO_CAPTURES)
+                addOptionalMove(move);
+            
+            //undo the move
+            scratch.unmakeMove();
+        }
+    }
+    
+    /**
+     * Lets see if we have any pieces that can become a king
+     */
+    private void advanceToKing()
+    {
+        for (int i = 0; i < moveCount; i++)
+        {
+            //the move generator already flags the moves that create a king
+            if (MoveGenerator.isPromotion(moves[i]))
+                addOptionalMove(moves[i]);
+        }
+    }
+    
+    /**
+     * Check if we can avoid capture.<br>
+     * We only want to check if we currently have a piece that will be captured if we do not act
+     * @param north true for the player attacking north, false for the player attacking south
+     */
+    private void avoidCapture(final boolean north)
+    {
+        //get the capture count
+        final int captureMax = scratch.getCaptureCount(!north);
+        
+        //check each move to see if we can lower the capture count
+        for (int i = 0; i < moveCount; i++)
+        {
+            final long move = moves[i];
+            
+            //make the move on our copy of the position
+            scratch.makeMove(move);
+            
+            //if the capture count is lower this is a good move
+            if (scratch.getCaptureCount(!north) < captureMax)
+                addOptionalMove(move);
+            
+            //undo the move
+            scratch.unmakeMove();
+        }
+    }
+    
+    /**
+     * Each capture is the complete sequence of jumps
+     */
+    private void checkCapture()
+    {
+        //the move generator only returns captures when a capture is available
+        for (int i = 0; i < moveCount; i++)
+        {
+            if (MoveGenerator.isCapture(moves[i]))
+                addOptionalMove(moves[i]);
+        }
+    }
+    
+    /**
+     * Add the move to our candidate moves
+     * @param move The legal move
+     */
+    private void addOptionalMove(final long move)
+    {
+        this.options[optionCount++] = move;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * A simple evaluation that counts the pieces of each player.<br>
+ * Regular pieces are also rewarded for advancing towards the row where they are crowned,
+ * and for staying on the back row to keep the opponent from being crowned.
+ * @author GOD
+ */
+public final class MaterialEvaluation implements Evaluation
+{
+    /**
+     * The value of a regular piece
+     */
+    public static final int VALUE_REGULAR = 100;
+    
+    /**
+     * The value of a king
+     */
+    public static final int VALUE_KING = 160;
+    
+    /**
+     * The bonus for each row a regular piece has advanced
+     */
+    public static final int VALUE_ADVANCE = 2;
+    
+    /**
+     * The bonus for each regular piece guarding the back row
+     */
+    public static final int VALUE_BACK_ROW = 6;
+    
+    @Override
+    public int evaluate(final Position position)
+    {
+        //the score for the player attacking north
+        final int score = evaluate(position, true) - evaluate(position, false);
+        
+        return (position.isNorthTurn()) ? score : -score;
+    }
+    
+    /**
+     * Score the pieces for 1 player
+     * @param position The position to score
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The score of the player's pieces
+     */
+    private int evaluate(final Position position, final boolean north)
+    {
+        final int pieces = position.getPieces(north);
+        final int kings = pieces & position.getKings();
+        
+        //the regular pieces
+        int regular = pieces & ~kings;
+        
+        int score = Integer.bitCount(regular) * VALUE_REGULAR + Integer.bitCount(kings) * VALUE_KING;
+        
+        //the back row is where the opponent is crowned
+        score += Integer.bitCount(regular & MoveGenerator.getCrownRow(!north)) * VALUE_BACK_ROW;
+        
+        while (regular != 0)
+        {
+            final int row = Position.getRow(Integer.numberOfTrailingZeros(regular));
+            
+            //remove the piece from the list
+            regular &= regular - 1;
+            
+            //the number of rows advanced from the back row
+            score += ((north) ? (Position.SIZE - 1) - row : row) * VALUE_ADVANCE;
+        }
+        
+        return score;
+    }
+    
+    @Override
+    public void reset(final Position position)
+    {
+        //every piece is counted each time, so there is nothing to keep track of
+    }
+    
+    @Override
+    public void makeMove(final Position position, final long move)
+    {
+        //every piece is counted each time, so there is nothing to keep track of
+    }
+    
+    @Override
+    public void unmakeMove()
+    {
+        //every piece is counted each time, so there is nothing to keep track of
+    }
+}
\ No newline at end of file
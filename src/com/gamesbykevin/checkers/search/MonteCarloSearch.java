@@ -0,0 +1,627 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A Monte Carlo tree search using UCT to pick which move to explore next.<br>
+ * Each thread grows its own tree from the same position (root parallelism) and the visits of each move are added together,
+ * so the threads never have to wait on each other. The most visited move is played.<br>
+ * The trees are kept between moves, if the new position is found within 2 moves of the last one that part of the tree is used again.<br>
+ * The number of positions in the search result is the number of playouts, so the nodes per second is the playouts per second.
+ * @author GOD
+ */
+public final class MonteCarloSearch implements Searcher
+{
+    /**
+     * How each playout picks its moves<br>
+     * Random - play random moves until the game is over<br>
+     * Heavy - play a random move that doesn't leave a piece to be captured,
+     * and after a number of moves use the evaluation to guess the result
+     */
+    public enum Playout
+    {
+        Random, Heavy
+    }
+    
+    /**
+     * How much UCT favors the moves that have been explored the least
+     */
+    public static final double EXPLORATION = 1.0;
+    
+    /**
+     * A random playout that goes on this long is a draw
+     */
+    public static final int MAX_PLAYOUT_PLIES = 200;
+    
+    /**
+     * The number of moves a heavy playout makes before the evaluation guesses the result
+     */
+    public static final int HEAVY_PLAYOUT_PLIES = 40;
+    
+    /**
+     * The most nodes all of the trees can have together, once reached the trees stop growing
+     */
+    public static final int MAX_NODES = 1 << 20;
+    
+    //the number of playouts between checking the time
+    private static final int CHECK_PLAYOUTS = 16;
+    
+    //turns the evaluation into an expected result, about what the tuner fits for the default weights
+    private static final double EVALUATION_SCALE = 0.005;
+    
+    //the score of a certain win, the expected result is scaled from -SCORE_MAX to SCORE_MAX
+    private static final int SCORE_MAX = 1000;
+    
+    //the result of a win, draw and loss
+    private static final double WIN = 1.0, DRAW = 0.5, LOSS = 0.0;
+    
+    //the tree of each thread, the first is searched on the calling thread
+    private final Tree[] trees;
+    
+    //the searches in progress on the other threads
+    private final Future<?>[] helpers;
+    
+    //the threads the other trees are searched on
+    private ExecutorService executor;
+    
+    //how the playouts pick moves
+    private final Playout playout;
+    
+    //the most playouts for each move, 0 for no limit
+    private long playoutLimit = 0;
+    
+    //has the search been told to stop
+    private volatile boolean stopped;
+    
+    /**
+     * Create the search
+     * @param threads The number of trees searched at the same time
+     * @param playout How the playouts pick moves
+     * @param random Object used to make random decisions
+     * @throws Exception If the number of threads is not valid
+     */
+    public MonteCarloSearch(final int threads, final Playout playout, final Random random) throws Exception
+    {
+        if (threads < 1)
+            throw new Exception("There must be at least 1 thread, threads = " + threads);
+        
+        this.playout = playout;
+        this.trees = new Tree[threads];
+        this.helpers = new Future<?>[threads];
+        
+        for (int i = 0; i < threads; i++)
+        {
+            //each tree gets its own random numbers so they explore differently
+            this.trees[i] = new Tree(new Random(random.nextLong()), MAX_NODES / threads);
+        }
+        
+        if (threads > 1)
+        {
+            this.executor = Executors.newFixedThreadPool(threads - 1, new ThreadFactory()
+            {
+                //the number of threads created
+                private int count = 0;
+                
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "Monte Carlo helper " + (++count));
+                    
+                    //don't keep the game running once the window is closed
+                    thread.setDaemon(true);
+                    
+                    return thread;
+                }
+            });
+        }
+    }
+    
+    public int getThreads()
+    {
+        return this.trees.length;
+    }
+    
+    public Playout getPlayout()
+    {
+        return this.playout;
+    }
+    
+    /**
+     * Limit the number of playouts for each move, the search stops at the limit or when the time is up, whichever is first
+     * @param playoutLimit The most playouts for all threads together, 0 for no limit
+     */
+    public void setPlayoutLimit(final long playoutLimit)
+    {
+        this.playoutLimit = playoutLimit;
+    }
+    
+    public long getPlayoutLimit()
+    {
+        return this.playoutLimit;
+    }
+    
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager) throws Exception
+    {
+        final long start = System.nanoTime();
+        
+        stopped = false;
+        
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+        
+        //if we can't move we lost
+        if (count == 0)
+            return new SearchResult(MoveGenerator.NO_MOVE, -Search.SCORE_WIN, 0, new long[0], 0, System.nanoTime() - start);
+        
+        //a forced move doesn't need any thought
+        if (count == 1)
+            return new SearchResult(moves[0], 0, 1, new long[] {moves[0]}, 0, System.nanoTime() - start);
+        
+        //each tree gets an equal share of the playouts
+        final long limit = (playoutLimit > 0) ? Math.max(1, playoutLimit / trees.length) : Long.MAX_VALUE;
+        
+        for (Tree tree : trees)
+        {
+            tree.prepare(position);
+        }
+        
+        for (int i = 1; i < trees.length; i++)
+        {
+            final Tree tree = trees[i];
+            
+            helpers[i] = executor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    tree.search(timeManager, limit);
+                    return null;
+                }
+            });
+        }
+        
+        trees[0].search(timeManager, limit);
+        
+        //the first tree is done so the others can stop
+        stopped = true;
+        
+        long playouts = trees[0].playouts;
+        
+        for (int i = 1; i < trees.length; i++)
+        {
+            helpers[i].get();
+            helpers[i] = null;
+            
+            playouts += trees[i].playouts;
+        }
+        
+        //add up the visits of each move in every tree
+        long best = MoveGenerator.NO_MOVE;
+        long bestVisits = -1;
+        double bestWins = 0;
+        
+        for (int i = 0; i < count; i++)
+        {
+            long visits = 0;
+            double wins = 0;
+            
+            for (Tree tree : trees)
+            {
+                final Node child = tree.root.getChild(moves[i]);
+                
+                if (child != null)
+                {
+                    visits += child.visits;
+                    wins += child.wins;
+                }
+            }
+            
+            if (visits > bestVisits)
+            {
+                best = moves[i];
+                bestVisits = visits;
+                bestWins = wins;
+            }
+        }
+        
+        final double expected = (bestVisits > 0) ? bestWins / bestVisits : DRAW;
+        final int score = (int)Math.round((expected * 2 - 1) * SCORE_MAX);
+        final long[] variation = trees[0].getVariation(best);
+        
+        return new SearchResult(best, score, variation.length, variation, playouts, System.nanoTime() - start);
+    }
+    
+    @Override
+    public void stop()
+    {
+        stopped = true;
+    }
+    
+    @Override
+    public void dispose()
+    {
+        stop();
+        
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+        
+        for (Tree tree : trees)
+        {
+            tree.root = null;
+        }
+    }
+    
+    /**
+     * A position in the tree
+     */
+    private static final class Node
+    {
+        //the move that leads to this position
+        private final long move;
+        
+        //the positions after each legal move, null until the node is expanded
+        private Node[] children;
+        
+        //the number of playouts through this node
+        private int visits;
+        
+        //the total result of the playouts, for the player that made the move
+        private double wins;
+        
+        private Node(final long move)
+        {
+            this.move = move;
+        }
+        
+        /**
+         * Find the child for the move
+         * @param move The move
+         * @return The child, null if not found
+         */
+        private Node getChild(final long move)
+        {
+            if (children != null)
+            {
+                for (Node child : children)
+                {
+                    if (child.move == move)
+                        return child;
+                }
+            }
+            
+            return null;
+        }
+        
+        /**
+         * @return The child with the most visits, null if there are no children
+         */
+        private Node getMostVisited()
+        {
+            Node best = null;
+            
+            if (children != null)
+            {
+                for (Node child : children)
+                {
+                    if (best == null || child.visits > best.visits)
+                        best = child;
+                }
+            }
+            
+            return best;
+        }
+        
+        /**
+         * @return The number of nodes in this part of the tree
+         */
+        private int getSize()
+        {
+            int size = 1;
+            
+            if (children != null)
+            {
+                for (Node child : children)
+                {
+                    size += child.getSize();
+                }
+            }
+            
+            return size;
+        }
+    }
+    
+    /**
+     * The tree searched by 1 thread
+     */
+    private final class Tree
+    {
+        //object used to make random decisions
+        private final Random random;
+        
+        //the most nodes this tree can have
+        private final int maxNodes;
+        
+        //the position at the root of the tree
+        private final Position start = new Position();
+        
+        //the position of the current playout
+        private final Position position = new Position();
+        
+        //the moves of the current position
+        private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        
+        //the nodes selected in the current playout
+        private final Node[] path = new Node[Position.MAX_PLY];
+        
+        //guesses the result at the end of a heavy playout
+        private final Evaluation evaluation = new WeightedEvaluation(EvaluationWeights.getDefault());
+        
+        //the first node of the tree
+        private Node root;
+        
+        //the number of nodes in the tree
+        private int nodes;
+        
+        //the number of playouts for the current move
+        private long playouts;
+        
+        private Tree(final Random random, final int maxNodes)
+        {
+            this.random = random;
+            this.maxNodes = maxNodes;
+        }
+        
+        /**
+         * Prepare the tree for a new search, keeping the part of the old tree that leads to the position
+         * @param position The position to search
+         */
+        private void prepare(final Position position)
+        {
+            final Node reuse = (root != null) ? find(root, position.getKey(), 2) : null;
+            
+            if (reuse != null)
+            {
+                root = reuse;
+                nodes = root.getSize();
+            }
+            else
+            {
+                root = new Node(MoveGenerator.NO_MOVE);
+                nodes = 1;
+            }
+            
+            start.assign(position);
+            playouts = 0;
+        }
+        
+        /**
+         * Look for the position in the old tree
+         * @param node The node to look in
+         * @param key The key of the position
+         * @param depth The number of moves to look ahead
+         * @return The node of the position, null if not found
+         */
+        private Node find(final Node node, final long key, final int depth)
+        {
+            if (start.getKey() == key)
+                return node;
+            
+            if (depth == 0 || node.children == null)
+                return null;
+            
+            for (Node child : node.children)
+            {
+                start.makeMove(child.move);
+                final Node found = find(child, key, depth - 1);
+                start.unmakeMove();
+                
+                if (found != null)
+                    return found;
+            }
+            
+            return null;
+        }
+        
+        /**
+         * Keep doing playouts until the time is up, the limit is reached or we are told to stop
+         * @param timeManager Decides how long we can search
+         * @param limit The most playouts
+         */
+        private void search(final TimeManager timeManager, final long limit)
+        {
+            while (!stopped && playouts < limit)
+            {
+                playout();
+                
+                if (playouts % CHECK_PLAYOUTS == 0 && timeManager.hasExpired())
+                    break;
+            }
+        }
+        
+        /**
+         * Select a path through the tree with UCT, add a node, play the game out and update every node on the path
+         */
+        private void playout()
+        {
+            position.assign(start);
+            
+            Node node = root;
+            int length = 0;
+            
+            //follow the best children until we reach a node that hasn't been expanded
+            while (node.children != null && node.children.length > 0 && length < path.length - 1)
+            {
+                node = select(node);
+                position.play(node.move);
+                path[length++] = node;
+            }
+            
+            //add the children of the node the first time it is visited again
+            if (node.children == null && (node.visits > 0 || node == root) && nodes < maxNodes)
+            {
+                final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+                
+                node.children = new Node[count];
+                
+                for (int i = 0; i < count; i++)
+                {
+                    node.children[i] = new Node(moves[i]);
+                }
+                
+                nodes += count;
+                
+                if (count > 0)
+                {
+                    node = node.children[random.nextInt(count)];
+                    position.play(node.move);
+                    path[length++] = node;
+                }
+            }
+            
+            //the result for the player to move at the end of the path
+            double result = (node.children != null && node.children.length == 0) ? LOSS : simulate();
+            
+            //each node keeps the result for the player that moved into it
+            for (int i = length - 1; i >= 0; i--)
+            {
+                result = WIN - result;
+                
+                path[i].visits++;
+                path[i].wins += result;
+            }
+            
+            root.visits++;
+            playouts++;
+        }
+        
+        /**
+         * Pick the child with the best upper confidence bound (UCT)
+         * @param node The node
+         * @return The child to explore
+         */
+        private Node select(final Node node)
+        {
+            final double log = Math.log(node.visits + 1);
+            
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            
+            for (Node child : node.children)
+            {
+                //always try every move once
+                if (child.visits == 0)
+                    return child;
+                
+                final double value = child.wins / child.visits + EXPLORATION * Math.sqrt(log / child.visits);
+                
+                if (value > bestValue)
+                {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            
+            return best;
+        }
+        
+        /**
+         * Play the game out from the current position
+         * @return The result for the player to move at the start of the playout
+         */
+        private double simulate()
+        {
+            final boolean north = position.isNorthTurn();
+            final int plies = (playout == Playout.Heavy) ? HEAVY_PLAYOUT_PLIES : MAX_PLAYOUT_PLIES;
+            
+            for (int ply = 0; ply < plies; ply++)
+            {
+                final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+                
+                //if the player can't move they lose
+                if (count == 0)
+                    return (position.isNorthTurn() == north) ? LOSS : WIN;
+                
+                position.play((playout == Playout.Heavy) ? pickSafe(count) : moves[random.nextInt(count)]);
+            }
+            
+            if (playout == Playout.Random)
+                return DRAW;
+            
+            //guess the result from the evaluation
+            evaluation.reset(position);
+            
+            final double expected = 1.0 / (1.0 + Math.exp(-EVALUATION_SCALE * evaluation.evaluate(position)));
+            
+            return (position.isNorthTurn() == north) ? expected : WIN - expected;
+        }
+        
+        /**
+         * Pick a random move that doesn't leave a piece to be captured, if there is one
+         * @param count The number of legal moves
+         * @return The move
+         */
+        private long pickSafe(final int count)
+        {
+            final int first = random.nextInt(count);
+            
+            //captures are forced, so any of them will do
+            if (MoveGenerator.isCapture(moves[first]))
+                return moves[first];
+            
+            for (int i = 0; i < count; i++)
+            {
+                final long move = moves[(first + i) % count];
+                
+                position.makeMove(move);
+                final boolean safe = (position.getCaptureCount(position.isNorthTurn()) == 0);
+                position.unmakeMove();
+                
+                if (safe)
+                    return move;
+            }
+            
+            return moves[first];
+        }
+        
+        /**
+         * Get the moves expected to be played
+         * @param move The move picked
+         * @return The move picked followed by the most visited move at each node after it
+         */
+        private long[] getVariation(final long move)
+        {
+            final long[] variation = new long[Search.MAX_PLY];
+            int length = 0;
+            
+            variation[length++] = move;
+            
+            Node node = root.getChild(move);
+            
+            while (node != null && length < variation.length)
+            {
+                node = node.getMostVisited();
+                
+                if (node == null || node.visits == 0)
+                    break;
+                
+                variation[length++] = node.move;
+            }
+            
+            final long[] result = new long[length];
+            System.arraycopy(variation, 0, result, 0, length);
+            return result;
+        }
+    }
+}
\ No newline at end of file
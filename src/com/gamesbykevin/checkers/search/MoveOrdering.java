@@ -0,0 +1,197 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order the search tries the moves, the sooner the best move is tried the fewer positions need to be searched.<br>
+ * The order is:<br>
+ * 1. The best move stored in the transposition table<br>
+ * 2. Captures, the most pieces captured first<br>
+ * 3. The killer moves, regular moves that caused a cutoff at the same ply<br>
+ * 4. Every other move by its history score, how often moving from the start to the destination square caused a cutoff<br>
+ * Each search has its own ordering, so nothing here needs to be thread safe.
+ * @author GOD
+ */
+public final class MoveOrdering
+{
+    /**
+     * The number of killer moves remembered for each ply
+     */
+    public static final int KILLERS = 2;
+    
+    //the score of each type of move, each group is always tried before the next
+    private static final int SCORE_TABLE = Integer.MAX_VALUE;
+    private static final int SCORE_CAPTURE = 1 << 30;
+    private static final int SCORE_KILLER = 1 << 29;
+    
+    //the extra score for each piece captured
+    private static final int SCORE_CAPTURED_PIECE = 1 << 8;
+    
+    //the extra score for a regular piece being crowned
+    private static final int SCORE_PROMOTION = 1;
+    
+    //once a history score reaches this, every history score is halved
+    private static final int HISTORY_MAX = 1 << 20;
+    
+    //the killer moves for each ply [ply][killer]
+    private final long[][] killers;
+    
+    //the history score of each move [start * SQUARES + destination]
+    private final int[] history;
+    
+    //the score of each move in the buffer of each ply [ply][move]
+    private final int[][] scores;
+    
+    /**
+     * Create the move ordering
+     * @param maxPly The deepest ply searched
+     */
+    public MoveOrdering(final int maxPly)
+    {
+        this.killers = new long[maxPly][KILLERS];
+        this.history = new int[Position.SQUARES * Position.SQUARES];
+        this.scores = new int[maxPly][MoveGenerator.MAX_MOVES];
+    }
+    
+    /**
+     * Prepare for a new search.<br>
+     * The killer moves are forgotten, the history scores are halved so the older ones count less.
+     */
+    public void newSearch()
+    {
+        for (long[] killer : killers)
+        {
+            Arrays.fill(killer, MoveGenerator.NO_MOVE);
+        }
+        
+        for (int i = 0; i < history.length; i++)
+        {
+            history[i] >>= 1;
+        }
+    }
+    
+    /**
+     * Score every move so the best can be picked
+     * @param moves The legal moves
+     * @param count The number of legal moves
+     * @param entry The data stored in the transposition table for this position, 0 if there is none
+     * @param ply The distance from the root position
+     */
+    public void score(final long[] moves, final int count, final long entry, final int ply)
+    {
+        final int[] score = scores[ply];
+        final long[] killer = killers[ply];
+        
+        for (int i = 0; i < count; i++)
+        {
+            final long move = moves[i];
+            
+            if (entry != 0 && TranspositionTable.isMove(entry, move))
+            {
+                score[i] = SCORE_TABLE;
+            }
+            else if (MoveGenerator.isCapture(move))
+            {
+                score[i] = SCORE_CAPTURE + Integer.bitCount(MoveGenerator.getCaptured(move)) * SCORE_CAPTURED_PIECE +
+                    (MoveGenerator.isPromotion(move) ? SCORE_PROMOTION : 0);
+            }
+            else if (move == killer[0])
+            {
+                score[i] = SCORE_KILLER + 1;
+            }
+            else if (move == killer[1])
+            {
+                score[i] = SCORE_KILLER;
+            }
+            else
+            {
+                score[i] = history[getIndex(move)];
+            }
+        }
+    }
+    
+    /**
+     * Move the best move not yet tried to the index.<br>
+     * The moves are only sorted as they are needed, since most of them are never tried after a cutoff.
+     * @param moves The legal moves, scored with score()
+     * @param count The number of legal moves
+     * @param index The number of moves already tried
+     * @param ply The distance from the root position
+     */
+    public void pick(final long[] moves, final int count, final int index, final int ply)
+    {
+        final int[] score = scores[ply];
+        
+        int best = index;
+        
+        for (int i = index + 1; i < count; i++)
+        {
+            if (score[i] > score[best])
+                best = i;
+        }
+        
+        if (best != index)
+        {
+            final long move = moves[best];
+            moves[best] = moves[index];
+            moves[index] = move;
+            
+            final int value = score[best];
+            score[best] = score[index];
+            score[index] = value;
+        }
+    }
+    
+    /**
+     * The move caused a cutoff, remember it so it is tried sooner next time.<br>
+     * Captures are already tried first, so only regular moves are remembered.
+     * @param move The move
+     * @param depth The remaining depth, a cutoff closer to the root counts for more
+     * @param ply The distance from the root position
+     */
+    public void cutoff(final long move, final int depth, final int ply)
+    {
+        if (MoveGenerator.isCapture(move))
+            return;
+        
+        final long[] killer = killers[ply];
+        
+        //the newest killer goes first
+        if (killer[0] != move)
+        {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        
+        final int index = getIndex(move);
+        
+        history[index] += Math.max(1, depth * depth);
+        
+        //keep the scores below the killer moves
+        if (history[index] >= HISTORY_MAX)
+        {
+            for (int i = 0; i < history.length; i++)
+            {
+                history[i] >>= 1;
+            }
+        }
+    }
+    
+    /**
+     * Get the history score of the move
+     * @param move The move
+     * @return The history score
+     */
+    public int getHistory(final long move)
+    {
+        return history[getIndex(move)];
+    }
+    
+    private static int getIndex(final long move)
+    {
+        return MoveGenerator.getStart(move) * Position.SQUARES + MoveGenerator.getDestination(move);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * Measure how much the move ordering reduces the positions searched.<br>
+ * Each test position is searched to the same depth (iterative deepening) with the move ordering off, then on,
+ * each run starts with an empty transposition table. The first move cutoff rate is how often the first move tried caused a cutoff.<br>
+ * Usage: OrderingReport [depth] [table size in megabytes]
+ * @author GOD
+ */
+public final class OrderingReport
+{
+    //the default depth to search
+    private static final int DEFAULT_DEPTH = 14;
+    
+    //the number of opening moves made to reach each test position
+    private static final int[] OPENING_MOVES = {0, 4, 8, 12, 16};
+    
+    private OrderingReport()
+    {
+        //this class only contains static methods
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int depth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        final int megabytes = (args.length > 1) ? Integer.parseInt(args[1]) : TranspositionTable.DEFAULT_SIZE;
+        
+        //search once before measuring so the first run isn't slowed down by the JIT compiler
+        search(SpeedupReport.createPosition(0), depth, megabytes, true);
+        
+        //the total nodes and time without and with the move ordering
+        final long[] nodes = new long[2];
+        final long[] times = new long[2];
+        
+        for (int moves : OPENING_MOVES)
+        {
+            final Position position = SpeedupReport.createPosition(moves);
+            
+            for (int i = 0; i < 2; i++)
+            {
+                final boolean ordering = (i == 1);
+                final long time = System.nanoTime();
+                
+                final Search search = search(position, depth, megabytes, ordering);
+                
+                nodes[i] += search.getNodes();
+                times[i] += System.nanoTime() - time;
+                
+                System.out.println(
+                    "opening moves " + moves + ", ordering " + (ordering ? "on " : "off") + ", nodes " + search.getNodes() +
+                    ", first move cutoffs " + String.format("%.1f", search.getFirstMoveCutoffRate() * 100) + "%, " + search.getResult());
+            }
+        }
+        
+        System.out.println("Depth " + depth + " (" + OPENING_MOVES.length + " positions)");
+        System.out.println("ordering off, nodes " + nodes[0] + ", time " + (times[0] / 1000000L) + "ms");
+        System.out.println("ordering on, nodes " + nodes[1] + ", time " + (times[1] / 1000000L) + "ms");
+        System.out.println("nodes saved " + String.format("%.1f", 100.0 - nodes[1] * 100.0 / Math.max(1, nodes[0])) + "%");
+    }
+    
+    /**
+     * Search the position with iterative deepening
+     * @param position The position
+     * @param depth The deepest iteration
+     * @param megabytes The size of the transposition table
+     * @param ordering Is the move ordering used
+     * @return The finished search
+     * @throws Exception If the table can't be created
+     */
+    private static Search search(final Position position, final int depth, final int megabytes, final boolean ordering) throws Exception
+    {
+        final Search search = new Search(new WeightedEvaluation(EvaluationWeights.getDefault()), new TranspositionTable(megabytes));
+        search.setOrderingEnabled(ordering);
+        
+        final TimeManager timeManager = new TimeManager(0);
+        timeManager.startUnlimited();
+        
+        search.start(position, timeManager, 1, depth);
+        
+        //keep deepening until the depth is reached
+        while (!search.iterate())
+        {
+            //nothing else to do here
+        }
+        
+        return search;
+    }
+}
\ No newline at end of file
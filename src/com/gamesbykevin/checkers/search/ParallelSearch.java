@@ -0,0 +1,211 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.tablebase.Tablebase;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A multi-threaded search (Lazy SMP).<br>
+ * The main search runs on the calling thread while each helper thread searches the same position,
+ * all of them sharing 1 transposition table. The helpers start at different depths so they
+ * don't all search the same tree at the same time, and the results they store let the main search finish each depth sooner.<br>
+ * Only the result of the main search is used.
+ * @author GOD
+ */
+public final class ParallelSearch implements Searcher
+{
+    //the main search followed by the helpers
+    private final Search[] searches;
+    
+    //the threads the helpers run on
+    private ExecutorService executor;
+    
+    //the helper searches in progress
+    private final Future<?>[] helpers;
+    
+    /**
+     * Create a parallel search using the default evaluation
+     * @param threads The total number of threads searching, including the calling thread
+     * @param table The transposition table shared by every thread
+     * @throws Exception If the number of threads is not valid
+     */
+    public ParallelSearch(final int threads, final TranspositionTable table) throws Exception
+    {
+        if (threads < 1)
+            throw new Exception("There must be at least 1 thread, threads = " + threads);
+        
+        this.searches = new Search[threads];
+        this.helpers = new Future<?>[threads];
+        
+        for (int i = 0; i < threads; i++)
+        {
+            //each thread gets its own evaluation, since the evaluation keeps track of the moves made
+            this.searches[i] = new Search(new WeightedEvaluation(EvaluationWeights.getDefault()), table);
+        }
+        
+        //the calling thread is the main search, so we only need threads for the helpers
+        if (threads > 1)
+        {
+            this.executor = Executors.newFixedThreadPool(threads - 1, new ThreadFactory()
+            {
+                //the number of threads created
+                private int count = 0;
+                
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "Search helper " + (++count));
+                    
+                    //don't keep the game running once the window is closed
+                    thread.setDaemon(true);
+                    
+                    return thread;
+                }
+            });
+        }
+    }
+    
+    /**
+     * Get the number of threads searching
+     * @return The total number of threads, including the calling thread
+     */
+    public int getThreads()
+    {
+        return this.searches.length;
+    }
+    
+    public TranspositionTable getTable()
+    {
+        return this.searches[0].getTable();
+    }
+    
+    /**
+     * Every thread will use the tablebase to score positions with only a few pieces left
+     * @param tablebase The tablebase, null to search every position
+     */
+    public void setTablebase(final Tablebase tablebase)
+    {
+        for (Search search : searches)
+        {
+            search.setTablebase(tablebase);
+        }
+    }
+    
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager) throws Exception
+    {
+        return search(position, timeManager, Search.MAX_PLY - 1);
+    }
+    
+    /**
+     * Search the position to a fixed depth, with no time limit
+     * @param position The position to search, this is copied and will not be modified
+     * @param depth The depth the main search needs to complete
+     * @return The result of the search
+     * @throws Exception If the depth is not valid
+     */
+    public SearchResult search(final Position position, final int depth) throws Exception
+    {
+        if (depth < 1 || depth >= Search.MAX_PLY)
+            throw new Exception("The search depth must be from 1 to " + (Search.MAX_PLY - 1) + ", depth = " + depth);
+        
+        final TimeManager timeManager = new TimeManager(0);
+        timeManager.startUnlimited();
+        
+        return search(position, timeManager, depth);
+    }
+    
+    /**
+     * Search the position with every thread
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Decides how long we can search, the clock needs to be started before calling
+     * @param maxDepth The deepest iteration of the main search
+     * @return The result of the main search, with the positions searched by every thread
+     * @throws Exception If a helper failed
+     */
+    private SearchResult search(final Position position, final TimeManager timeManager, final int maxDepth) throws Exception
+    {
+        //start the helpers, each one is prepared here so stop() can't be missed
+        for (int i = 1; i < searches.length; i++)
+        {
+            final Search helper = searches[i];
+            
+            //every other helper skips the first depth
+            helper.start(position, timeManager, 1 + (i % 2), Search.MAX_PLY - 1);
+            
+            helpers[i] = executor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    //keep deepening until told to stop
+                    while (!helper.iterate())
+                    {
+                        //nothing else to do here
+                    }
+                    
+                    return null;
+                }
+            });
+        }
+        
+        //the main search on this thread
+        final Search main = searches[0];
+        
+        main.start(position, timeManager, 1, maxDepth);
+        
+        //keep deepening until told to stop
+        while (!main.iterate())
+        {
+            //nothing else to do here
+        }
+        
+        //the main search is done so the helpers can stop
+        long nodes = main.getNodes();
+        
+        for (int i = 1; i < searches.length; i++)
+        {
+            searches[i].stop();
+        }
+        
+        for (int i = 1; i < searches.length; i++)
+        {
+            //wait for the helper to finish
+            helpers[i].get();
+            helpers[i] = null;
+            
+            nodes += searches[i].getNodes();
+        }
+        
+        final SearchResult result = main.getResult();
+        
+        //include the positions searched by every thread
+        return new SearchResult(result.getMove(), result.getScore(), result.getDepth(), result.getVariation(), nodes, result.getTime());
+    }
+    
+    @Override
+    public void stop()
+    {
+        for (int i = 0; i < searches.length; i++)
+        {
+            searches[i].stop();
+        }
+    }
+    
+    @Override
+    public void dispose()
+    {
+        stop();
+        
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
\ No newline at end of file
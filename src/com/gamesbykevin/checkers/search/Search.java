@@ -0,0 +1,589 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.tablebase.Tablebase;
+
+import java.util.Arrays;
+
+/**
+ * Negamax alpha-beta search.<br>
+ * The search is made on its own copy of the position, so the checkers on the board are never touched.<br>
+ * The search can be to a fixed depth, or deepen 1 move at a time until the time manager says to stop.<br>
+ * Positions already searched are remembered in a transposition table, which can be shared by several searches.<br>
+ * A single search object is not thread safe, create 1 for each thread.
+ * @author GOD
+ */
+public final class Search implements Searcher
+{
+    /**
+     * The score of a win, the distance to the win is subtracted so faster wins score higher
+     */
+    public static final int SCORE_WIN = 100000;
+    
+    /**
+     * A score outside the range of any position
+     */
+    public static final int SCORE_INFINITE = SCORE_WIN + 1;
+    
+    /**
+     * The deepest the search will go, including capture extensions
+     */
+    public static final int MAX_PLY = 64;
+    
+    /**
+     * The longest distance to the end of the game that is still scored as a win or loss, this covers the search and the tablebase
+     */
+    public static final int MAX_WIN_DISTANCE = 1024;
+    
+    //how often (number of nodes) we check if the time is up, must be a power of 2 minus 1
+    private static final long CHECK_TIME_NODES = 1023L;
+    
+    //the evaluation used to score positions
+    private final Evaluation evaluation;
+    
+    //the positions already searched
+    private final TranspositionTable table;
+    
+    //the perfect result of positions with only a few pieces left, null if not used
+    private Tablebase tablebase;
+    
+    //our copy of the position we are searching
+    private final Position position;
+    
+    //the move buffer for each ply
+    private final long[][] moves;
+    
+    //the principal variation found at each ply
+    private final long[][] variation;
+    
+    //the length of the principal variation at each ply
+    private final int[] variationLength;
+    
+    //decides the order the moves are searched
+    private final MoveOrdering ordering;
+    
+    //do we use the move ordering, otherwise only the best move from the table is tried first
+    private boolean orderingEnabled = true;
+    
+    //the number of positions where a move caused a cutoff, and where it was the first move tried
+    private long cutoffs, firstMoveCutoffs;
+    
+    //the number of positions searched
+    private long nodes;
+    
+    //decides how long we can search, null if searching to a fixed depth
+    private TimeManager timeManager;
+    
+    //the depth of the iteration in progress
+    private int iteration;
+    
+    //the deepest iteration completed
+    private int depth;
+    
+    //the deepest iteration allowed
+    private int maxDepth;
+    
+    //are we in the middle of deepening
+    private boolean searching = false;
+    
+    //did we run out of time during the iteration
+    private boolean aborted = false;
+    
+    //has another thread asked us to stop
+    private volatile boolean stopped = false;
+    
+    //when the search started
+    private long start;
+    
+    //the result of the deepest iteration completed
+    private SearchResult result;
+    
+    /**
+     * Create a search using the default evaluation and table size
+     * @throws Exception If the table can't be created
+     */
+    public Search() throws Exception
+    {
+        this(new WeightedEvaluation(EvaluationWeights.getDefault()), new TranspositionTable(TranspositionTable.DEFAULT_SIZE));
+    }
+    
+    /**
+     * Create a search
+     * @param evaluation The evaluation used to score positions
+     * @param table The transposition table, this can be shared with other searches
+     */
+    public Search(final Evaluation evaluation, final TranspositionTable table)
+    {
+        this.evaluation = evaluation;
+        this.table = table;
+        this.position = new Position();
+        this.moves = new long[MAX_PLY][MoveGenerator.MAX_MOVES];
+        this.variation = new long[MAX_PLY][MAX_PLY];
+        this.variationLength = new int[MAX_PLY];
+        this.ordering = new MoveOrdering(MAX_PLY);
+    }
+    
+    public Evaluation getEvaluation()
+    {
+        return this.evaluation;
+    }
+    
+    public TranspositionTable getTable()
+    {
+        return this.table;
+    }
+    
+    /**
+     * Use the tablebase to score positions with only a few pieces left
+     * @param tablebase The tablebase, null to search every position
+     */
+    public void setTablebase(final Tablebase tablebase)
+    {
+        this.tablebase = tablebase;
+    }
+    
+    public Tablebase getTablebase()
+    {
+        return this.tablebase;
+    }
+    
+    /**
+     * Use the killer moves, history scores and captures to decide the order the moves are searched
+     * @param orderingEnabled true to order the moves, false to only try the best move from the table first
+     */
+    public void setOrderingEnabled(final boolean orderingEnabled)
+    {
+        this.orderingEnabled = orderingEnabled;
+    }
+    
+    public boolean isOrderingEnabled()
+    {
+        return this.orderingEnabled;
+    }
+    
+    /**
+     * Get the number of positions where a move caused a cutoff
+     * @return The number of cutoffs since the search started
+     */
+    public long getCutoffs()
+    {
+        return this.cutoffs;
+    }
+    
+    /**
+     * Get the number of positions where the first move tried caused a cutoff
+     * @return The number of first move cutoffs since the search started
+     */
+    public long getFirstMoveCutoffs()
+    {
+        return this.firstMoveCutoffs;
+    }
+    
+    /**
+     * How often the first move tried was good enough for a cutoff, the closer to 1 the better the move ordering
+     * @return The first move cutoffs divided by the cutoffs, 0 if there were no cutoffs
+     */
+    public double getFirstMoveCutoffRate()
+    {
+        return (cutoffs > 0) ? (double)firstMoveCutoffs / cutoffs : 0;
+    }
+    
+    /**
+     * Search the position for the best move of the player whose turn it is
+     * @param position The position to search, this is copied and will not be modified
+     * @param depth The number of moves to look ahead, captures are always searched until there are none
+     * @return The result of the search
+     * @throws Exception If the depth is not valid
+     */
+    public SearchResult search(final Position position, final int depth) throws Exception
+    {
+        if (depth < 1 || depth >= MAX_PLY)
+            throw new Exception("The search depth must be from 1 to " + (MAX_PLY - 1) + ", depth = " + depth);
+        
+        //a fixed depth search is never stopped early
+        reset(position, null);
+        
+        this.iteration = depth;
+        
+        return createResult(negamax(depth, -SCORE_INFINITE, SCORE_INFINITE, 0), depth);
+    }
+    
+    /**
+     * Search the position deeper and deeper until the time manager says to stop
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Decides how long we can search, the clock needs to be started before calling
+     * @return The result of the deepest search completed
+     */
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager)
+    {
+        start(position, timeManager);
+        
+        //keep deepening until told to stop
+        while (!iterate())
+        {
+            //nothing else to do here
+        }
+        
+        return getResult();
+    }
+    
+    /**
+     * Start searching the position, each call to iterate() will search 1 move deeper
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Decides how long we can search, the clock needs to be started before calling
+     */
+    public void start(final Position position, final TimeManager timeManager)
+    {
+        start(position, timeManager, 1, MAX_PLY - 1);
+    }
+    
+    /**
+     * Start searching the position, each call to iterate() will search 1 move deeper
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Decides how long we can search, the clock needs to be started before calling
+     * @param firstDepth The depth of the first iteration, if more than 1 there may not be a result if the time runs out
+     * @param maxDepth The deepest iteration allowed
+     */
+    public void start(final Position position, final TimeManager timeManager, final int firstDepth, final int maxDepth)
+    {
+        reset(position, timeManager);
+        
+        //the next iteration will be the first depth
+        this.depth = Math.max(firstDepth, 1) - 1;
+        this.maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+        
+        //we are now deepening
+        this.searching = true;
+    }
+    
+    /**
+     * Search 1 move deeper than the previous iteration.<br>
+     * If the time runs out during the iteration, the result of the previous iteration is kept.
+     * @return true if the search is finished, false if we can search deeper
+     */
+    public boolean iterate()
+    {
+        //we already finished
+        if (!isSearching())
+            return true;
+        
+        this.iteration = depth + 1;
+        
+        final int score = negamax(iteration, -SCORE_INFINITE, SCORE_INFINITE, 0);
+        
+        //only keep the result if the iteration was completed
+        if (!aborted)
+        {
+            this.depth = iteration;
+            this.result = createResult(score, depth);
+        }
+        
+        //stop if out of time, or there is nothing more to learn
+        if (aborted || depth >= maxDepth || result.isDecisive() || !timeManager.canDeepen())
+            this.searching = false;
+        
+        return !isSearching();
+    }
+    
+    /**
+     * Stop deepening as soon as possible, this can be called from any thread.<br>
+     * The result of the deepest iteration completed is kept.
+     */
+    @Override
+    public void stop()
+    {
+        this.stopped = true;
+    }
+    
+    @Override
+    public void dispose()
+    {
+        stop();
+    }
+    
+    /**
+     * Are we in the middle of deepening?
+     * @return true if iterate() needs to be called again, false otherwise
+     */
+    public boolean isSearching()
+    {
+        return this.searching;
+    }
+    
+    /**
+     * Get the result of the deepest iteration completed
+     * @return The result, null if no iteration has completed
+     */
+    public SearchResult getResult()
+    {
+        return this.result;
+    }
+    
+    /**
+     * Get the number of positions searched so far
+     * @return The number of positions searched since the search started
+     */
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+    
+    /**
+     * Prepare for a new search
+     * @param position The position to search
+     * @param timeManager Decides how long we can search, null if searching to a fixed depth
+     */
+    private void reset(final Position position, final TimeManager timeManager)
+    {
+        //copy the position
+        this.position.assign(position);
+        this.evaluation.reset(this.position);
+        
+        this.timeManager = timeManager;
+        this.nodes = 0;
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+        this.depth = 0;
+        this.result = null;
+        this.searching = false;
+        this.aborted = false;
+        this.stopped = false;
+        this.start = System.nanoTime();
+        
+        //entries from previous searches can now be replaced
+        this.table.newSearch();
+        this.ordering.newSearch();
+    }
+    
+    /**
+     * Create the result from the principal variation just found
+     * @param score The score of the search
+     * @param depth The depth searched
+     * @return The result of the search
+     */
+    private SearchResult createResult(final int score, final int depth)
+    {
+        //the best move is the first move of the principal variation
+        final long[] moves = Arrays.copyOf(variation[0], variationLength[0]);
+        final long move = (moves.length > 0) ? moves[0] : MoveGenerator.NO_MOVE;
+        
+        return new SearchResult(move, score, depth, moves, nodes, System.nanoTime() - start);
+    }
+    
+    /**
+     * Search the current position
+     * @param depth The remaining depth
+     * @param alpha The lowest score the player to move is already guaranteed
+     * @param beta The highest score the opponent will allow
+     * @param ply The distance from the root position
+     * @return The score of the position from the point of view of the player to move
+     */
+    private int negamax(final int depth, int alpha, final int beta, final int ply)
+    {
+        //check if the time is up or we were stopped, the first iteration always finishes so we have a move
+        if (timeManager != null && iteration > 1 && (nodes & CHECK_TIME_NODES) == 0 && (stopped || timeManager.hasExpired()))
+            aborted = true;
+        
+        //the result doesn't matter, it will be thrown away
+        if (aborted)
+            return 0;
+        
+        nodes++;
+        
+        //no principal variation yet
+        variationLength[ply] = 0;
+        
+        //the tablebase knows the perfect result, at the root we always search so we have a move
+        if (tablebase != null && ply > 0)
+        {
+            final int value = tablebase.probe(position);
+            
+            if (value != Tablebase.NOT_FOUND)
+                return getScore(value, ply);
+        }
+        
+        //have we already searched this position
+        final long key = position.getKey();
+        final long entry = table.probe(key);
+        
+        //use the stored score if it was searched deep enough, at the root we always search so we have a move
+        if (entry != 0 && ply > 0 && TranspositionTable.getDepth(entry) >= depth)
+        {
+            final int score = fromTable(TranspositionTable.getScore(entry), ply);
+            final int bound = TranspositionTable.getBound(entry);
+            
+            if (bound == TranspositionTable.BOUND_EXACT ||
+                bound == TranspositionTable.BOUND_LOWER && score >= beta ||
+                bound == TranspositionTable.BOUND_UPPER && score <= alpha)
+                return score;
+        }
+        
+        final long[] buffer = moves[ply];
+        final int count = MoveGenerator.generate(position, position.isNorthTurn(), buffer, 0);
+        
+        //if the player can't move they lose
+        if (count == 0)
+            return -SCORE_WIN + ply;
+        
+        //once out of depth keep searching the captures, so we never stop in the middle of an exchange
+        if (ply >= MAX_PLY - 1 || depth <= 0 && !MoveGenerator.isCapture(buffer[0]))
+            return evaluation.evaluate(position);
+        
+        //search the best move from before first, then the moves most likely to cause a cutoff
+        if (orderingEnabled)
+        {
+            ordering.score(buffer, count, entry, ply);
+        }
+        else if (entry != 0)
+        {
+            sortBestMove(buffer, count, entry);
+        }
+        
+        //the lowest score we were guaranteed at the start
+        final int original = alpha;
+        
+        int best = -SCORE_INFINITE;
+        long bestMove = MoveGenerator.NO_MOVE;
+        
+        for (int i = 0; i < count; i++)
+        {
+            //bring the best of the remaining moves forward
+            if (orderingEnabled)
+                ordering.pick(buffer, count, i, ply);
+            
+            final long move = buffer[i];
+            
+            evaluation.makeMove(position, move);
+            position.makeMove(move);
+            final int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            evaluation.unmakeMove();
+            
+            if (score > best)
+            {
+                best = score;
+                bestMove = move;
+                
+                //the principal variation is this move followed by the variation of the reply
+                variation[ply][0] = move;
+                System.arraycopy(variation[ply + 1], 0, variation[ply], 1, variationLength[ply + 1]);
+                variationLength[ply] = variationLength[ply + 1] + 1;
+            }
+            
+            if (score > alpha)
+                alpha = score;
+            
+            //the opponent will not allow this position
+            if (alpha >= beta)
+            {
+                if (!aborted)
+                {
+                    cutoffs++;
+                    
+                    if (i == 0)
+                        firstMoveCutoffs++;
+                    
+                    if (orderingEnabled)
+                        ordering.cutoff(move, depth, ply);
+                }
+                
+                break;
+            }
+        }
+        
+        //if we ran out of time the score can't be trusted
+        if (aborted)
+            return 0;
+        
+        //remember the result, and if it is the exact score or only a bound
+        final int bound;
+        
+        if (best <= original)
+        {
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        else if (best >= beta)
+        {
+            bound = TranspositionTable.BOUND_LOWER;
+        }
+        else
+        {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        
+        table.store(key, bestMove, depth, bound, toTable(best, ply));
+        
+        return best;
+    }
+    
+    /**
+     * Move the best move stored in the table to the front of the list
+     * @param moves The legal moves
+     * @param count The number of legal moves
+     * @param entry The data stored in the table
+     */
+    private static void sortBestMove(final long[] moves, final int count, final long entry)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (TranspositionTable.isMove(entry, moves[i]))
+            {
+                //swap with the first move
+                final long move = moves[i];
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Convert the tablebase value to a score
+     * @param value The value from the tablebase
+     * @param ply The distance from the root position
+     * @return The score of the position from the point of view of the player to move
+     */
+    private static int getScore(final int value, final int ply)
+    {
+        if (Tablebase.isWin(value))
+            return SCORE_WIN - ply - Tablebase.getDistance(value);
+        if (Tablebase.isLoss(value))
+            return -SCORE_WIN + ply + Tablebase.getDistance(value);
+        
+        return 0;
+    }
+    
+    /**
+     * A win or loss is stored as the distance from the position, not the root
+     * @param score The score from the search
+     * @param ply The distance from the root position
+     * @return The score to store in the table
+     */
+    private static int toTable(final int score, final int ply)
+    {
+        if (score >= SCORE_WIN - MAX_WIN_DISTANCE)
+            return score + ply;
+        if (score <= -SCORE_WIN + MAX_WIN_DISTANCE)
+            return score - ply;
+        
+        return score;
+    }
+    
+    /**
+     * Convert the score from the table back to the distance from the root
+     * @param score The score stored in the table
+     * @param ply The distance from the root position
+     * @return The score for the search
+     */
+    private static int fromTable(final int score, final int ply)
+    {
+        if (score >= SCORE_WIN - MAX_WIN_DISTANCE)
+            return score - ply;
+        if (score <= -SCORE_WIN + MAX_WIN_DISTANCE)
+            return score + ply;
+        
+        return score;
+    }
+}
\ No newline at end of file
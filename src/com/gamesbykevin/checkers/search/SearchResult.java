@@ -0,0 +1,130 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+
+/**
+ * The result of a search
+ * @author GOD
+ */
+public final class SearchResult
+{
+    //the best move found
+    private final long move;
+    
+    //the score of the best move
+    private final int score;
+    
+    //the depth searched
+    private final int depth;
+    
+    //the principal variation, the best move followed by the best reply etc...
+    private final long[] variation;
+    
+    //the number of positions searched
+    private final long nodes;
+    
+    //the time it took to search (nanoseconds)
+    private final long time;
+    
+    /**
+     * Create the result
+     * @param move The best move found
+     * @param score The score of the best move
+     * @param depth The depth searched
+     * @param variation The principal variation
+     * @param nodes The number of positions searched
+     * @param time The time it took to search (nanoseconds)
+     */
+    public SearchResult(final long move, final int score, final int depth, final long[] variation, final long nodes, final long time)
+    {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.variation = variation;
+        this.nodes = nodes;
+        this.time = time;
+    }
+    
+    /**
+     * Get the best move
+     * @return The best move found, MoveGenerator.NO_MOVE if there are no legal moves
+     */
+    public long getMove()
+    {
+        return this.move;
+    }
+    
+    public int getScore()
+    {
+        return this.score;
+    }
+    
+    public int getDepth()
+    {
+        return this.depth;
+    }
+    
+    /**
+     * Get the principal variation
+     * @return The best move followed by the expected replies
+     */
+    public long[] getVariation()
+    {
+        return this.variation;
+    }
+    
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+    
+    /**
+     * Get the time it took to search
+     * @return The time in nanoseconds
+     */
+    public long getTime()
+    {
+        return this.time;
+    }
+    
+    /**
+     * Get the search speed
+     * @return The number of positions searched per second
+     */
+    public long getNodesPerSecond()
+    {
+        //avoid dividing by 0
+        if (getTime() <= 0)
+            return 0;
+        
+        return (long)(getNodes() * 1000000000.0 / getTime());
+    }
+    
+    /**
+     * Is the score a forced win or loss
+     * @return true if the search found a win or loss, false otherwise
+     */
+    public boolean isDecisive()
+    {
+        return (Math.abs(getScore()) >= Search.SCORE_WIN - Search.MAX_WIN_DISTANCE);
+    }
+    
+    @Override
+    public String toString()
+    {
+        final StringBuilder text = new StringBuilder();
+        
+        text.append("depth ").append(getDepth());
+        text.append(" score ").append(getScore());
+        text.append(" nodes ").append(getNodes());
+        text.append(" nps ").append(getNodesPerSecond());
+        text.append(" pv");
+        
+        for (int i = 0; i < getVariation().length; i++)
+        {
+            text.append(" ").append(MoveGenerator.toString(getVariation()[i]));
+        }
+        
+        return text.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * Anything the Cpu can use to decide on a move
+ * @author GOD
+ */
+public interface Searcher extends Disposable
+{
+    /**
+     * Search for the best move of the player whose turn it is, until the time manager says to stop
+     * @param position The position to search, this is copied and will not be modified
+     * @param timeManager Decides how long we can search, the clock needs to be started before calling
+     * @return The result of the search
+     * @throws Exception If the search failed
+     */
+    public SearchResult search(final Position position, final TimeManager timeManager) throws Exception;
+    
+    /**
+     * Stop the search as soon as possible, this can be called from any thread
+     */
+    public void stop();
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Perft;
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * Measure how much faster the parallel search reaches a fixed depth as threads are added.<br>
+ * For each thread count the time to complete the depth is compared to 1 thread,
+ * each run starts with an empty transposition table.<br>
+ * Usage: SpeedupReport [depth] [table size in megabytes]
+ * @author GOD
+ */
+public final class SpeedupReport
+{
+    /**
+     * The thread counts measured
+     */
+    private static final int[] THREADS = {1, 2, 4, 8};
+    
+    //the default depth to search
+    private static final int DEFAULT_DEPTH = 16;
+    
+    //the number of opening moves made to reach each test position
+    private static final int[] OPENING_MOVES = {0, 4, 8};
+    
+    //the depth used to pick the opening moves
+    private static final int OPENING_DEPTH = 6;
+    
+    private SpeedupReport()
+    {
+        //this class only contains static methods
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int depth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        final int megabytes = (args.length > 1) ? Integer.parseInt(args[1]) : TranspositionTable.DEFAULT_SIZE;
+        
+        //the total time to depth for each thread count
+        final long[] times = new long[THREADS.length];
+        
+        //search once before measuring so the first thread count isn't slowed down by the JIT compiler
+        final Search warmup = new Search(new WeightedEvaluation(EvaluationWeights.getDefault()), new TranspositionTable(megabytes));
+        warmup.search(createPosition(0), depth);
+        
+        for (int moves : OPENING_MOVES)
+        {
+            final Position position = createPosition(moves);
+            
+            for (int i = 0; i < THREADS.length; i++)
+            {
+                final ParallelSearch search = new ParallelSearch(THREADS[i], new TranspositionTable(megabytes));
+                
+                try
+                {
+                    final SearchResult result = search.search(position, depth);
+                    
+                    times[i] += result.getTime();
+                    
+                    System.out.println("opening moves " + moves + ", threads " + THREADS[i] + ", " + result);
+                }
+                finally
+                {
+                    search.dispose();
+                }
+            }
+        }
+        
+        System.out.println("Time to depth " + depth + " (" + OPENING_MOVES.length + " positions)");
+        
+        for (int i = 0; i < THREADS.length; i++)
+        {
+            System.out.println(
+                "threads " + THREADS[i] + ", time " + (times[i] / 1000000L) + "ms, speedup " +
+                String.format("%.2f", (double)times[0] / times[i]));
+        }
+    }
+    
+    /**
+     * Create a test position by making the opening moves from the start
+     * @param moves The number of moves to make
+     * @return The position
+     * @throws Exception If the position can't be created
+     */
+    static Position createPosition(final int moves) throws Exception
+    {
+        final Position position = Perft.createStart();
+        
+        final Search search = new Search();
+        
+        for (int i = 0; i < moves; i++)
+        {
+            final long move = search.search(position, OPENING_DEPTH).getMove();
+            
+            //the game is over
+            if (move == MoveGenerator.NO_MOVE)
+                break;
+            
+            position.play(move);
+        }
+        
+        return position;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.book.BookSearch;
+import com.gamesbykevin.checkers.book.OpeningBook;
+import com.gamesbykevin.checkers.tablebase.Tablebase;
+import com.gamesbykevin.checkers.tablebase.TablebaseSearch;
+
+import java.util.Random;
+
+/**
+ * How the cpu decides on a move<br>
+ * Easy - pick from the moves that look good right now<br>
+ * Hard - search ahead for the best move<br>
+ * Expert - search ahead for the best move using every processor<br>
+ * MonteCarlo - play many games out from each move using every processor, and pick the move that wins the most
+ * @author GOD
+ */
+public enum Strength
+{
+    Easy, Hard, Expert, MonteCarlo;
+    
+    /**
+     * The number of threads an expert cpu will search with
+     */
+    public static final int EXPERT_THREADS = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Create the search used by this strength.<br>
+     * Every cpu except easy plays from the opening book and the endgame tablebase, if they are there.
+     * @param random Object used to make random decisions
+     * @return The search
+     * @throws Exception If the search can't be created
+     */
+    public Searcher create(final Random random) throws Exception
+    {
+        final Tablebase tablebase = Tablebase.getDefault();
+        
+        Searcher search;
+        
+        switch (this)
+        {
+            case Hard:
+                final Search single = new Search();
+                single.setTablebase(tablebase);
+                search = single;
+                break;
+                
+            case Expert:
+                final ParallelSearch parallel = new ParallelSearch(EXPERT_THREADS, new TranspositionTable(TranspositionTable.DEFAULT_SIZE));
+                parallel.setTablebase(tablebase);
+                search = parallel;
+                break;
+                
+            case MonteCarlo:
+                search = new MonteCarloSearch(EXPERT_THREADS, MonteCarloSearch.Playout.Heavy, random);
+                break;
+                
+            case Easy:
+            default:
+                return new HeuristicSearch(random);
+        }
+        
+        //play the perfect move once only a few pieces are left
+        if (tablebase != null)
+            search = new TablebaseSearch(search, tablebase);
+        
+        final OpeningBook book = OpeningBook.getDefault();
+        
+        return (book != null) ? new BookSearch(search, book, random) : search;
+    }
+    
+    /**
+     * Does this strength think long enough that it needs its own thread
+     * @return true if the search should not run on the game loop, false otherwise
+     */
+    public boolean isThinking()
+    {
+        return (this != Easy);
+    }
+}
\ No newline at end of file
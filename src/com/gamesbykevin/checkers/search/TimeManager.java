@@ -0,0 +1,118 @@
+package com.gamesbykevin.checkers.search;
+
+/**
+ * This class decides how long the search can think about a move.<br>
+ * All times are in nanoseconds from System.nanoTime(), the same clock used by the game loop.
+ * @author GOD
+ */
+public final class TimeManager
+{
+    /**
+     * If there are this many legal moves or less, the position is simple and only half of the budget is used
+     */
+    public static final int FEW_MOVES = 3;
+    
+    //the time we are allowed per move
+    private long budget;
+    
+    //the time allocated to the current move
+    private long allocated;
+    
+    //when we started thinking about the current move
+    private long start;
+    
+    /**
+     * Create a time manager
+     * @param budget The time allowed per move (nanoseconds)
+     */
+    public TimeManager(final long budget)
+    {
+        setBudget(budget);
+    }
+    
+    /**
+     * Set the time allowed per move
+     * @param budget The time allowed per move (nanoseconds)
+     */
+    public final void setBudget(final long budget)
+    {
+        this.budget = budget;
+    }
+    
+    public long getBudget()
+    {
+        return this.budget;
+    }
+    
+    /**
+     * Start the clock for a new move
+     * @param moveCount The number of legal moves available
+     */
+    public void start(final int moveCount)
+    {
+        this.start = System.nanoTime();
+        
+        if (moveCount <= 1)
+        {
+            //if the move is forced there is nothing to think about
+            this.allocated = 0;
+        }
+        else if (moveCount <= FEW_MOVES)
+        {
+            //only a few choices, don't use as much time
+            this.allocated = getBudget() / 2;
+        }
+        else
+        {
+            this.allocated = getBudget();
+        }
+    }
+    
+    /**
+     * Start the clock without a time limit, the search will only stop at its max depth or when told to stop
+     */
+    public void startUnlimited()
+    {
+        this.start = System.nanoTime();
+        this.allocated = Long.MAX_VALUE;
+    }
+    
+    /**
+     * Get the time allocated to the current move
+     * @return The time allocated (nanoseconds)
+     */
+    public long getAllocated()
+    {
+        return this.allocated;
+    }
+    
+    /**
+     * Get the time spent on the current move
+     * @return The time passed since start (nanoseconds)
+     */
+    public long getElapsed()
+    {
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * Has all of the time for the current move been used?<br>
+     * If so the search in progress needs to stop.
+     * @return true if the time is up, false otherwise
+     */
+    public boolean hasExpired()
+    {
+        return (getElapsed() >= getAllocated());
+    }
+    
+    /**
+     * Is there enough time to search another depth?<br>
+     * Each depth takes longer than all the previous ones combined,
+     * so if half of the time is gone the next depth will most likely not finish.
+     * @return true if another depth should be searched, false otherwise
+     */
+    public boolean canDeepen()
+    {
+        return (getElapsed() < getAllocated() / 2);
+    }
+}
\ No newline at end of file
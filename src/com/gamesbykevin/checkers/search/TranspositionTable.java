@@ -0,0 +1,227 @@
+package com.gamesbykevin.checkers.search;
+
+/**
+ * A fixed size table remembering the result of positions already searched.<br>
+ * Each entry is 2 longs in a flat array, the data and the key XOR the data.<br>
+ * The data is only trusted when (check XOR data) equals the key, so an entry
+ * half written by another thread is rejected instead of needing a lock.<br>
+ * The data is packed as follows:<br>
+ * bits 0-15 best move (the low bits of the move, see MoveGenerator), bits 16-23 depth, bits 24-25 bound type,<br>
+ * bits 26-31 the search generation, bits 32-63 score.
+ * @author GOD
+ */
+public final class TranspositionTable
+{
+    /**
+     * How entries are replaced when 2 positions share a slot<br>
+     * DepthPreferred - keep the deeper search, unless the entry is from an older search<br>
+     * AlwaysReplace - the latest search always wins
+     */
+    public enum Replacement
+    {
+        DepthPreferred, AlwaysReplace
+    }
+    
+    /**
+     * The type of score stored
+     */
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+    
+    /**
+     * The default size of the table in megabytes
+     */
+    public static final int DEFAULT_SIZE = 16;
+    
+    //the number of bytes used by each entry
+    private static final int ENTRY_BYTES = 16;
+    
+    //the number of bytes in a megabyte
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    
+    //the bit locations of each part of the data
+    private static final int SHIFT_DEPTH = 16;
+    private static final int SHIFT_BOUND = 24;
+    private static final int SHIFT_GENERATION = 26;
+    private static final int SHIFT_SCORE = 32;
+    
+    //the masks for each part of the data
+    private static final long MASK_MOVE = 0xFFFFL;
+    private static final long MASK_DEPTH = 0xFFL;
+    private static final long MASK_BOUND = 0x3L;
+    private static final long MASK_GENERATION = 0x3FL;
+    
+    //the entries, 2 longs each
+    private final long[] table;
+    
+    //the mask used to find the entry for a key
+    private final int mask;
+    
+    //how entries are replaced
+    private final Replacement replacement;
+    
+    //incremented every new search, so old entries can be replaced
+    private volatile int generation = 0;
+    
+    /**
+     * Create a depth preferred table
+     * @param megabytes The size of the table in megabytes
+     * @throws Exception If the size is not valid
+     */
+    public TranspositionTable(final int megabytes) throws Exception
+    {
+        this(megabytes, Replacement.DepthPreferred);
+    }
+    
+    /**
+     * Create a table
+     * @param megabytes The size of the table in megabytes
+     * @param replacement How entries are replaced
+     * @throws Exception If the size is not valid
+     */
+    public TranspositionTable(final int megabytes, final Replacement replacement) throws Exception
+    {
+        if (megabytes < 1 || megabytes > 1024)
+            throw new Exception("The table size must be from 1 to 1024 megabytes, size = " + megabytes);
+        
+        //the number of entries is a power of 2 so we can mask the key
+        final int entries = Integer.highestOneBit((int)(megabytes * BYTES_PER_MEGABYTE / ENTRY_BYTES));
+        
+        this.table = new long[entries * 2];
+        this.mask = entries - 1;
+        this.replacement = replacement;
+    }
+    
+    public Replacement getReplacement()
+    {
+        return this.replacement;
+    }
+    
+    /**
+     * Get the number of entries
+     * @return The number of positions the table can hold
+     */
+    public int getEntries()
+    {
+        return this.mask + 1;
+    }
+    
+    /**
+     * Remove every entry
+     */
+    public void clear()
+    {
+        for (int i = 0; i < table.length; i++)
+        {
+            table[i] = 0;
+        }
+        
+        this.generation = 0;
+    }
+    
+    /**
+     * Start a new search, the entries from previous searches can now be replaced
+     */
+    public void newSearch()
+    {
+        this.generation = (int)((generation + 1) & MASK_GENERATION);
+    }
+    
+    /**
+     * Look up the position
+     * @param key The zobrist key of the position
+     * @return The data stored for the position, 0 if the position was not found
+     */
+    public long probe(final long key)
+    {
+        final int index = getIndex(key);
+        
+        final long data = table[index + 1];
+        
+        //make sure the entry is for this position and was not partially written
+        if ((table[index] ^ data) != key)
+            return 0L;
+        
+        return data;
+    }
+    
+    /**
+     * Store the result of a search
+     * @param key The zobrist key of the position
+     * @param move The best move, MoveGenerator.NO_MOVE if there isn't one
+     * @param depth The depth searched
+     * @param bound The type of score
+     * @param score The score
+     */
+    public void store(final long key, final long move, final int depth, final int bound, final int score)
+    {
+        final int index = getIndex(key);
+        
+        if (replacement == Replacement.DepthPreferred)
+        {
+            final long existing = table[index + 1];
+            
+            //keep the existing entry if it is from this search and searched deeper
+            if (existing != 0 && getGeneration(existing) == generation && (table[index] ^ existing) != key && getDepth(existing) > depth)
+                return;
+        }
+        
+        final long data =
+            (move & MASK_MOVE) |
+            ((long)Math.min(Math.max(depth, 0), (int)MASK_DEPTH) << SHIFT_DEPTH) |
+            ((long)bound << SHIFT_BOUND) |
+            ((long)generation << SHIFT_GENERATION) |
+            ((long)score << SHIFT_SCORE);
+        
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+    
+    private int getIndex(final long key)
+    {
+        return ((int)key & mask) * 2;
+    }
+    
+    /**
+     * Get the low bits of the best move, compare to a legal move with isMove()
+     * @param data The data returned from probe()
+     * @return The low bits of the best move
+     */
+    public static int getMove(final long data)
+    {
+        return (int)(data & MASK_MOVE);
+    }
+    
+    /**
+     * Is this the best move stored in the data
+     * @param data The data returned from probe()
+     * @param move A legal move
+     * @return true if the move matches, false otherwise
+     */
+    public static boolean isMove(final long data, final long move)
+    {
+        return (getMove(data) == (move & MASK_MOVE));
+    }
+    
+    public static int getDepth(final long data)
+    {
+        return (int)((data >>> SHIFT_DEPTH) & MASK_DEPTH);
+    }
+    
+    public static int getBound(final long data)
+    {
+        return (int)((data >>> SHIFT_BOUND) & MASK_BOUND);
+    }
+    
+    public static int getScore(final long data)
+    {
+        return (int)(data >> SHIFT_SCORE);
+    }
+    
+    private static int getGeneration(final long data)
+    {
+        return (int)((data >>> SHIFT_GENERATION) & MASK_GENERATION);
+    }
+}
\ No newline at end of file
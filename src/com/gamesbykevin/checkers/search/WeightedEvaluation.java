@@ -0,0 +1,324 @@
+package com.gamesbykevin.checkers.search;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import java.util.Arrays;
+
+/**
+ * An evaluation made of several weighted parts: material, kings, guarding the back row, center control,
+ * advancing (tempo), mobility and runaway checkers.<br>
+ * The parts that only depend on where each piece is (everything except mobility and runaway checkers)
+ * are kept in a table for every square and updated as moves are made and unmade,
+ * so the search has to call reset(), makeMove() and unmakeMove() to keep the evaluation in step with the position.<br>
+ * The score is the sum of each weight multiplied by its feature (see getFeatures), which is what the tuner fits.
+ * @author GOD
+ */
+public final class WeightedEvaluation implements Evaluation
+{
+    //the first and last rows of the center
+    private static final int CENTER_ROW_MIN = 3;
+    private static final int CENTER_ROW_MAX = 4;
+    
+    //the first and last columns of the center
+    private static final int CENTER_COLUMN_MIN = 2;
+    private static final int CENTER_COLUMN_MAX = 5;
+    
+    //the index of each player in the tables
+    private static final int NORTH = 0;
+    private static final int SOUTH = 1;
+    
+    //the index of each piece type in the tables
+    private static final int REGULAR = 0;
+    private static final int KING = 1;
+    
+    //the squares in front of a regular piece on its way to be crowned [player][square]
+    private static final int[][] PATHS = createPaths();
+    
+    //the weights used
+    private final EvaluationWeights weights;
+    
+    //the value of each piece type on each square for each player [player][type][square]
+    private final int[][][] values;
+    
+    //the score of the pieces for the player attacking north, minus the player attacking south, for each move made
+    private final int[] scores;
+    
+    //the number of moves made since the last reset
+    private int index;
+    
+    /**
+     * Create the evaluation
+     * @param weights The weights of each part of the evaluation
+     */
+    public WeightedEvaluation(final EvaluationWeights weights)
+    {
+        this.weights = weights;
+        this.values = new int[2][2][Position.SQUARES];
+        this.scores = new int[Position.MAX_PLY + 1];
+        
+        for (int square = 0; square < Position.SQUARES; square++)
+        {
+            for (int player = NORTH; player <= SOUTH; player++)
+            {
+                final boolean north = (player == NORTH);
+                
+                //the center is good for both piece types
+                final int center = isCenter(square) ? weights.get(EvaluationWeights.Keys.Center) : 0;
+                
+                final int back = isBackRank(north, square) ? weights.get(EvaluationWeights.Keys.BackRank) : 0;
+                
+                values[player][REGULAR][square] = weights.get(EvaluationWeights.Keys.Regular) + center + back +
+                    getAdvance(north, square) * weights.get(EvaluationWeights.Keys.Tempo);
+                values[player][KING][square] = weights.get(EvaluationWeights.Keys.King) + center;
+            }
+        }
+    }
+    
+    /**
+     * Find every square a regular piece could pass through on the way to being crowned
+     * @return The squares in front of each square [player][square]
+     */
+    private static int[][] createPaths()
+    {
+        final int[][] paths = new int[2][Position.SQUARES];
+        
+        for (int square = 0; square < Position.SQUARES; square++)
+        {
+            for (int player = NORTH; player <= SOUTH; player++)
+            {
+                int step = 1 << square;
+                
+                while (step != 0)
+                {
+                    int next = 0;
+                    
+                    for (int direction = 0; direction < Position.DIRECTIONS; direction++)
+                    {
+                        if (Position.isForward(player == NORTH, direction))
+                            next |= Position.shift(direction, step);
+                    }
+                    
+                    paths[player][square] |= next;
+                    step = next;
+                }
+            }
+        }
+        
+        return paths;
+    }
+    
+    /**
+     * Is the square in the center of the board
+     * @param square The square
+     * @return true if the square is in the center, false otherwise
+     */
+    private static boolean isCenter(final int square)
+    {
+        final int row = Position.getRow(square);
+        final int column = Position.getColumn(square);
+        
+        return (row >= CENTER_ROW_MIN && row <= CENTER_ROW_MAX && column >= CENTER_COLUMN_MIN && column <= CENTER_COLUMN_MAX);
+    }
+    
+    /**
+     * Is the square on the player's back row, where the opponent is crowned
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param square The square
+     * @return true if the square is on the back row, false otherwise
+     */
+    private static boolean isBackRank(final boolean north, final int square)
+    {
+        return ((MoveGenerator.getCrownRow(!north) & (1 << square)) != 0);
+    }
+    
+    /**
+     * Get the number of rows a regular piece on the square has advanced from the back row
+     * @param north true for the player attacking north, false for the player attacking south
+     * @param square The square
+     * @return The number of rows advanced
+     */
+    private static int getAdvance(final boolean north, final int square)
+    {
+        final int row = Position.getRow(square);
+        
+        return (north) ? (Position.SIZE - 1) - row : row;
+    }
+    
+    /**
+     * Count each feature of the position, the player attacking north minus the player attacking south.<br>
+     * The score for the player attacking north is the sum of each feature multiplied by its weight.
+     * @param position The position
+     * @param features The count of each feature is written here, in the order of EvaluationWeights.Keys
+     */
+    public static void getFeatures(final Position position, final int[] features)
+    {
+        Arrays.fill(features, 0);
+        
+        for (int player = NORTH; player <= SOUTH; player++)
+        {
+            final boolean north = (player == NORTH);
+            final int sign = (north) ? 1 : -1;
+            
+            int pieces = position.getPieces(north);
+            
+            while (pieces != 0)
+            {
+                final int square = Integer.numberOfTrailingZeros(pieces);
+                
+                //remove the piece from the list
+                pieces &= pieces - 1;
+                
+                if (isCenter(square))
+                    features[EvaluationWeights.Keys.Center.ordinal()] += sign;
+                
+                if ((position.getKings() & (1 << square)) != 0)
+                {
+                    features[EvaluationWeights.Keys.King.ordinal()] += sign;
+                }
+                else
+                {
+                    features[EvaluationWeights.Keys.Regular.ordinal()] += sign;
+                    features[EvaluationWeights.Keys.Tempo.ordinal()] += sign * getAdvance(north, square);
+                    
+                    if (isBackRank(north, square))
+                        features[EvaluationWeights.Keys.BackRank.ordinal()] += sign;
+                }
+            }
+            
+            features[EvaluationWeights.Keys.Mobility.ordinal()] += sign * getMobility(position, north);
+            features[EvaluationWeights.Keys.Runaway.ordinal()] += sign * getRunaways(position, north);
+        }
+    }
+    
+    public EvaluationWeights getWeights()
+    {
+        return this.weights;
+    }
+    
+    @Override
+    public void reset(final Position position)
+    {
+        this.index = 0;
+        this.scores[index] = getScore(position, true) - getScore(position, false);
+    }
+    
+    /**
+     * Add up the table values of every piece for 1 player
+     * @param position The position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The total
+     */
+    private int getScore(final Position position, final boolean north)
+    {
+        final int player = (north) ? NORTH : SOUTH;
+        
+        int pieces = position.getPieces(north);
+        int score = 0;
+        
+        while (pieces != 0)
+        {
+            final int square = Integer.numberOfTrailingZeros(pieces);
+            
+            //remove the piece from the list
+            pieces &= pieces - 1;
+            
+            score += values[player][((position.getKings() & (1 << square)) != 0) ? KING : REGULAR][square];
+        }
+        
+        return score;
+    }
+    
+    @Override
+    public void makeMove(final Position position, final long move)
+    {
+        final boolean north = position.isNorthTurn();
+        final int player = (north) ? NORTH : SOUTH;
+        final int opponent = (north) ? SOUTH : NORTH;
+        
+        final int type = (MoveGenerator.isKing(move)) ? KING : REGULAR;
+        final int typeDestination = (MoveGenerator.isKing(move) || MoveGenerator.isPromotion(move)) ? KING : REGULAR;
+        
+        //move the piece
+        int change = values[player][typeDestination][MoveGenerator.getDestination(move)] - values[player][type][MoveGenerator.getStart(move)];
+        
+        //remove the opponent pieces captured
+        int captured = MoveGenerator.getCaptured(move);
+        
+        while (captured != 0)
+        {
+            final int square = Integer.numberOfTrailingZeros(captured);
+            
+            //remove the piece from the list
+            captured &= captured - 1;
+            
+            change += values[opponent][((position.getKings() & (1 << square)) != 0) ? KING : REGULAR][square];
+        }
+        
+        scores[index + 1] = scores[index] + ((north) ? change : -change);
+        index++;
+    }
+    
+    @Override
+    public void unmakeMove()
+    {
+        index--;
+    }
+    
+    @Override
+    public int evaluate(final Position position)
+    {
+        //the score for the player attacking north
+        int score = scores[index];
+        
+        score += (getMobility(position, true) - getMobility(position, false)) * weights.get(EvaluationWeights.Keys.Mobility);
+        score += (getRunaways(position, true) - getRunaways(position, false)) * weights.get(EvaluationWeights.Keys.Runaway);
+        
+        return (position.isNorthTurn()) ? score : -score;
+    }
+    
+    /**
+     * Count the regular (non capture) moves for 1 player
+     * @param position The position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The number of regular moves
+     */
+    private static int getMobility(final Position position, final boolean north)
+    {
+        int count = 0;
+        
+        for (int direction = 0; direction < Position.DIRECTIONS; direction++)
+        {
+            count += Integer.bitCount(position.getMovers(north, direction));
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Count the regular pieces for 1 player that have nothing in their way of being crowned
+     * @param position The position
+     * @param north true for the player attacking north, false for the player attacking south
+     * @return The number of runaway checkers
+     */
+    private static int getRunaways(final Position position, final boolean north)
+    {
+        final int player = (north) ? NORTH : SOUTH;
+        final int occupied = ~position.getEmpty();
+        
+        int regular = position.getPieces(north) & ~position.getKings();
+        int count = 0;
+        
+        while (regular != 0)
+        {
+            final int square = Integer.numberOfTrailingZeros(regular);
+            
+            //remove the piece from the list
+            regular &= regular - 1;
+            
+            if ((PATHS[player][square] & occupied) == 0)
+                count++;
+        }
+        
+        return count;
+    }
+}
\ No newline at end of file
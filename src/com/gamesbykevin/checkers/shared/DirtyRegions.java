@@ -0,0 +1,225 @@
+package com.gamesbykevin.checkers.shared;
+
+import java.awt.Rectangle;
+
+/**
+ * This class will keep track of the areas of the screen that have changed since the last frame.<br>
+ * Overlapping or touching areas are merged so each pixel is only repainted once,
+ * and if there are too many separate areas they are combined into 1.<br>
+ * The rectangles are allocated once and re-used, so tracking damage does not create any objects.
+ * @author GOD
+ */
+public final class DirtyRegions
+{
+    //the most separate areas we will track before combining them
+    private static final int MAX_REGIONS = 8;
+    
+    //the area that can be damaged
+    private final Rectangle bounds;
+    
+    //the damaged areas
+    private final Rectangle[] regions;
+    
+    //the number of damaged areas
+    private int count = 0;
+    
+    //has the entire area been damaged
+    private boolean full = false;
+    
+    /**
+     * Create an empty list of damaged areas
+     * @param bounds The area that can be damaged, any damage outside is ignored
+     */
+    public DirtyRegions(final Rectangle bounds)
+    {
+        this.bounds = new Rectangle(bounds);
+        this.regions = new Rectangle[MAX_REGIONS];
+        
+        for (int index = 0; index < regions.length; index++)
+        {
+            regions[index] = new Rectangle();
+        }
+    }
+    
+    /**
+     * Mark the entire area as damaged
+     */
+    public void addAll()
+    {
+        regions[0].setBounds(bounds);
+        count = 1;
+        full = true;
+    }
+    
+    /**
+     * Mark the area as damaged
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param width The width of the area
+     * @param height The height of the area
+     */
+    public void add(final int x, final int y, final int width, final int height)
+    {
+        //once everything is damaged there is nothing to add
+        if (isFull())
+            return;
+        
+        //only keep the part that is on the screen
+        final int x1 = Math.max(x, bounds.x);
+        final int y1 = Math.max(y, bounds.y);
+        final int x2 = Math.min(x + width, bounds.x + bounds.width);
+        final int y2 = Math.min(y + height, bounds.y + bounds.height);
+        
+        if (x1 >= x2 || y1 >= y2)
+            return;
+        
+        //if we have run out of room combine everything into 1 area
+        if (count == MAX_REGIONS)
+        {
+            for (int index = 1; index < count; index++)
+            {
+                regions[0].add(regions[index]);
+            }
+            
+            count = 1;
+        }
+        
+        final Rectangle region = regions[count++];
+        region.setBounds(x1, y1, x2 - x1, y2 - y1);
+        
+        //keep merging while the new area overlaps or touches another
+        merge(count - 1);
+        
+        //check if the damage now covers everything
+        if (count == 1 && regions[0].equals(bounds))
+            full = true;
+    }
+    
+    /**
+     * Mark the area as damaged
+     * @param rectangle The area damaged
+     */
+    public void add(final Rectangle rectangle)
+    {
+        add(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+    }
+    
+    /**
+     * Combine the area with every other area it overlaps or touches
+     * @param current The index of the area to merge
+     */
+    private void merge(int current)
+    {
+        boolean merged = true;
+        
+        while (merged)
+        {
+            merged = false;
+            
+            for (int index = 0; index < count; index++)
+            {
+                if (index == current || !isTouching(regions[index], regions[current]))
+                    continue;
+                
+                //grow the other area to include this one
+                regions[index].add(regions[current]);
+                
+                //remove this area by moving the last area into its place
+                remove(current);
+                
+                //the combined area may now touch others
+                current = (index == count) ? current : index;
+                merged = true;
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Remove the area, the last area is moved into its place
+     * @param index The index of the area to remove
+     */
+    private void remove(final int index)
+    {
+        count--;
+        
+        if (index != count)
+        {
+            final Rectangle removed = regions[index];
+            regions[index] = regions[count];
+            regions[count] = removed;
+        }
+    }
+    
+    /**
+     * Do the areas overlap or share an edge
+     * @return true if the areas should be combined, false otherwise
+     */
+    private static boolean isTouching(final Rectangle a, final Rectangle b)
+    {
+        return (a.x <= b.x + b.width && b.x <= a.x + a.width && a.y <= b.y + b.height && b.y <= a.y + a.height);
+    }
+    
+    /**
+     * Remove all damage, this is done once the damage has been repainted
+     */
+    public void clear()
+    {
+        count = 0;
+        full = false;
+    }
+    
+    /**
+     * Is there any damage
+     * @return true if nothing needs to be repainted, false otherwise
+     */
+    public boolean isEmpty()
+    {
+        return (count == 0);
+    }
+    
+    /**
+     * Has the entire area been damaged
+     * @return true if everything needs to be repainted, false otherwise
+     */
+    public boolean isFull()
+    {
+        return this.full;
+    }
+    
+    /**
+     * Get the number of separate damaged areas
+     * @return The number of areas
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Get the damaged area.<br>
+     * The rectangle is re-used, so it should not be modified or stored.
+     * @param index The index of the area
+     * @return The damaged area
+     */
+    public Rectangle get(final int index)
+    {
+        return regions[index];
+    }
+    
+    /**
+     * Get the total number of pixels damaged
+     * @return The total area of every damaged region
+     */
+    public int getArea()
+    {
+        int area = 0;
+        
+        for (int index = 0; index < count; index++)
+        {
+            area += regions[index].width * regions[index].height;
+        }
+        
+        return area;
+    }
+}
\ No newline at end of file
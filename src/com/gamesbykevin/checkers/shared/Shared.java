@@ -31,6 +31,9 @@ public final class Shared
     //how many updates per second, controls speed of game
     public static final int DEFAULT_UPS = 60;
     
+    //how many frames per second are drawn, independent of the speed of the game
+    public static final int DEFAULT_FPS = 60;
+    
     //what is the name of our game
     public static final String GAME_NAME = "Checkers";
     
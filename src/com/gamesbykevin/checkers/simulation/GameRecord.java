@@ -0,0 +1,187 @@
+package com.gamesbykevin.checkers.simulation;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * The record of a finished headless game: the start position, every move played and the result
+ * @author GOD
+ */
+public final class GameRecord
+{
+    /**
+     * The ways a game can end
+     */
+    public enum Result
+    {
+        NorthWin, SouthWin, Draw
+    }
+    
+    /**
+     * Why the game ended
+     */
+    public enum Reason
+    {
+        //the player to move had no legal moves
+        NoMoves,
+        
+        //the same position came up too many times
+        Repetition,
+        
+        //too many moves without a capture or a regular piece moving
+        NoProgress,
+        
+        //the game went on too long
+        MaxMoves
+    }
+    
+    //the start position text
+    private final String start;
+    
+    //does the player attacking north move first
+    private final boolean northFirst;
+    
+    //the moves played
+    private final long[] moves;
+    
+    //how the game ended
+    private final Result result;
+    private final Reason reason;
+    
+    //the total positions searched by both players
+    private final long nodes;
+    
+    //the time the game took (nanoseconds)
+    private final long time;
+    
+    public GameRecord(final Position start, final long[] moves, final Result result, final Reason reason, final long nodes, final long time)
+    {
+        this.start = start.toString();
+        this.northFirst = start.isNorthTurn();
+        this.moves = moves;
+        this.result = result;
+        this.reason = reason;
+        this.nodes = nodes;
+        this.time = time;
+    }
+    
+    public String getStart()
+    {
+        return this.start;
+    }
+    
+    public long[] getMoves()
+    {
+        return this.moves;
+    }
+    
+    /**
+     * @return The number of moves played by both players
+     */
+    public int getPlies()
+    {
+        return this.moves.length;
+    }
+    
+    public Result getResult()
+    {
+        return this.result;
+    }
+    
+    public Reason getReason()
+    {
+        return this.reason;
+    }
+    
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+    
+    public long getTime()
+    {
+        return this.time;
+    }
+    
+    /**
+     * Write the game in the portable draughts notation (PDN) style.<br>
+     * The squares are numbered 1 - 32 starting from the side of the player attacking north, who moves first (Black),
+     * and a capture lists only where the piece started and finished.
+     * @param event The name of the event
+     * @param round The round of the event
+     * @param north The name of the player attacking north
+     * @param south The name of the player attacking south
+     * @return The game record text
+     */
+    public String toPdn(final String event, final int round, final String north, final String south)
+    {
+        final String score;
+        
+        switch (result)
+        {
+            case NorthWin:
+                score = "1-0";
+                break;
+            
+            case SouthWin:
+                score = "0-1";
+                break;
+            
+            default:
+                score = "1/2-1/2";
+                break;
+        }
+        
+        final StringBuilder text = new StringBuilder();
+        
+        text.append("[Event \"").append(event).append("\"]\n");
+        text.append("[Round \"").append(round).append("\"]\n");
+        text.append("[Black \"").append(north).append("\"]\n");
+        text.append("[White \"").append(south).append("\"]\n");
+        text.append("[Result \"").append(score).append("\"]\n");
+        text.append("[Position \"").append(start).append("\"]\n");
+        text.append("[Termination \"").append(reason).append("\"]\n");
+        
+        for (int i = 0; i < moves.length; i++)
+        {
+            //number each pair of moves, or a single move if the south player starts
+            if (i == 0 && !northFirst)
+            {
+                text.append("1... ");
+            }
+            else if ((i % 2 == 0) == northFirst)
+            {
+                text.append((i + (northFirst ? 2 : 3)) / 2).append(". ");
+            }
+            
+            text.append(toPdnSquare(MoveGenerator.getStart(moves[i])));
+            text.append(MoveGenerator.isCapture(moves[i]) ? "x" : "-");
+            text.append(toPdnSquare(MoveGenerator.getDestination(moves[i]))).append(" ");
+        }
+        
+        return text.append(score).append("\n").toString();
+    }
+    
+    /**
+     * Convert our square index to the PDN square number
+     */
+    private static int toPdnSquare(final int square)
+    {
+        return Position.SQUARES - square;
+    }
+    
+    @Override
+    public String toString()
+    {
+        final StringBuilder text = new StringBuilder();
+        
+        text.append(result).append(" (").append(reason).append(") plies ").append(getPlies()).append(", moves");
+        
+        for (int i = 0; i < moves.length; i++)
+        {
+            text.append(" ").append(MoveGenerator.toString(moves[i]));
+        }
+        
+        return text.toString();
+    }
+}
\ No newline at end of file
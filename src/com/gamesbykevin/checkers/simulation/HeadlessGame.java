@@ -0,0 +1,167 @@
+package com.gamesbykevin.checkers.simulation;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.SearchResult;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.TimeManager;
+
+import java.util.Arrays;
+
+/**
+ * Play a complete game between 2 searches without any rendering, audio or animation.<br>
+ * The moves are played directly on a position as fast as the searches can decide on them,
+ * which makes this useful for soak tests, regression testing the cpu and analyzing many games.<br>
+ * A game is a draw if the same position comes up 3 times, if neither player captures or moves a regular piece
+ * for NO_PROGRESS_PLIES moves, or if the game reaches MAX_PLIES moves.
+ * @author GOD
+ */
+public final class HeadlessGame
+{
+    /**
+     * The maximum number of moves (by both players) before the game is a draw
+     */
+    public static final int MAX_PLIES = 400;
+    
+    /**
+     * The number of moves (by both players) without a capture or a regular piece moving before the game is a draw
+     */
+    public static final int NO_PROGRESS_PLIES = 100;
+    
+    /**
+     * The number of times the same position has to come up for the game to be a draw
+     */
+    public static final int REPETITIONS = 3;
+    
+    //the search for each player
+    private final Searcher north, south;
+    
+    //how long each player can think
+    private final TimeManager northTime, southTime;
+    
+    //the legal moves of the current position
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    
+    //the moves played this game
+    private final long[] played = new long[MAX_PLIES];
+    
+    //the key of each position reached this game
+    private final long[] keys = new long[MAX_PLIES + 1];
+    
+    /**
+     * Create a game between 2 searches
+     * @param north The search for the player attacking north, this player moves first
+     * @param south The search for the player attacking south
+     * @param thinkingTime The time each player can think about each move (nanoseconds)
+     */
+    public HeadlessGame(final Searcher north, final Searcher south, final long thinkingTime)
+    {
+        this.north = north;
+        this.south = south;
+        this.northTime = new TimeManager(thinkingTime);
+        this.southTime = new TimeManager(thinkingTime);
+    }
+    
+    /**
+     * Play the game to the end
+     * @param start The position to start from, this is copied and will not be modified
+     * @return The record of the game
+     * @throws Exception If a search fails or returns an illegal move
+     */
+    public GameRecord play(final Position start) throws Exception
+    {
+        final long time = System.nanoTime();
+        
+        final Position position = new Position(start);
+        
+        long nodes = 0;
+        int plies = 0;
+        
+        //the ply of the last capture or regular piece move
+        int progress = 0;
+        
+        keys[0] = position.getKey();
+        
+        GameRecord.Result result = GameRecord.Result.Draw;
+        GameRecord.Reason reason = GameRecord.Reason.MaxMoves;
+        
+        while (plies < MAX_PLIES)
+        {
+            final boolean northTurn = position.isNorthTurn();
+            final int count = MoveGenerator.generate(position, northTurn, moves, 0);
+            
+            //the player that can't move loses
+            if (count == 0)
+            {
+                result = (northTurn) ? GameRecord.Result.SouthWin : GameRecord.Result.NorthWin;
+                reason = GameRecord.Reason.NoMoves;
+                break;
+            }
+            
+            //let the player decide on a move
+            final TimeManager timeManager = (northTurn) ? northTime : southTime;
+            timeManager.start(count);
+            
+            final SearchResult decision = ((northTurn) ? north : south).search(position, timeManager);
+            final long move = decision.getMove();
+            
+            nodes += decision.getNodes();
+            
+            if (!isLegal(move, count))
+                throw new Exception("Illegal move " + MoveGenerator.toString(move) + " in position " + position);
+            
+            //a capture or a regular piece moving can't be repeated
+            if (MoveGenerator.isCapture(move) || !MoveGenerator.isKing(move))
+                progress = plies + 1;
+            
+            position.play(move);
+            played[plies++] = move;
+            keys[plies] = position.getKey();
+            
+            if (plies - progress >= NO_PROGRESS_PLIES)
+            {
+                reason = GameRecord.Reason.NoProgress;
+                break;
+            }
+            
+            if (isRepetition(plies, progress))
+            {
+                reason = GameRecord.Reason.Repetition;
+                break;
+            }
+        }
+        
+        return new GameRecord(start, Arrays.copyOf(played, plies), result, reason, nodes, System.nanoTime() - time);
+    }
+    
+    /**
+     * Is the move one of the legal moves
+     */
+    private boolean isLegal(final long move, final int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (moves[i] == move)
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Has the current position come up REPETITIONS times.<br>
+     * Only the positions since the last capture or regular piece move can repeat, and only with the same player to move.
+     */
+    private boolean isRepetition(final int plies, final int progress)
+    {
+        int count = 1;
+        
+        for (int ply = plies - 2; ply >= progress; ply -= 2)
+        {
+            if (keys[ply] == keys[plies] && ++count >= REPETITIONS)
+                return true;
+        }
+        
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.gamesbykevin.checkers.simulation;
+
+/**
+ * The wins, draws and losses of a player against an opponent.<br>
+ * The score is used to estimate the Elo difference between the 2 players
+ * and to run a sequential probability ratio test (SPRT), so a match can stop as soon as the result is clear.<br>
+ * The SPRT tests whether the Elo difference is elo0 (hypothesis 0) or elo1 (hypothesis 1),
+ * using the normal approximation of the game results.<br>
+ * Half a pseudo game is added to each result when estimating the variance, so a match where every game
+ * had the same result (for example 40 wins) can still be decided, and the score is kept away from 0 and 1
+ * so the Elo difference and its error are always finite.
+ * @author GOD
+ */
+public final class MatchScore
+{
+    /**
+     * The outcome of the sequential probability ratio test
+     */
+    public enum Decision
+    {
+        //more games are needed
+        Continue,
+        
+        //the Elo difference is elo0 or lower
+        AcceptH0,
+        
+        //the Elo difference is elo1 or higher
+        AcceptH1
+    }
+    
+    //the z score of a 95% confidence interval
+    private static final double Z_95 = 1.959963984540054;
+    
+    //the pseudo games added to each result when estimating the variance
+    private static final double PSEUDO_GAMES = 0.5;
+    
+    //the game results
+    private int wins = 0, draws = 0, losses = 0;
+    
+    //the hypotheses being tested
+    private final double elo0, elo1;
+    
+    //the log likelihood ratio bounds, reached when the test is decided
+    private final double lower, upper;
+    
+    /**
+     * Create the score
+     * @param elo0 The Elo difference of hypothesis 0
+     * @param elo1 The Elo difference of hypothesis 1
+     * @param alpha The chance of accepting hypothesis 1 when hypothesis 0 is true
+     * @param beta The chance of accepting hypothesis 0 when hypothesis 1 is true
+     * @throws Exception If the hypotheses or the error rates are not valid
+     */
+    public MatchScore(final double elo0, final double elo1, final double alpha, final double beta) throws Exception
+    {
+        if (elo1 <= elo0)
+            throw new Exception("elo1 has to be greater than elo0");
+        if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1)
+            throw new Exception("alpha and beta have to be between 0 and 1");
+        
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lower = Math.log(beta / (1 - alpha));
+        this.upper = Math.log((1 - beta) / alpha);
+    }
+    
+    /**
+     * Add the result of a game
+     * @param score 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    public void add(final double score)
+    {
+        if (score > 0.5)
+        {
+            wins++;
+        }
+        else if (score < 0.5)
+        {
+            losses++;
+        }
+        else
+        {
+            draws++;
+        }
+    }
+    
+    public int getWins()
+    {
+        return this.wins;
+    }
+    
+    public int getDraws()
+    {
+        return this.draws;
+    }
+    
+    public int getLosses()
+    {
+        return this.losses;
+    }
+    
+    public int getGames()
+    {
+        return (wins + draws + losses);
+    }
+    
+    /**
+     * @return The average score per game (0 - 1)
+     */
+    public double getScore()
+    {
+        return (getGames() == 0) ? 0.5 : (wins + draws * 0.5) / getGames();
+    }
+    
+    /**
+     * The variance of the score of a single game.<br>
+     * Pseudo games are added to each result, so the variance is never 0 even if every game had the same result.
+     * @return The variance
+     */
+    private double getVariance()
+    {
+        final double w = wins + PSEUDO_GAMES;
+        final double d = draws + PSEUDO_GAMES;
+        final double l = losses + PSEUDO_GAMES;
+        
+        final double score = (w + d * 0.5) / (w + d + l);
+        
+        return (w * (1 - score) * (1 - score) + d * (0.5 - score) * (0.5 - score) + l * score * score) / (w + d + l);
+    }
+    
+    /**
+     * Keep the score away from 0 and 1, by half a game for the number of games played
+     * @param score The average score (0 - 1)
+     * @return The score limited so it converts to a finite Elo difference
+     */
+    private double clamp(final double score)
+    {
+        final double limit = 0.5 / (getGames() + 1);
+        
+        return Math.max(limit, Math.min(1 - limit, score));
+    }
+    
+    /**
+     * @return The estimated Elo difference
+     */
+    public double getElo()
+    {
+        return toElo(clamp(getScore()));
+    }
+    
+    /**
+     * @return The half width of the 95% confidence interval of the Elo difference
+     */
+    public double getEloError()
+    {
+        if (getGames() == 0)
+            return Double.POSITIVE_INFINITY;
+        
+        final double deviation = Math.sqrt(getVariance() / getGames());
+        
+        return (toElo(clamp(getScore() + Z_95 * deviation)) - toElo(clamp(getScore() - Z_95 * deviation))) / 2;
+    }
+    
+    /**
+     * @return The log likelihood ratio of hypothesis 1 against hypothesis 0
+     */
+    public double getLogLikelihoodRatio()
+    {
+        //we can't tell anything until a game is played
+        if (getGames() == 0)
+            return 0;
+        
+        final double variance = getVariance();
+        final double score0 = toScore(elo0);
+        final double score1 = toScore(elo1);
+        
+        return getGames() * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+    }
+    
+    /**
+     * @return The outcome of the sequential probability ratio test so far
+     */
+    public Decision getDecision()
+    {
+        final double ratio = getLogLikelihoodRatio();
+        
+        if (ratio >= upper)
+            return Decision.AcceptH1;
+        if (ratio <= lower)
+            return Decision.AcceptH0;
+        
+        return Decision.Continue;
+    }
+    
+    /**
+     * Convert an average score to an Elo difference
+     * @param score The average score (0 - 1)
+     * @return The Elo difference, infinite if the score is 0 or 1
+     */
+    public static double toElo(final double score)
+    {
+        if (score <= 0)
+            return Double.NEGATIVE_INFINITY;
+        if (score >= 1)
+            return Double.POSITIVE_INFINITY;
+        
+        return -400 * Math.log10(1 / score - 1);
+    }
+    
+    /**
+     * Convert an Elo difference to the expected average score
+     * @param elo The Elo difference
+     * @return The expected average score (0 - 1)
+     */
+    public static double toScore(final double elo)
+    {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "games " + getGames() + " (+" + wins + " =" + draws + " -" + losses + "), elo " +
+            String.format("%.1f +/- %.1f", getElo(), getEloError()) + ", llr " +
+            String.format("%.2f [%.2f, %.2f]", getLogLikelihoodRatio(), lower, upper);
+    }
+}
\ No newline at end of file
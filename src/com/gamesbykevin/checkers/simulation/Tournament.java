@@ -0,0 +1,312 @@
+package com.gamesbykevin.checkers.simulation;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.Strength;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Play many headless games between 2 cpu strengths in parallel to measure the difference between them.<br>
+ * Each game runs on a fork join pool with its own position, and each worker thread has its own searches.<br>
+ * Games are played in pairs from the same random opening with the colors switched,
+ * and the match stops early once the sequential probability ratio test is decided.<br>
+ * Usage: Tournament [games] [player 1 strength] [player 2 strength] [thinking time ms] [seed] [threads] [pdn file]<br>
+ * An expert cpu searches with every processor, so an expert tournament is best run with 1 thread.
+ * @author GOD
+ */
+public final class Tournament
+{
+    /**
+     * The number of random moves made from the start to create each opening
+     */
+    public static final int OPENING_PLIES = 4;
+    
+    /**
+     * The SPRT hypotheses (Elo difference) and error rates used by main
+     */
+    public static final double ELO0 = 0, ELO1 = 20, ALPHA = 0.05, BETA = 0.05;
+    
+    //the default settings
+    private static final int DEFAULT_GAMES = 1000;
+    private static final long DEFAULT_THINKING = 50L;
+    
+    //how often the score is reported
+    private static final int REPORT_GAMES = 100;
+    
+    //the strength of each player
+    private final Strength strength1, strength2;
+    
+    //the time each player can think about each move (nanoseconds)
+    private final long thinkingTime;
+    
+    //the number of games played at the same time
+    private final int threads;
+    
+    //creates the openings
+    private final long seed;
+    
+    //the games of each worker thread, player 1 attacking north then player 1 attacking south
+    private final ThreadLocal<HeadlessGame[]> games;
+    
+    //every search created, so they can be recycled once the tournament is over
+    private final Queue<Searcher> searchers = new ConcurrentLinkedQueue<>();
+    
+    //have we decided to stop playing
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    
+    /**
+     * Create the tournament
+     * @param strength1 The strength of player 1
+     * @param strength2 The strength of player 2
+     * @param thinkingTime The time each player can think about each move (nanoseconds)
+     * @param threads The number of games to play at the same time
+     * @param seed Creates the random openings, the same seed plays the same openings
+     * @throws Exception If the number of threads is not valid
+     */
+    public Tournament(final Strength strength1, final Strength strength2, final long thinkingTime, final int threads, final long seed) throws Exception
+    {
+        if (threads < 1)
+            throw new Exception("The tournament needs at least 1 thread. threads=" + threads);
+        
+        this.strength1 = strength1;
+        this.strength2 = strength2;
+        this.thinkingTime = thinkingTime;
+        this.threads = threads;
+        this.seed = seed;
+        
+        this.games = new ThreadLocal<HeadlessGame[]>()
+        {
+            @Override
+            protected HeadlessGame[] initialValue()
+            {
+                try
+                {
+                    return createGames();
+                }
+                catch (Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Create the searches for the current thread
+     * @return The game with player 1 attacking north, and the game with player 1 attacking south
+     * @throws Exception If a search can't be created
+     */
+    private HeadlessGame[] createGames() throws Exception
+    {
+        final Random random = new Random(seed ^ Thread.currentThread().getId());
+        
+        final Searcher player1 = strength1.create(random);
+        final Searcher player2 = strength2.create(random);
+        
+        searchers.add(player1);
+        searchers.add(player2);
+        
+        return new HeadlessGame[] {
+            new HeadlessGame(player1, player2, thinkingTime),
+            new HeadlessGame(player2, player1, thinkingTime)
+        };
+    }
+    
+    /**
+     * Create the opening for a pair of games
+     * @param pair The pair of games
+     * @return The position after OPENING_PLIES random moves
+     */
+    private Position createOpening(final int pair)
+    {
+        final Random random = new Random(seed + pair);
+        final Position position = new Position();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        
+        position.setup();
+        
+        for (int ply = 0; ply < OPENING_PLIES; ply++)
+        {
+            final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+            
+            if (count == 0)
+                break;
+            
+            position.play(moves[random.nextInt(count)]);
+        }
+        
+        return position;
+    }
+    
+    /**
+     * Play the tournament
+     * @param count The maximum number of games, the match stops sooner if the SPRT is decided
+     * @param score The score of player 1, the results are added to this
+     * @param pdn Where to write the record of each game, null if not needed
+     * @param log Where to report the progress, null if not needed
+     * @return The number of seconds the tournament took
+     * @throws Exception If a game fails
+     */
+    public double play(final int count, final MatchScore score, final PrintStream pdn, final PrintStream log) throws Exception
+    {
+        final long time = System.nanoTime();
+        
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final CompletionService<Outcome> service = new ExecutorCompletionService<>(pool);
+        
+        stopped.set(false);
+        
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                final int index = i;
+                
+                service.submit(new Callable<Outcome>()
+                {
+                    @Override
+                    public Outcome call() throws Exception
+                    {
+                        //don't start any new games once we have stopped
+                        if (stopped.get())
+                            return null;
+                        
+                        //player 1 attacks north in the first game of each pair
+                        final boolean north = (index % 2 == 0);
+                        
+                        return new Outcome(index, games.get()[north ? 0 : 1].play(createOpening(index / 2)));
+                    }
+                });
+            }
+            
+            for (int i = 0; i < count && !stopped.get(); i++)
+            {
+                final Outcome outcome = service.take().get();
+                
+                if (outcome == null)
+                    continue;
+                
+                final boolean north = (outcome.index % 2 == 0);
+                
+                score.add(getScore(outcome.record.getResult(), north));
+                
+                if (pdn != null)
+                {
+                    final String player1 = "Player 1 (" + strength1 + ")";
+                    final String player2 = "Player 2 (" + strength2 + ")";
+                    
+                    pdn.println(outcome.record.toPdn("Tournament", outcome.index + 1, north ? player1 : player2, north ? player2 : player1));
+                }
+                
+                if (log != null && score.getGames() % REPORT_GAMES == 0)
+                    log.println(score + ", games/sec " + String.format("%.2f", score.getGames() / getSeconds(time)));
+                
+                //stop once the test is decided
+                if (score.getDecision() != MatchScore.Decision.Continue)
+                    stopped.set(true);
+            }
+        }
+        finally
+        {
+            stopped.set(true);
+            
+            //let the games in progress finish before the searches are recycled
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            
+            for (Searcher searcher : searchers)
+            {
+                searcher.dispose();
+            }
+            
+            searchers.clear();
+        }
+        
+        return getSeconds(time);
+    }
+    
+    /**
+     * Get the score of player 1
+     * @param result The result of the game
+     * @param north Did player 1 attack north
+     * @return 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    private static double getScore(final GameRecord.Result result, final boolean north)
+    {
+        switch (result)
+        {
+            case NorthWin:
+                return (north) ? 1 : 0;
+            
+            case SouthWin:
+                return (north) ? 0 : 1;
+            
+            default:
+                return 0.5;
+        }
+    }
+    
+    private static double getSeconds(final long start)
+    {
+        return (System.nanoTime() - start) / 1000000000.0;
+    }
+    
+    /**
+     * A finished game and its place in the tournament
+     */
+    private static final class Outcome
+    {
+        private final int index;
+        private final GameRecord record;
+        
+        private Outcome(final int index, final GameRecord record)
+        {
+            this.index = index;
+            this.record = record;
+        }
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int count = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final Strength strength1 = (args.length > 1) ? Strength.valueOf(args[1]) : Strength.Hard;
+        final Strength strength2 = (args.length > 2) ? Strength.valueOf(args[2]) : Strength.Easy;
+        final long thinking = (args.length > 3) ? Long.parseLong(args[3]) : DEFAULT_THINKING;
+        final long seed = (args.length > 4) ? Long.parseLong(args[4]) : System.nanoTime();
+        final int threads = (args.length > 5) ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        
+        final Tournament tournament = new Tournament(strength1, strength2, thinking * 1000000L, threads, seed);
+        final MatchScore score = new MatchScore(ELO0, ELO1, ALPHA, BETA);
+        
+        System.out.println(
+            "player 1 " + strength1 + " vs. player 2 " + strength2 + ", " + thinking + "ms per move, seed " + seed +
+            ", threads " + threads + ", sprt elo0 " + ELO0 + " elo1 " + ELO1);
+        
+        final PrintStream pdn = (args.length > 6) ? new PrintStream(new FileOutputStream(args[6])) : null;
+        
+        try
+        {
+            final double seconds = tournament.play(count, score, pdn, System.out);
+            
+            System.out.println("result " + score + ", sprt " + score.getDecision());
+            System.out.println("time " + String.format("%.2f", seconds) + "s, games/sec " + String.format("%.2f", score.getGames() / seconds));
+        }
+        finally
+        {
+            if (pdn != null)
+                pdn.close();
+        }
+    }
+}
\ No newline at end of file
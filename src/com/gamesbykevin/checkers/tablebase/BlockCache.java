@@ -0,0 +1,221 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The decompressed tablebase blocks, kept outside of the heap.<br>
+ * The cache has a fixed budget of memory divided into slots of 1 block each.<br>
+ * The slots are split into stripes, and each block always goes to the same stripe (chosen by a hash of the block).
+ * Each stripe has its own lock, least recently used order and decompression buffers,
+ * so search threads probing different blocks don't wait on each other,
+ * and a block being decompressed only holds up the lookups in its own stripe.<br>
+ * Once every slot in a stripe is used the block used least recently in that stripe is replaced.<br>
+ * The cache is thread safe.
+ * @author GOD
+ */
+final class BlockCache
+{
+    //the most stripes the cache is split into
+    private static final int MAX_STRIPES = 64;
+    
+    //the stripes, the number of stripes is a power of 2
+    private final Stripe[] stripes;
+    
+    //the number of blocks that fit
+    private final int slots;
+    
+    /**
+     * Create the cache
+     * @param bytes The memory the cache can use (bytes)
+     * @throws Exception If the budget is not enough for 1 block, or is too large
+     */
+    BlockCache(final long bytes) throws Exception
+    {
+        if (bytes < TablebaseFile.BLOCK_SIZE || bytes > Integer.MAX_VALUE)
+            throw new Exception("The cache needs from " + TablebaseFile.BLOCK_SIZE + " to " + Integer.MAX_VALUE + " bytes. bytes=" + bytes);
+        
+        this.slots = (int)(bytes / TablebaseFile.BLOCK_SIZE);
+        
+        //every stripe needs at least 1 slot
+        final int count = Math.min(MAX_STRIPES, Integer.highestOneBit(slots));
+        
+        final ByteBuffer memory = ByteBuffer.allocateDirect(slots * TablebaseFile.BLOCK_SIZE);
+        
+        this.stripes = new Stripe[count];
+        
+        int first = 0;
+        
+        for (int index = 0; index < count; index++)
+        {
+            //spread the slots left over across the first stripes
+            final int size = (slots / count) + ((index < slots % count) ? 1 : 0);
+            
+            stripes[index] = new Stripe(memory, first, size);
+            
+            first += size;
+        }
+    }
+    
+    /**
+     * Get the value of the position, decompressing its block if it isn't in the cache
+     * @param file The slice
+     * @param index The index of the position in the slice
+     * @return The value
+     */
+    int get(final TablebaseFile file, final long index)
+    {
+        final int block = (int)(index / TablebaseFile.BLOCK_SIZE);
+        final long key = ((long)file.getSlice() << Integer.SIZE) | block;
+        
+        return getStripe(key).get(file, key, block, (int)(index % TablebaseFile.BLOCK_SIZE));
+    }
+    
+    /**
+     * Get the stripe the block belongs to
+     * @param key The slice and block
+     * @return The stripe
+     */
+    private Stripe getStripe(final long key)
+    {
+        //mix the bits so neighbouring blocks land in different stripes
+        final int hash = (int)(key ^ (key >>> Integer.SIZE)) * 0x9E3779B9;
+        
+        return stripes[(hash >>> 16) & (stripes.length - 1)];
+    }
+    
+    /**
+     * @return The memory the cache uses (bytes)
+     */
+    long getBytes()
+    {
+        return (long)slots * TablebaseFile.BLOCK_SIZE;
+    }
+    
+    long getHits()
+    {
+        long hits = 0;
+        
+        for (int index = 0; index < stripes.length; index++)
+        {
+            hits += stripes[index].getHits();
+        }
+        
+        return hits;
+    }
+    
+    long getMisses()
+    {
+        long misses = 0;
+        
+        for (int index = 0; index < stripes.length; index++)
+        {
+            misses += stripes[index].getMisses();
+        }
+        
+        return misses;
+    }
+    
+    /**
+     * Empty the cache and reset the counters
+     */
+    void clear()
+    {
+        for (int index = 0; index < stripes.length; index++)
+        {
+            stripes[index].clear();
+        }
+    }
+    
+    /**
+     * A part of the cache with its own slots and its own lock
+     */
+    private static final class Stripe
+    {
+        //the decompressed blocks, a view of the shared memory so the position is never shared
+        private final ByteBuffer memory;
+        
+        //the first slot of this stripe, and the number of slots
+        private final int first, slots;
+        
+        //a block is decompressed here before it is copied to the cache
+        private final byte[] compressed = new byte[TablebaseFile.MAX_COMPRESSED];
+        private final byte[] block = new byte[TablebaseFile.BLOCK_SIZE];
+        
+        //the slot of each block in the stripe, ordered from least to most recently used
+        private final LinkedHashMap<Long, Integer> blocks;
+        
+        //the number of lookups that found the block in the cache, and the number that had to decompress it
+        private long hits = 0, misses = 0;
+        
+        private Stripe(final ByteBuffer memory, final int first, final int slots)
+        {
+            this.memory = memory.duplicate();
+            this.first = first;
+            this.slots = slots;
+            this.blocks = new LinkedHashMap<>(slots * 2, 0.75f, true);
+        }
+        
+        /**
+         * Get the value from the block, decompressing the block if it isn't in the stripe
+         * @param file The slice
+         * @param key The slice and block
+         * @param block The block within the slice
+         * @param offset The index of the value within the block
+         * @return The value
+         */
+        private synchronized int get(final TablebaseFile file, final long key, final int block, final int offset)
+        {
+            Integer slot = blocks.get(key);
+            
+            if (slot != null)
+            {
+                hits++;
+            }
+            else
+            {
+                misses++;
+                
+                if (blocks.size() < slots)
+                {
+                    //use the next empty slot
+                    slot = first + blocks.size();
+                }
+                else
+                {
+                    //replace the block used least recently
+                    final Iterator<Map.Entry<Long, Integer>> iterator = blocks.entrySet().iterator();
+                    slot = iterator.next().getValue();
+                    iterator.remove();
+                }
+                
+                file.decompress(block, compressed, this.block);
+                
+                memory.position(slot * TablebaseFile.BLOCK_SIZE);
+                memory.put(this.block);
+                blocks.put(key, slot);
+            }
+            
+            return memory.get(slot * TablebaseFile.BLOCK_SIZE + offset) & 0xFF;
+        }
+        
+        private synchronized long getHits()
+        {
+            return this.hits;
+        }
+        
+        private synchronized long getMisses()
+        {
+            return this.misses;
+        }
+        
+        private synchronized void clear()
+        {
+            blocks.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+}
\ No newline at end of file
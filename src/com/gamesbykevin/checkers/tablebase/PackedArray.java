@@ -0,0 +1,107 @@
+package com.gamesbykevin.checkers.tablebase;
+
+/**
+ * An array of small unsigned values, each using only as many bits as the largest value needs
+ * @author GOD
+ */
+final class PackedArray
+{
+    //the bits used by each value
+    private final int bits;
+    
+    //the mask of a single value
+    private final long mask;
+    
+    //the number of values
+    private final long size;
+    
+    //the packed values
+    private final long[] words;
+    
+    /**
+     * Create an array of zeros
+     * @param size The number of values
+     * @param bits The bits used by each value (1 - 32)
+     */
+    PackedArray(final long size, final int bits)
+    {
+        this(size, bits, new long[getWords(size, bits)]);
+    }
+    
+    /**
+     * Create the array from packed values
+     * @param size The number of values
+     * @param bits The bits used by each value (1 - 32)
+     * @param words The packed values
+     */
+    PackedArray(final long size, final int bits, final long[] words)
+    {
+        this.size = size;
+        this.bits = bits;
+        this.mask = (1L << bits) - 1;
+        this.words = words;
+    }
+    
+    /**
+     * Get the number of longs needed to pack the values
+     * @param size The number of values
+     * @param bits The bits used by each value
+     * @return The number of longs
+     */
+    static int getWords(final long size, final int bits)
+    {
+        return (int)((size * bits + Long.SIZE - 1) / Long.SIZE);
+    }
+    
+    /**
+     * Get the bits needed to store every value up to the maximum
+     * @param max The largest value
+     * @return The number of bits, at least 1
+     */
+    static int getBits(final int max)
+    {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(max));
+    }
+    
+    int getBits()
+    {
+        return this.bits;
+    }
+    
+    long getSize()
+    {
+        return this.size;
+    }
+    
+    int get(final long index)
+    {
+        final long bit = index * bits;
+        final int word = (int)(bit >>> 6);
+        final int shift = (int)(bit & 63);
+        
+        long value = words[word] >>> shift;
+        
+        //the value continues in the next long
+        if (shift + bits > Long.SIZE)
+            value |= words[word + 1] << (Long.SIZE - shift);
+        
+        return (int)(value & mask);
+    }
+    
+    void set(final long index, final int value)
+    {
+        final long bit = index * bits;
+        final int word = (int)(bit >>> 6);
+        final int shift = (int)(bit & 63);
+        
+        words[word] = (words[word] & ~(mask << shift)) | ((value & mask) << shift);
+        
+        //the value continues in the next long
+        if (shift + bits > Long.SIZE)
+        {
+            final int used = Long.SIZE - shift;
+            
+            words[word + 1] = (words[word + 1] & ~(mask >>> used)) | ((value & mask) >>> used);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,339 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import com.gamesbykevin.checkers.position.Position;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The endgame tablebase, the perfect result of every position with only a few pieces left.<br>
+ * Each position has a value: 0 is a draw, otherwise the value is the distance (number of moves by both players)
+ * until the game is over plus 1. The player to move wins if the distance is odd and loses if it is even.<br>
+ * Each slice of material is stored in its own file of compressed blocks (see TablebaseFile), and the files are memory mapped,
+ * so only the parts of the tablebase that are used are read from disk and the heap does not grow with the size of the tablebase.<br>
+ * The blocks are decompressed on demand into a cache outside of the heap with a fixed budget, replacing the block used least recently.<br>
+ * The probe is thread safe.
+ * @author GOD
+ */
+public final class Tablebase
+{
+    /**
+     * The position is not in the tablebase
+     */
+    public static final int NOT_FOUND = -1;
+    
+    /**
+     * Neither player can force a win
+     */
+    public static final int DRAW = 0;
+    
+    /**
+     * Identifies a tablebase file
+     */
+    public static final int MAGIC = 0x434B5442;
+    
+    /**
+     * The version of the file format
+     */
+    public static final int VERSION = 3;
+    
+    /**
+     * The system property with the directory of the tablebase the cpu uses
+     */
+    public static final String PROPERTY_DIRECTORY = "checkers.tablebase";
+    
+    /**
+     * The default directory of the tablebase the cpu uses
+     */
+    public static final String DEFAULT_DIRECTORY = "tablebase";
+    
+    /**
+     * The system property with the size of the block cache of the tablebase the cpu uses (megabytes)
+     */
+    public static final String PROPERTY_CACHE = "checkers.tablebase.cache";
+    
+    /**
+     * The default size of the block cache (megabytes)
+     */
+    public static final int DEFAULT_CACHE = 16;
+    
+    //the tablebase the cpu uses, loaded the first time it is needed
+    private static Tablebase defaultTablebase;
+    
+    //have we tried to load the default tablebase
+    private static boolean defaultLoaded = false;
+    
+    //the file of each slice, null if the slice is not loaded
+    private final TablebaseFile[] slices = new TablebaseFile[1 << 16];
+    
+    //every position with this many pieces or fewer is in the tablebase
+    private final int pieces;
+    
+    //the decompressed blocks
+    private final BlockCache cache;
+    
+    //the total size of the files (bytes)
+    private long bytes = 0;
+    
+    private Tablebase(final File directory, final long cacheBytes) throws Exception
+    {
+        this.cache = new BlockCache(cacheBytes);
+        
+        int pieces = 1;
+        
+        //load each piece count while every slice is there
+        while (pieces < Position.SQUARES)
+        {
+            final List<Integer> list = getSlices(pieces + 1);
+            
+            boolean complete = true;
+            
+            for (int slice : list)
+            {
+                complete &= getFile(directory, slice).isFile();
+            }
+            
+            if (!complete)
+                break;
+            
+            for (int slice : list)
+            {
+                slices[slice] = TablebaseFile.open(getFile(directory, slice), slice);
+                bytes += slices[slice].getBytes();
+            }
+            
+            pieces++;
+        }
+        
+        if (pieces < 2)
+            throw new Exception("The tablebase was not found. directory=" + directory.getAbsolutePath());
+        
+        this.pieces = pieces;
+    }
+    
+    /**
+     * Load every complete piece count from the directory, using the default cache size
+     * @param directory The directory with the tablebase files
+     * @return The tablebase
+     * @throws Exception If no tablebase was found or a file can't be read
+     */
+    public static Tablebase load(final File directory) throws Exception
+    {
+        return load(directory, DEFAULT_CACHE * 1024L * 1024L);
+    }
+    
+    /**
+     * Load every complete piece count from the directory
+     * @param directory The directory with the tablebase files
+     * @param cacheBytes The memory used to cache the decompressed blocks (bytes)
+     * @return The tablebase
+     * @throws Exception If no tablebase was found, a file can't be read, or the cache size is not valid
+     */
+    public static Tablebase load(final File directory, final long cacheBytes) throws Exception
+    {
+        return new Tablebase(directory, cacheBytes);
+    }
+    
+    /**
+     * Get the tablebase the cpu uses.<br>
+     * The directory is the system property PROPERTY_DIRECTORY, or DEFAULT_DIRECTORY in the working directory.<br>
+     * The cache size is the system property PROPERTY_CACHE (megabytes), or DEFAULT_CACHE.
+     * @return The tablebase, null if there is no tablebase
+     */
+    public static synchronized Tablebase getDefault()
+    {
+        if (!defaultLoaded)
+        {
+            defaultLoaded = true;
+            
+            final File directory = new File(System.getProperty(PROPERTY_DIRECTORY, DEFAULT_DIRECTORY));
+            
+            try
+            {
+                if (directory.isDirectory())
+                    defaultTablebase = load(directory, Integer.getInteger(PROPERTY_CACHE, DEFAULT_CACHE) * 1024L * 1024L);
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+        
+        return defaultTablebase;
+    }
+    
+    /**
+     * @return Every position with this many pieces or fewer is in the tablebase
+     */
+    public int getPieces()
+    {
+        return this.pieces;
+    }
+    
+    /**
+     * @return The total size of the tablebase files (bytes)
+     */
+    public long getBytes()
+    {
+        return this.bytes;
+    }
+    
+    /**
+     * @return The memory used to cache the decompressed blocks (bytes)
+     */
+    public long getCacheBytes()
+    {
+        return cache.getBytes();
+    }
+    
+    /**
+     * @return The number of probes that found the block in the cache
+     */
+    public long getHits()
+    {
+        return cache.getHits();
+    }
+    
+    /**
+     * @return The number of probes that had to decompress the block
+     */
+    public long getMisses()
+    {
+        return cache.getMisses();
+    }
+    
+    /**
+     * Empty the block cache and reset the hit and miss counters
+     */
+    public void clearCache()
+    {
+        cache.clear();
+    }
+    
+    /**
+     * Get the value of the position for the player to move
+     * @param position The position
+     * @return The value, or NOT_FOUND if the position has too many pieces
+     */
+    public int probe(final Position position)
+    {
+        if (Integer.bitCount(position.getPieces(true) | position.getPieces(false)) > pieces)
+            return NOT_FOUND;
+        
+        //the tablebase only has the player attacking north to move, so turn the board around for the other player
+        if (position.isNorthTurn())
+            return probe(position.getPieces(true), position.getPieces(false), position.getKings());
+        
+        return probe(
+            TablebaseIndex.flip(position.getPieces(false)),
+            TablebaseIndex.flip(position.getPieces(true)),
+            TablebaseIndex.flip(position.getKings()));
+    }
+    
+    /**
+     * Get the value of the position, the player attacking north has the turn
+     */
+    private int probe(final int north, final int south, final int kings)
+    {
+        //the player without any pieces has lost
+        if (north == 0)
+            return getValue(0);
+        
+        //the game was already over
+        if (south == 0)
+            return NOT_FOUND;
+        
+        final TablebaseFile file = slices[TablebaseIndex.getSlice(north, south, kings)];
+        
+        if (file == null)
+            return NOT_FOUND;
+        
+        return cache.get(file, TablebaseIndex.getIndex(north, south, kings));
+    }
+    
+    /**
+     * Does the player to move win
+     * @param value The value from the tablebase
+     * @return true if the player to move can force a win
+     */
+    public static boolean isWin(final int value)
+    {
+        return (value > 0 && getDistance(value) % 2 == 1);
+    }
+    
+    /**
+     * Does the player to move lose
+     * @param value The value from the tablebase
+     * @return true if the opponent can force a win
+     */
+    public static boolean isLoss(final int value)
+    {
+        return (value > 0 && getDistance(value) % 2 == 0);
+    }
+    
+    /**
+     * Get the number of moves (by both players) until the game is over
+     * @param value The value from the tablebase, a win or a loss
+     * @return The distance to the end of the game
+     */
+    public static int getDistance(final int value)
+    {
+        return value - 1;
+    }
+    
+    /**
+     * Get the value of a win or loss
+     * @param distance The number of moves (by both players) until the game is over, odd for a win and even for a loss
+     * @return The value
+     */
+    static int getValue(final int distance)
+    {
+        return distance + 1;
+    }
+    
+    /**
+     * Get every slice with the number of pieces, each player has at least 1 piece
+     * @param pieces The total number of pieces
+     * @return The slices, ordered by the number of regular pieces
+     */
+    static List<Integer> getSlices(final int pieces)
+    {
+        final List<Integer> list = new ArrayList<>();
+        
+        //fewer regular pieces first, since crowning a piece moves the position to a slice with fewer regular pieces
+        for (int men = 0; men <= pieces; men++)
+        {
+            for (int north = 1; north < pieces; north++)
+            {
+                final int south = pieces - north;
+                
+                for (int northMen = 0; northMen <= Math.min(north, men); northMen++)
+                {
+                    final int southMen = men - northMen;
+                    
+                    if (southMen > south || northMen > TablebaseIndex.MAX_COUNT || southMen > TablebaseIndex.MAX_COUNT ||
+                        north - northMen > TablebaseIndex.MAX_COUNT || south - southMen > TablebaseIndex.MAX_COUNT)
+                        continue;
+                    
+                    list.add(TablebaseIndex.getSlice(northMen, north - northMen, southMen, south - southMen));
+                }
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * Get the file of the slice
+     * @param directory The directory with the tablebase files
+     * @param slice The slice
+     * @return The file
+     */
+    static File getFile(final File directory, final int slice)
+    {
+        return new File(directory,
+            "tb_" + TablebaseIndex.getMen(slice) + "_" + TablebaseIndex.getKings(slice) + "_" +
+            TablebaseIndex.getOpponentMen(slice) + "_" + TablebaseIndex.getOpponentKings(slice) + ".bin");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * The values of 1 tablebase slice, stored as compressed blocks in a memory mapped file.<br>
+ * Mapping the file does not read it, the pages of a block are only read from disk the first time the block is needed.<br>
+ * The file is: magic, version, slice (4 byte ints), number of positions (8 byte long), positions per block, number of blocks,
+ * bits per value (4 byte ints), the offset of each block and the end of the last block (8 byte longs), then the blocks.<br>
+ * The values only use the bits the largest value in the slice needs (2 bits for most slices), the same as PackedArray.
+ * Each block starts with 1 byte saying how it is stored, whichever is smaller:
+ * <ul>
+ * <li>packed: every value one after the other using the bits per value, starting at the lowest bit of each byte</li>
+ * <li>runs: each run is the value in the low bits with the number of repeats less 1 above it,
+ * written 7 bits per byte with the high bit set if more bytes follow</li>
+ * </ul>
+ * So a block is never larger than the packed values, and a run of up to 32 values of 2 bits takes a single byte.
+ * @author GOD
+ */
+final class TablebaseFile
+{
+    /**
+     * The number of positions in each block, each value is 1 byte once the block is decompressed
+     */
+    static final int BLOCK_SIZE = 1024;
+    
+    /**
+     * The largest size of a compressed block (bytes), the packed values with up to 8 bits each after the byte saying how the block is stored
+     */
+    static final int MAX_COMPRESSED = 1 + BLOCK_SIZE;
+    
+    //the size of the file header (bytes)
+    private static final int HEADER_SIZE = 32;
+    
+    //how a block is stored
+    private static final int BLOCK_PACKED = 0;
+    private static final int BLOCK_RUNS = 1;
+    
+    //the bits of each byte of a run length
+    private static final int RUN_BITS = 7;
+    private static final int RUN_MASK = (1 << RUN_BITS) - 1;
+    private static final int RUN_MORE = 1 << RUN_BITS;
+    
+    //the slice in the file
+    private final int slice;
+    
+    //the mapped file
+    private final ByteBuffer buffer;
+    
+    //the number of positions
+    private final long size;
+    
+    //the number of blocks
+    private final int blocks;
+    
+    //the bits used by each value
+    private final int bits;
+    
+    //where the blocks start
+    private final long data;
+    
+    private TablebaseFile(final int slice, final ByteBuffer buffer, final File file) throws Exception
+    {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != Tablebase.MAGIC || buffer.getInt(4) != Tablebase.VERSION || buffer.getInt(8) != slice)
+            throw new Exception("The file is not the tablebase slice expected. file=" + file);
+        if (buffer.getInt(20) != BLOCK_SIZE || buffer.getInt(28) < 1 || buffer.getInt(28) > Byte.SIZE)
+            throw new Exception("The tablebase block size or bits per value is not supported. file=" + file);
+        
+        this.slice = slice;
+        this.buffer = buffer;
+        this.size = buffer.getLong(12);
+        this.blocks = buffer.getInt(24);
+        this.bits = buffer.getInt(28);
+        this.data = HEADER_SIZE + (blocks + 1L) * Long.SIZE / Byte.SIZE;
+        
+        if (blocks != getBlocks(size) || buffer.capacity() != data + getOffset(blocks))
+            throw new Exception("The tablebase file is not complete. file=" + file);
+    }
+    
+    /**
+     * Map the file of the slice
+     * @param file The file
+     * @param slice The slice we expect the file to have
+     * @return The mapped file
+     * @throws Exception If the file can't be read or is not the slice
+     */
+    static TablebaseFile open(final File file, final int slice) throws Exception
+    {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r"))
+        {
+            final FileChannel channel = input.getChannel();
+            
+            //the mapping stays valid after the file is closed
+            return new TablebaseFile(slice, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        }
+    }
+    
+    /**
+     * Write the values of the slice as compressed blocks
+     * @param file The file
+     * @param slice The slice
+     * @param values The values, with up to 8 bits each
+     * @throws Exception If the file can't be written
+     */
+    static void write(final File file, final int slice, final PackedArray values) throws Exception
+    {
+        if (values.getBits() > Byte.SIZE)
+            throw new Exception("The tablebase values can't use more than " + Byte.SIZE + " bits. bits=" + values.getBits());
+        
+        final int blocks = getBlocks(values.getSize());
+        final long[] offsets = new long[blocks + 1];
+        
+        //compress each block
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        final byte[] packed = new byte[MAX_COMPRESSED];
+        
+        for (int block = 0; block < blocks; block++)
+        {
+            offsets[block] = compressed.size();
+            
+            final long start = (long)block * BLOCK_SIZE;
+            final long end = Math.min(start + BLOCK_SIZE, values.getSize());
+            
+            runs.reset();
+            Arrays.fill(packed, (byte)0);
+            
+            for (long index = start; index < end; )
+            {
+                final int value = values.get(index);
+                
+                //count how many times the value repeats
+                int run = 1;
+                
+                while (index + run < end && values.get(index + run) == value)
+                {
+                    run++;
+                }
+                
+                for (int remaining = ((run - 1) << values.getBits()) | value; ; remaining >>>= RUN_BITS)
+                {
+                    if (remaining <= RUN_MASK)
+                    {
+                        runs.write(remaining);
+                        break;
+                    }
+                    
+                    runs.write((remaining & RUN_MASK) | RUN_MORE);
+                }
+                
+                index += run;
+            }
+            
+            for (long index = start; index < end; index++)
+            {
+                final int bit = (int)(index - start) * values.getBits();
+                final int word = values.get(index) << (bit % Byte.SIZE);
+                
+                //a value can cross into the next byte
+                packed[bit / Byte.SIZE] |= (byte)word;
+                packed[bit / Byte.SIZE + 1] |= (byte)(word >>> Byte.SIZE);
+            }
+            
+            final int packedSize = getPackedSize((int)(end - start), values.getBits());
+            
+            //keep whichever is smaller
+            if (runs.size() < packedSize)
+            {
+                compressed.write(BLOCK_RUNS);
+                runs.writeTo(compressed);
+            }
+            else
+            {
+                compressed.write(BLOCK_PACKED);
+                compressed.write(packed, 0, packedSize);
+            }
+        }
+        
+        offsets[blocks] = compressed.size();
+        
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            output.writeInt(Tablebase.MAGIC);
+            output.writeInt(Tablebase.VERSION);
+            output.writeInt(slice);
+            output.writeLong(values.getSize());
+            output.writeInt(BLOCK_SIZE);
+            output.writeInt(blocks);
+            output.writeInt(values.getBits());
+            
+            for (long offset : offsets)
+            {
+                output.writeLong(offset);
+            }
+            
+            compressed.writeTo(output);
+        }
+    }
+    
+    /**
+     * Get the number of bytes of packed values
+     * @param count The number of values
+     * @param bits The bits used by each value
+     */
+    private static int getPackedSize(final int count, final int bits)
+    {
+        return (count * bits + Byte.SIZE - 1) / Byte.SIZE;
+    }
+    
+    /**
+     * Get the number of blocks needed for the positions
+     */
+    private static int getBlocks(final long size)
+    {
+        return (int)((size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+    
+    /**
+     * Get where the block starts, after the block offsets
+     */
+    private long getOffset(final int block)
+    {
+        return buffer.getLong(HEADER_SIZE + block * Long.SIZE / Byte.SIZE);
+    }
+    
+    int getSlice()
+    {
+        return this.slice;
+    }
+    
+    long getSize()
+    {
+        return this.size;
+    }
+    
+    /**
+     * @return The size of the file (bytes)
+     */
+    long getBytes()
+    {
+        return this.buffer.capacity();
+    }
+    
+    /**
+     * Decompress the block
+     * @param block The block
+     * @param compressed Where the compressed block is copied, this needs room for MAX_COMPRESSED bytes
+     * @param target Where the values are written, 1 byte each, this needs room for BLOCK_SIZE values
+     */
+    void decompress(final int block, final byte[] compressed, final byte[] target)
+    {
+        final int start = (int)(data + getOffset(block));
+        final int end = (int)(data + getOffset(block + 1));
+        
+        //copy the whole block at once, a view is used so the position of the shared buffer is never changed
+        final ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(compressed, 0, end - start);
+        
+        final int mask = (1 << bits) - 1;
+        
+        if (compressed[0] == BLOCK_PACKED)
+        {
+            //the last block can be shorter
+            final int count = (int)Math.min(BLOCK_SIZE, size - (long)block * BLOCK_SIZE);
+            
+            for (int index = 0; index < count; index++)
+            {
+                final int bit = index * bits;
+                
+                //a value can cross into the next byte, the byte after the last value is never read
+                int word = compressed[1 + bit / Byte.SIZE] & 0xFF;
+                
+                if ((bit % Byte.SIZE) + bits > Byte.SIZE)
+                    word |= (compressed[2 + bit / Byte.SIZE] & 0xFF) << Byte.SIZE;
+                
+                target[index] = (byte)((word >>> (bit % Byte.SIZE)) & mask);
+            }
+            
+            return;
+        }
+        
+        int position = 1;
+        int index = 0;
+        
+        while (position < end - start)
+        {
+            //read the value and run length
+            int token = 0;
+            
+            for (int shift = 0; ; shift += RUN_BITS)
+            {
+                final int part = compressed[position++];
+                
+                token |= (part & RUN_MASK) << shift;
+                
+                if ((part & RUN_MORE) == 0)
+                    break;
+            }
+            
+            final int run = (token >>> bits) + 1;
+            
+            Arrays.fill(target, index, index + run, (byte)(token & mask));
+            index += run;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,350 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Create the endgame tablebase by retrograde analysis.<br>
+ * The slices are solved from the fewest pieces up, so every capture or crowning leads to a slice that is already solved.
+ * A slice is solved together with its mirror (the same material with the players switched), since the moves of each lead to the other.<br>
+ * The positions where the player to move can't move are lost. Then 1 distance at a time, working back from the end of the game:
+ * a position is won at distance d if a move leads to a position lost at distance d - 1,
+ * and lost at distance d if every move leads to a position won at distance d - 1 or less.
+ * Once no more positions can be solved, the rest are draws.<br>
+ * Usage: TablebaseGenerator [pieces] [directory]
+ * @author GOD
+ */
+public final class TablebaseGenerator
+{
+    /**
+     * The default number of pieces
+     */
+    public static final int DEFAULT_PIECES = 4;
+    
+    //the largest distance that fits in the value of a position while solving
+    private static final int MAX_DISTANCE = 254;
+    
+    //where the tablebase is written
+    private final File directory;
+    
+    //the slices already solved
+    private final Map<Integer, PackedArray> solved = new HashMap<>();
+    
+    //the largest distance of the slices solved
+    private int maxDistance = 0;
+    
+    //the slices being solved and their values, the value is the distance plus 1 and 0 if not solved yet
+    private int[] current;
+    private byte[][] values;
+    
+    //our position used to make the moves
+    private final Position position = new Position();
+    
+    //the legal moves
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    
+    //the pieces of the position being solved
+    private final int[] pieces = new int[3];
+    
+    /**
+     * Create the generator
+     * @param directory Where the tablebase is written
+     * @throws Exception If the directory can't be created
+     */
+    public TablebaseGenerator(final File directory) throws Exception
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new Exception("The directory can't be created. directory=" + directory.getAbsolutePath());
+        
+        this.directory = directory;
+    }
+    
+    /**
+     * Solve every position with up to the number of pieces
+     * @param maxPieces The most pieces
+     * @param log Where to report the progress, null if not needed
+     * @throws Exception If a slice is too large or a file can't be written
+     */
+    public void generate(final int maxPieces, final PrintStream log) throws Exception
+    {
+        for (int count = 2; count <= maxPieces; count++)
+        {
+            for (int slice : Tablebase.getSlices(count))
+            {
+                //the slice was solved with its mirror
+                if (solved.containsKey(slice))
+                    continue;
+                
+                final long time = System.nanoTime();
+                
+                solve(slice);
+                
+                if (log != null)
+                {
+                    for (int i = 0; i < current.length; i++)
+                    {
+                        log.println(describe(current[i]) + ((System.nanoTime() - time) / 1000000L) + "ms");
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Solve the slice and its mirror, then write them
+     */
+    private void solve(final int slice) throws Exception
+    {
+        final int mirror = TablebaseIndex.getMirror(slice);
+        
+        current = (mirror == slice) ? new int[]{slice} : new int[]{slice, mirror};
+        values = new byte[current.length][];
+        
+        //the positions that are solved, or not valid
+        final BitSet[] done = new BitSet[current.length];
+        
+        for (int i = 0; i < current.length; i++)
+        {
+            final long size = TablebaseIndex.getSize(current[i]);
+            
+            if (size > Integer.MAX_VALUE - 8)
+                throw new Exception("The slice is too large. size=" + size);
+            
+            values[i] = new byte[(int)size];
+            done[i] = new BitSet((int)size);
+            
+            //the positions where we can't move are lost
+            for (int index = 0; index < size; index++)
+            {
+                if (!setPosition(current[i], index))
+                {
+                    done[i].set(index);
+                }
+                else if (MoveGenerator.generate(position, true, moves, 0) == 0)
+                {
+                    values[i][index] = (byte)Tablebase.getValue(0);
+                    done[i].set(index);
+                }
+            }
+        }
+        
+        for (int distance = 1; ; distance++)
+        {
+            if (distance > MAX_DISTANCE)
+                throw new Exception("The distance is too large to store. slice=" + describe(slice));
+            
+            int changed = 0;
+            
+            for (int i = 0; i < current.length; i++)
+            {
+                final int size = values[i].length;
+                
+                for (int index = done[i].nextClearBit(0); index < size; index = done[i].nextClearBit(index + 1))
+                {
+                    setPosition(current[i], index);
+                    
+                    final int value = solvePosition(distance);
+                    
+                    if (value != Tablebase.DRAW)
+                    {
+                        values[i][index] = (byte)value;
+                        done[i].set(index);
+                        changed++;
+                    }
+                }
+            }
+            
+            //nothing left can be solved once the slices solved before are too short to lead to a result
+            if (changed == 0 && distance > maxDistance + 1)
+                break;
+        }
+        
+        //pack the values and write them
+        for (int i = 0; i < current.length; i++)
+        {
+            int max = 0;
+            
+            for (byte value : values[i])
+            {
+                max = Math.max(max, value & 0xFF);
+            }
+            
+            final PackedArray packed = new PackedArray(values[i].length, PackedArray.getBits(max));
+            
+            for (int index = 0; index < values[i].length; index++)
+            {
+                packed.set(index, values[i][index] & 0xFF);
+            }
+            
+            TablebaseFile.write(Tablebase.getFile(directory, current[i]), current[i], packed);
+            
+            solved.put(current[i], packed);
+            
+            maxDistance = Math.max(maxDistance, Tablebase.getDistance(Math.max(max, 1)));
+        }
+    }
+    
+    /**
+     * Check if the position can be solved at the distance
+     * @param distance The distance being solved
+     * @return The value of the position, or DRAW if it can't be solved yet
+     */
+    private int solvePosition(final int distance)
+    {
+        final int count = MoveGenerator.generate(position, true, moves, 0);
+        
+        //the shortest win we found, and the longest loss
+        int win = Integer.MAX_VALUE;
+        int loss = -1;
+        
+        //does every move lead to a win for the opponent that is already solved
+        boolean lost = true;
+        
+        for (int i = 0; i < count; i++)
+        {
+            position.makeMove(moves[i]);
+            final int value = getValue();
+            position.unmakeMove();
+            
+            //the opponent can draw, or the result isn't solved yet
+            if (value == Tablebase.DRAW)
+            {
+                lost = false;
+                continue;
+            }
+            
+            final int reply = Tablebase.getDistance(value);
+            
+            if (reply >= distance)
+            {
+                //the result is solved at this distance, it can't be used until the next one
+                lost = false;
+            }
+            else if (Tablebase.isLoss(value))
+            {
+                //the opponent loses
+                win = Math.min(win, reply + 1);
+                lost = false;
+            }
+            else
+            {
+                loss = Math.max(loss, reply + 1);
+            }
+        }
+        
+        if (win != Integer.MAX_VALUE)
+            return Tablebase.getValue(win);
+        
+        if (lost)
+            return Tablebase.getValue(loss);
+        
+        return Tablebase.DRAW;
+    }
+    
+    /**
+     * Get the value of the position after a move, for the opponent who now has the turn
+     */
+    private int getValue()
+    {
+        //turn the board around so the opponent is attacking north
+        final int north = TablebaseIndex.flip(position.getPieces(false));
+        final int south = TablebaseIndex.flip(position.getPieces(true));
+        final int kings = TablebaseIndex.flip(position.getKings());
+        
+        //the player without any pieces has lost
+        if (north == 0)
+            return Tablebase.getValue(0);
+        
+        final int slice = TablebaseIndex.getSlice(north, south, kings);
+        final long index = TablebaseIndex.getIndex(north, south, kings);
+        
+        for (int i = 0; i < current.length; i++)
+        {
+            if (current[i] == slice)
+                return values[i][(int)index] & 0xFF;
+        }
+        
+        return solved.get(slice).get(index);
+    }
+    
+    /**
+     * Place the position at the index, the player attacking north has the turn
+     * @return false if the position is not valid
+     */
+    private boolean setPosition(final int slice, final long index)
+    {
+        if (!TablebaseIndex.getPosition(slice, index, pieces))
+            return false;
+        
+        position.set(pieces[0], pieces[1], pieces[2], true);
+        
+        return true;
+    }
+    
+    /**
+     * Describe the slice and its results
+     */
+    private String describe(final int slice)
+    {
+        final StringBuilder text = new StringBuilder();
+        
+        text.append("men ").append(TablebaseIndex.getMen(slice)).append(" kings ").append(TablebaseIndex.getKings(slice));
+        text.append(" vs. men ").append(TablebaseIndex.getOpponentMen(slice)).append(" kings ").append(TablebaseIndex.getOpponentKings(slice));
+        
+        final PackedArray packed = solved.get(slice);
+        
+        if (packed != null)
+        {
+            long wins = 0, losses = 0, draws = 0;
+            int longest = 0;
+            
+            for (long index = 0; index < packed.getSize(); index++)
+            {
+                //skip the positions that are not valid
+                if (!TablebaseIndex.getPosition(slice, index, pieces))
+                    continue;
+                
+                final int value = packed.get(index);
+                
+                if (Tablebase.isWin(value))
+                {
+                    wins++;
+                }
+                else if (Tablebase.isLoss(value))
+                {
+                    losses++;
+                }
+                else
+                {
+                    draws++;
+                }
+                
+                if (value != Tablebase.DRAW)
+                    longest = Math.max(longest, Tablebase.getDistance(value));
+            }
+            
+            text.append(", wins ").append(wins).append(" losses ").append(losses).append(" draws ").append(draws);
+            text.append(", longest ").append(longest).append(", ");
+        }
+        
+        return text.toString();
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int pieces = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PIECES;
+        final File directory = new File((args.length > 1) ? args[1] : Tablebase.DEFAULT_DIRECTORY);
+        
+        final long time = System.nanoTime();
+        
+        new TablebaseGenerator(directory).generate(pieces, System.out);
+        
+        System.out.println("tablebase " + pieces + " pieces, " + ((System.nanoTime() - time) / 1000000L) + "ms, " + directory.getAbsolutePath());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import com.gamesbykevin.checkers.position.Position;
+
+/**
+ * Converts an endgame position to its place in the tablebase and back.<br>
+ * The board looks the same to both players when it is turned around, so every position is stored
+ * from the point of view of the player attacking north having the turn:
+ * if the player attacking south has the turn the board is rotated 180 degrees and the colors are swapped.
+ * This halves the size of the tablebase.<br>
+ * The positions are grouped into slices by material: the regular pieces and kings of the player to move,
+ * then the regular pieces and kings of the opponent.<br>
+ * Within a slice the regular pieces of each player are ranked as combinations of the squares they can stand on,
+ * (a regular piece is never on the row where it is crowned), then the kings are ranked as combinations of the squares left over.
+ * @author GOD
+ */
+final class TablebaseIndex
+{
+    /**
+     * The most pieces of each type in a slice
+     */
+    static final int MAX_COUNT = 12;
+    
+    //the squares a regular piece can stand on
+    static final int MAN_SQUARES = Position.SQUARES - 4;
+    
+    //the first square a regular piece attacking north can stand on
+    private static final int NORTH_MAN_FIRST = 4;
+    
+    //the binomial coefficients
+    private static final long[][] CHOOSE = new long[Position.SQUARES + 1][MAX_COUNT + 1];
+    
+    static
+    {
+        for (int n = 0; n <= Position.SQUARES; n++)
+        {
+            CHOOSE[n][0] = 1;
+            
+            for (int k = 1; k <= MAX_COUNT && k <= n; k++)
+            {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + ((k <= n - 1) ? CHOOSE[n - 1][k] : 0);
+            }
+        }
+    }
+    
+    private TablebaseIndex()
+    {
+        //this class only contains static methods
+    }
+    
+    /**
+     * Get the slice of the material
+     * @param men Regular pieces of the player to move
+     * @param kings Kings of the player to move
+     * @param opponentMen Regular pieces of the opponent
+     * @param opponentKings Kings of the opponent
+     * @return The slice
+     */
+    static int getSlice(final int men, final int kings, final int opponentMen, final int opponentKings)
+    {
+        return men | (kings << 4) | (opponentMen << 8) | (opponentKings << 12);
+    }
+    
+    static int getMen(final int slice)
+    {
+        return slice & 0xF;
+    }
+    
+    static int getKings(final int slice)
+    {
+        return (slice >>> 4) & 0xF;
+    }
+    
+    static int getOpponentMen(final int slice)
+    {
+        return (slice >>> 8) & 0xF;
+    }
+    
+    static int getOpponentKings(final int slice)
+    {
+        return (slice >>> 12) & 0xF;
+    }
+    
+    /**
+     * @return The total number of pieces in the slice
+     */
+    static int getPieces(final int slice)
+    {
+        return getMen(slice) + getKings(slice) + getOpponentMen(slice) + getOpponentKings(slice);
+    }
+    
+    /**
+     * The slice with the players switched, the positions of 1 slice have their moves in the other
+     */
+    static int getMirror(final int slice)
+    {
+        return getSlice(getOpponentMen(slice), getOpponentKings(slice), getMen(slice), getKings(slice));
+    }
+    
+    /**
+     * Get the slice of the position, the player attacking north has the turn
+     */
+    static int getSlice(final int north, final int south, final int kings)
+    {
+        return getSlice(
+            Integer.bitCount(north & ~kings), Integer.bitCount(north & kings),
+            Integer.bitCount(south & ~kings), Integer.bitCount(south & kings));
+    }
+    
+    /**
+     * Get the number of positions in the slice
+     * @param slice The slice
+     * @return The number of positions, including the ones where regular pieces overlap
+     */
+    static long getSize(final int slice)
+    {
+        final int men = getMen(slice);
+        final int opponentMen = getOpponentMen(slice);
+        final int kings = getKings(slice);
+        
+        //the squares left for the kings
+        final int free = Position.SQUARES - men - opponentMen;
+        
+        if (free < kings + getOpponentKings(slice))
+            return 0;
+        
+        return CHOOSE[MAN_SQUARES][men] * CHOOSE[MAN_SQUARES][opponentMen] * CHOOSE[free][kings] * CHOOSE[free - kings][getOpponentKings(slice)];
+    }
+    
+    /**
+     * Turn the board around and swap the colors, so the player attacking south becomes the player attacking north.<br>
+     * Square s becomes square 31 - s.
+     * @param mask The squares
+     * @return The squares after turning the board around
+     */
+    static int flip(final int mask)
+    {
+        return Integer.reverse(mask);
+    }
+    
+    /**
+     * Get the index of the position in its slice, the player attacking north has the turn
+     * @param north The pieces of the player to move
+     * @param south The pieces of the opponent
+     * @param kings The kings of both players
+     * @return The index in the slice
+     */
+    static long getIndex(final int north, final int south, final int kings)
+    {
+        final int northMen = north & ~kings;
+        final int southMen = south & ~kings;
+        final int northKings = north & kings;
+        final int southKings = south & kings;
+        
+        //the regular pieces of each player only use the squares they can stand on
+        long index = rank(northMen >>> NORTH_MAN_FIRST, 0);
+        index = index * CHOOSE[MAN_SQUARES][Integer.bitCount(southMen)] + rank(southMen, 0);
+        
+        //the kings use the squares left over
+        final int men = northMen | southMen;
+        final int free = Position.SQUARES - Integer.bitCount(men);
+        
+        index = index * CHOOSE[free][Integer.bitCount(northKings)] + rank(northKings, men);
+        
+        return index * CHOOSE[free - Integer.bitCount(northKings)][Integer.bitCount(southKings)] + rank(southKings, men | northKings);
+    }
+    
+    /**
+     * Place the pieces of the position at the index, the player attacking north has the turn
+     * @param slice The slice
+     * @param index The index in the slice
+     * @param pieces Where the pieces are written: north, south, kings
+     * @return true if the position is valid, false if regular pieces of both players are on the same square
+     */
+    static boolean getPosition(final int slice, long index, final int[] pieces)
+    {
+        final int men = getMen(slice);
+        final int kings = getKings(slice);
+        final int opponentMen = getOpponentMen(slice);
+        final int opponentKings = getOpponentKings(slice);
+        
+        final int free = Position.SQUARES - men - opponentMen;
+        
+        final long southKingSize = CHOOSE[free - kings][opponentKings];
+        final long northKingSize = CHOOSE[free][kings];
+        final long southMenSize = CHOOSE[MAN_SQUARES][opponentMen];
+        
+        final long southKingRank = index % southKingSize;
+        index /= southKingSize;
+        final long northKingRank = index % northKingSize;
+        index /= northKingSize;
+        final long southMenRank = index % southMenSize;
+        index /= southMenSize;
+        
+        final int northMen = unrank(index, men) << NORTH_MAN_FIRST;
+        final int southMen = unrank(southMenRank, opponentMen);
+        
+        //regular pieces can't share a square
+        if ((northMen & southMen) != 0)
+            return false;
+        
+        final int northKings = expand(unrank(northKingRank, kings), northMen | southMen);
+        final int southKings = expand(unrank(southKingRank, opponentKings), northMen | southMen | northKings);
+        
+        pieces[0] = northMen | northKings;
+        pieces[1] = southMen | southKings;
+        pieces[2] = northKings | southKings;
+        
+        return true;
+    }
+    
+    /**
+     * Rank the squares as a combination, skipping the occupied squares
+     * @param mask The squares to rank
+     * @param occupied The squares that are skipped
+     * @return The rank of the combination
+     */
+    private static long rank(int mask, final int occupied)
+    {
+        long rank = 0;
+        
+        for (int i = 1; mask != 0; i++)
+        {
+            final int square = Integer.numberOfTrailingZeros(mask);
+            
+            //remove the square from the list
+            mask &= mask - 1;
+            
+            //the position of the square once the occupied squares are skipped
+            final int position = square - Integer.bitCount(occupied & ((1 << square) - 1));
+            
+            rank += CHOOSE[position][i];
+        }
+        
+        return rank;
+    }
+    
+    /**
+     * Get the combination of the rank
+     * @param rank The rank of the combination
+     * @param count The number of squares in the combination
+     * @return The squares
+     */
+    private static int unrank(long rank, final int count)
+    {
+        int mask = 0;
+        int position = Position.SQUARES - 1;
+        
+        for (int i = count; i > 0; i--)
+        {
+            //find the highest position that fits
+            while (CHOOSE[position][i] > rank)
+            {
+                position--;
+            }
+            
+            rank -= CHOOSE[position][i];
+            mask |= 1 << position;
+            position--;
+        }
+        
+        return mask;
+    }
+    
+    /**
+     * Place the squares of a combination that skipped the occupied squares back on the board
+     * @param mask The squares with the occupied squares skipped
+     * @param occupied The squares that were skipped
+     * @return The squares on the board
+     */
+    private static int expand(int mask, final int occupied)
+    {
+        int result = 0;
+        int square = 0;
+        int position = 0;
+        
+        while (mask != 0)
+        {
+            //skip the occupied squares
+            if ((occupied & (1 << square)) == 0)
+            {
+                if ((mask & (1 << position)) != 0)
+                {
+                    result |= 1 << square;
+                    mask &= ~(1 << position);
+                }
+                
+                position++;
+            }
+            
+            square++;
+        }
+        
+        return result;
+    }
+}
\ No newline at end of file
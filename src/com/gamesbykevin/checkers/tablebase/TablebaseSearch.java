@@ -0,0 +1,102 @@
+package com.gamesbykevin.checkers.tablebase;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Search;
+import com.gamesbykevin.checkers.search.SearchResult;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.TimeManager;
+
+/**
+ * Play the perfect move from the tablebase when the position is won or lost, otherwise search for the best move.<br>
+ * A won position takes the shortest win, a lost position holds out the longest.
+ * A drawn position is searched, the search scores the positions in the tablebase so it won't make a losing move.
+ * @author GOD
+ */
+public final class TablebaseSearch implements Searcher
+{
+    //the search used when the position is not won or lost
+    private final Searcher search;
+    
+    //the endgame tablebase
+    private final Tablebase tablebase;
+    
+    //our copy of the position, used to check each move
+    private final Position position = new Position();
+    
+    //the legal moves
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    
+    /**
+     * Create the search
+     * @param search The search used when the position is not won or lost
+     * @param tablebase The endgame tablebase
+     */
+    public TablebaseSearch(final Searcher search, final Tablebase tablebase)
+    {
+        this.search = search;
+        this.tablebase = tablebase;
+    }
+    
+    @Override
+    public SearchResult search(final Position position, final TimeManager timeManager) throws Exception
+    {
+        final long start = System.nanoTime();
+        
+        final int value = tablebase.probe(position);
+        
+        //search if the position isn't in the tablebase or is a draw
+        if (value == Tablebase.NOT_FOUND || value == Tablebase.DRAW)
+            return search.search(position, timeManager);
+        
+        this.position.assign(position);
+        
+        final int count = MoveGenerator.generate(this.position, this.position.isNorthTurn(), moves, 0);
+        
+        long best = MoveGenerator.NO_MOVE;
+        int bestDistance = 0;
+        
+        for (int i = 0; i < count; i++)
+        {
+            this.position.makeMove(moves[i]);
+            final int reply = tablebase.probe(this.position);
+            this.position.unmakeMove();
+            
+            final int distance = Tablebase.getDistance(reply);
+            
+            if (Tablebase.isWin(value))
+            {
+                //the fastest move that leaves the opponent lost
+                if (Tablebase.isLoss(reply) && (best == MoveGenerator.NO_MOVE || distance < bestDistance))
+                {
+                    best = moves[i];
+                    bestDistance = distance;
+                }
+            }
+            else if (best == MoveGenerator.NO_MOVE || distance > bestDistance)
+            {
+                //every move loses, take the longest
+                best = moves[i];
+                bestDistance = distance;
+            }
+        }
+        
+        final int distance = Tablebase.getDistance(value);
+        final int score = (Tablebase.isWin(value)) ? Search.SCORE_WIN - distance : -Search.SCORE_WIN + distance;
+        
+        return new SearchResult(best, score, distance, (best == MoveGenerator.NO_MOVE) ? new long[0] : new long[]{best}, count, System.nanoTime() - start);
+    }
+    
+    @Override
+    public void stop()
+    {
+        search.stop();
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //the tablebase is shared, only the search is recycled
+        search.dispose();
+    }
+}
\ No newline at end of file
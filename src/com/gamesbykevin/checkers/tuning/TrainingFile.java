@@ -0,0 +1,145 @@
+package com.gamesbykevin.checkers.tuning;
+
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.simulation.GameRecord;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The positions used to tune the evaluation, each with the result of the game it was played in.<br>
+ * The file starts with a header (magic, version) followed by a fixed size record for each position:<br>
+ * the north pieces (int), the south pieces (int), the kings (int), then a byte with the turn (bit 0) and the result (bits 1-2).<br>
+ * The file is memory mapped so the positions are never held on the heap, and any thread can read any record.
+ * @author GOD
+ */
+public final class TrainingFile
+{
+    /**
+     * Identifies a training file
+     */
+    public static final int MAGIC = 0x434B5452;
+    
+    /**
+     * The version of the file format
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * The size of the header (bytes)
+     */
+    public static final int HEADER_SIZE = 8;
+    
+    /**
+     * The size of each position (bytes)
+     */
+    public static final int RECORD_SIZE = 13;
+    
+    //a single mapping can't be larger than 2GB, so large files are mapped in segments of this many records
+    private static final int SEGMENT_RECORDS = 1 << 24;
+    
+    //the bits of the flags
+    private static final int FLAG_NORTH_TURN = 1;
+    private static final int SHIFT_RESULT = 1;
+    private static final int MASK_RESULT = 0x3;
+    
+    //the mapped records
+    private final MappedByteBuffer[] segments;
+    
+    //the number of positions
+    private final long count;
+    
+    private TrainingFile(final MappedByteBuffer[] segments, final long count)
+    {
+        this.segments = segments;
+        this.count = count;
+    }
+    
+    /**
+     * Open the training file
+     * @param file The file
+     * @return The training file
+     * @throws Exception If the file can't be read or is not a training file
+     */
+    public static TrainingFile open(final File file) throws Exception
+    {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r"))
+        {
+            if (input.readInt() != MAGIC)
+                throw new Exception("This is not a training file: " + file.getAbsolutePath());
+            if (input.readInt() != VERSION)
+                throw new Exception("The training file version is not supported: " + file.getAbsolutePath());
+            
+            final long count = (input.length() - HEADER_SIZE) / RECORD_SIZE;
+            final FileChannel channel = input.getChannel();
+            
+            final MappedByteBuffer[] segments = new MappedByteBuffer[(int)((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+            
+            for (int i = 0; i < segments.length; i++)
+            {
+                final long first = (long)i * SEGMENT_RECORDS;
+                final long records = Math.min(SEGMENT_RECORDS, count - first);
+                
+                //the mapping stays valid after the channel is closed
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+            
+            return new TrainingFile(segments, count);
+        }
+    }
+    
+    /**
+     * @return The number of positions in the file
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Read a position, this can be called from any thread
+     * @param index The index of the position
+     * @param position The position is written here
+     * @return The result of the game the position was played in
+     */
+    public GameRecord.Result read(final long index, final Position position)
+    {
+        final MappedByteBuffer segment = segments[(int)(index / SEGMENT_RECORDS)];
+        final int offset = (int)(index % SEGMENT_RECORDS) * RECORD_SIZE;
+        
+        final int flags = segment.get(offset + 12);
+        
+        position.set(segment.getInt(offset), segment.getInt(offset + 4), segment.getInt(offset + 8), (flags & FLAG_NORTH_TURN) != 0);
+        
+        return GameRecord.Result.values()[(flags >>> SHIFT_RESULT) & MASK_RESULT];
+    }
+    
+    /**
+     * Write the header of a new training file
+     * @param output Where to write
+     * @throws Exception If the header can't be written
+     */
+    public static void writeHeader(final DataOutput output) throws Exception
+    {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+    
+    /**
+     * Write a position
+     * @param output Where to write
+     * @param position The position
+     * @param result The result of the game the position was played in
+     * @throws Exception If the position can't be written
+     */
+    public static void write(final DataOutput output, final Position position, final GameRecord.Result result) throws Exception
+    {
+        output.writeInt(position.getPieces(true));
+        output.writeInt(position.getPieces(false));
+        output.writeInt(position.getKings());
+        output.writeByte((position.isNorthTurn() ? FLAG_NORTH_TURN : 0) | (result.ordinal() << SHIFT_RESULT));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.gamesbykevin.checkers.tuning;
+
+import com.gamesbykevin.checkers.position.MoveGenerator;
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.Searcher;
+import com.gamesbykevin.checkers.search.Strength;
+import com.gamesbykevin.checkers.simulation.GameRecord;
+import com.gamesbykevin.checkers.simulation.HeadlessGame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Play headless cpu vs. cpu games on every core and write the quiet positions of each game,
+ * along with the result, to a training file for the Tuner.<br>
+ * A position is quiet when the player to move has no capture, since the evaluation is only used once the captures are over.<br>
+ * Usage: TrainingHarvester [games] [strength] [thinking time ms] [random plies] [seed] [threads] [file]
+ * @author GOD
+ */
+public final class TrainingHarvester
+{
+    /**
+     * The default training file
+     */
+    public static final String DEFAULT_FILE = "training.bin";
+    
+    //the default arguments
+    private static final int DEFAULT_GAMES = 1000;
+    private static final long DEFAULT_THINKING = 20L;
+    private static final int DEFAULT_RANDOM_PLIES = 8;
+    
+    //how often to report the progress (games)
+    private static final int REPORT_GAMES = 100;
+    
+    //the strength of both players
+    private final Strength strength;
+    
+    //the time each player can think about each move (nanoseconds)
+    private final long thinkingTime;
+    
+    //the number of random moves made at the start of each game, so every game is different
+    private final int randomPlies;
+    
+    //creates the random moves, the same seed plays the same openings
+    private final long seed;
+    
+    //the number of games played at the same time
+    private final int threads;
+    
+    //the game of each worker thread
+    private final ThreadLocal<HeadlessGame> games;
+    
+    //every search created, so they can be recycled once we are done
+    private final Queue<Searcher> searchers = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * Create the harvester
+     * @param strength The strength of both players
+     * @param thinkingTime The time each player can think about each move (nanoseconds)
+     * @param randomPlies The number of random moves made at the start of each game
+     * @param seed Creates the random moves
+     * @param threads The number of games to play at the same time
+     * @throws Exception If the number of threads is not valid
+     */
+    public TrainingHarvester(final Strength strength, final long thinkingTime, final int randomPlies, final long seed, final int threads) throws Exception
+    {
+        if (threads < 1)
+            throw new Exception("The harvester needs at least 1 thread. threads=" + threads);
+        
+        this.strength = strength;
+        this.thinkingTime = thinkingTime;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+        this.threads = threads;
+        
+        this.games = new ThreadLocal<HeadlessGame>()
+        {
+            @Override
+            protected HeadlessGame initialValue()
+            {
+                try
+                {
+                    final Random random = new Random(TrainingHarvester.this.seed ^ Thread.currentThread().getId());
+                    
+                    final Searcher north = TrainingHarvester.this.strength.create(random);
+                    final Searcher south = TrainingHarvester.this.strength.create(random);
+                    
+                    searchers.add(north);
+                    searchers.add(south);
+                    
+                    return new HeadlessGame(north, south, TrainingHarvester.this.thinkingTime);
+                }
+                catch (Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Create the start of a game
+     * @param game The number of the game
+     * @return The position after the random moves
+     */
+    private Position createOpening(final int game)
+    {
+        final Random random = new Random(seed + game);
+        final Position position = new Position();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        
+        position.setup();
+        
+        for (int ply = 0; ply < randomPlies; ply++)
+        {
+            final int count = MoveGenerator.generate(position, position.isNorthTurn(), moves, 0);
+            
+            if (count == 0)
+                break;
+            
+            position.play(moves[random.nextInt(count)]);
+        }
+        
+        return position;
+    }
+    
+    /**
+     * Play the games and write the positions
+     * @param count The number of games
+     * @param file The training file to create
+     * @return The number of positions written
+     * @throws Exception If a game fails or the file can't be written
+     */
+    public long harvest(final int count, final File file) throws Exception
+    {
+        final long time = System.nanoTime();
+        
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final CompletionService<GameRecord> service = new ExecutorCompletionService<>(pool);
+        
+        long positions = 0;
+        
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            TrainingFile.writeHeader(output);
+            
+            for (int i = 0; i < count; i++)
+            {
+                final int index = i;
+                
+                service.submit(new Callable<GameRecord>()
+                {
+                    @Override
+                    public GameRecord call() throws Exception
+                    {
+                        return games.get().play(createOpening(index));
+                    }
+                });
+            }
+            
+            //only this thread writes to the file
+            for (int i = 1; i <= count; i++)
+            {
+                positions += write(output, service.take().get());
+                
+                if (i % REPORT_GAMES == 0)
+                    System.out.println("games " + i + ", positions " + positions + ", " + ((System.nanoTime() - time) / 1000000L) + "ms");
+            }
+        }
+        finally
+        {
+            //let the games in progress finish before the searches are recycled
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            
+            for (Searcher searcher : searchers)
+            {
+                searcher.dispose();
+            }
+            
+            searchers.clear();
+        }
+        
+        return positions;
+    }
+    
+    /**
+     * Write the quiet positions of the game
+     * @param output Where to write
+     * @param record The game
+     * @return The number of positions written
+     * @throws Exception If the game can't be replayed or the positions can't be written
+     */
+    private static int write(final DataOutputStream output, final GameRecord record) throws Exception
+    {
+        final Position position = Position.parse(record.getStart());
+        final long[] moves = record.getMoves();
+        
+        int count = 0;
+        
+        for (int ply = 0; ply <= record.getPlies(); ply++)
+        {
+            if (position.getCaptureCount(position.isNorthTurn()) == 0)
+            {
+                TrainingFile.write(output, position, record.getResult());
+                count++;
+            }
+            
+            if (ply < record.getPlies())
+                position.play(moves[ply]);
+        }
+        
+        return count;
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final int count = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final Strength strength = (args.length > 1) ? Strength.valueOf(args[1]) : Strength.Hard;
+        final long thinking = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_THINKING;
+        final int randomPlies = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_RANDOM_PLIES;
+        final long seed = (args.length > 4) ? Long.parseLong(args[4]) : System.nanoTime();
+        final int threads = (args.length > 5) ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        final File file = new File((args.length > 6) ? args[6] : DEFAULT_FILE);
+        
+        System.out.println(count + " games " + strength + " vs. " + strength + ", " + thinking + "ms per move, seed " + seed + ", threads " + threads);
+        
+        final TrainingHarvester harvester = new TrainingHarvester(strength, thinking * 1000000L, randomPlies, seed, threads);
+        
+        final long positions = harvester.harvest(count, file);
+        
+        System.out.println("positions " + positions + ", " + (file.length() / 1024) + "kb, file " + file.getAbsolutePath());
+    }
+}
\ No newline at end of file
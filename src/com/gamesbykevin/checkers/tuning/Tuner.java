@@ -0,0 +1,371 @@
+package com.gamesbykevin.checkers.tuning;
+
+import com.gamesbykevin.checkers.position.Position;
+import com.gamesbykevin.checkers.search.EvaluationWeights;
+import com.gamesbykevin.checkers.search.WeightedEvaluation;
+import com.gamesbykevin.checkers.simulation.GameRecord;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Tune the evaluation weights to the results of self-play games (Texel method).<br>
+ * Each position is scored by the evaluation, the score is turned into an expected result with a sigmoid,
+ * and the weights are moved to reduce the mean squared difference between the expected and the actual results.<br>
+ * Every pass streams the memory mapped training file, split into chunks that are scored on all cores at the same time.
+ * The weight of a regular piece is kept fixed so the scores stay in the same units.<br>
+ * Usage: Tuner [training file] [iterations] [output file] [threads]
+ * @author GOD
+ */
+public final class Tuner
+{
+    /**
+     * The default file the tuned weights are written to
+     */
+    public static final String DEFAULT_OUTPUT = "evaluation.xml";
+    
+    //the default number of gradient steps
+    private static final int DEFAULT_ITERATIONS = 200;
+    
+    //the largest change of a weight each step
+    private static final double LEARNING_RATE = 1.0;
+    
+    //the decay of the average gradient and the average squared gradient (Adam)
+    private static final double BETA1 = 0.9, BETA2 = 0.999, EPSILON = 1e-8;
+    
+    //the range searched for the sigmoid scale, and the precision we stop at
+    private static final double SCALE_MIN = 0.0001, SCALE_MAX = 0.1, SCALE_PRECISION = 0.00001;
+    
+    //the number of chunks each thread gets, so a slow thread doesn't hold up the others
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    //the weight that is never tuned
+    private static final EvaluationWeights.Keys FIXED = EvaluationWeights.Keys.Regular;
+    
+    //the positions
+    private final TrainingFile file;
+    
+    //scores the chunks
+    private final ForkJoinPool pool;
+    
+    //the number of chunks the file is split into
+    private final int chunks;
+    
+    /**
+     * Create the tuner
+     * @param file The positions
+     * @param threads The number of threads to use
+     * @throws Exception If the number of threads is not valid
+     */
+    public Tuner(final TrainingFile file, final int threads) throws Exception
+    {
+        if (threads < 1)
+            throw new Exception("The tuner needs at least 1 thread. threads=" + threads);
+        
+        this.file = file;
+        this.pool = new ForkJoinPool(threads);
+        this.chunks = threads * CHUNKS_PER_THREAD;
+    }
+    
+    /**
+     * Stop the threads
+     */
+    public void dispose()
+    {
+        pool.shutdownNow();
+    }
+    
+    /**
+     * Get the mean squared error of the weights
+     * @param weights The weights
+     * @param scale The sigmoid scale
+     * @return The error
+     * @throws Exception If a chunk fails
+     */
+    public double getError(final double[] weights, final double scale) throws Exception
+    {
+        return score(weights, scale, false)[0];
+    }
+    
+    /**
+     * Score every position
+     * @param weights The weights
+     * @param scale The sigmoid scale
+     * @param gradient Do we also need the gradient
+     * @return The mean squared error, followed by the gradient of each weight if requested
+     * @throws Exception If a chunk fails
+     */
+    private double[] score(final double[] weights, final double scale, final boolean gradient) throws Exception
+    {
+        final long count = file.getCount();
+        final List<Future<double[]>> futures = new ArrayList<>();
+        
+        for (int i = 0; i < chunks; i++)
+        {
+            final long first = count * i / chunks;
+            final long last = count * (i + 1) / chunks;
+            
+            futures.add(pool.submit(new Callable<double[]>()
+            {
+                @Override
+                public double[] call() throws Exception
+                {
+                    return scoreChunk(weights, scale, gradient, first, last);
+                }
+            }));
+        }
+        
+        final double[] total = new double[weights.length + 1];
+        
+        for (Future<double[]> future : futures)
+        {
+            final double[] sums = future.get();
+            
+            for (int i = 0; i < total.length; i++)
+            {
+                total[i] += sums[i];
+            }
+        }
+        
+        for (int i = 0; i < total.length; i++)
+        {
+            total[i] /= Math.max(1, count);
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Score a range of positions
+     * @return The sum of the squared errors, followed by the sum of the gradient of each weight if requested
+     */
+    private double[] scoreChunk(final double[] weights, final double scale, final boolean gradient, final long first, final long last)
+    {
+        final Position position = new Position();
+        final int[] features = new int[weights.length];
+        final double[] sums = new double[weights.length + 1];
+        
+        for (long index = first; index < last; index++)
+        {
+            final double result = getResult(file.read(index, position));
+            
+            WeightedEvaluation.getFeatures(position, features);
+            
+            //the score for the player attacking north
+            double score = 0;
+            
+            for (int i = 0; i < features.length; i++)
+            {
+                score += weights[i] * features[i];
+            }
+            
+            final double expected = 1.0 / (1.0 + Math.exp(-scale * score));
+            final double error = result - expected;
+            
+            sums[0] += error * error;
+            
+            if (gradient)
+            {
+                //the derivative of the squared error for each weight
+                final double slope = -2.0 * error * expected * (1.0 - expected) * scale;
+                
+                for (int i = 0; i < features.length; i++)
+                {
+                    sums[i + 1] += slope * features[i];
+                }
+            }
+        }
+        
+        return sums;
+    }
+    
+    /**
+     * Get the result for the player attacking north
+     * @param result The result of the game
+     * @return 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    private static double getResult(final GameRecord.Result result)
+    {
+        switch (result)
+        {
+            case NorthWin:
+                return 1;
+            
+            case SouthWin:
+                return 0;
+            
+            default:
+                return 0.5;
+        }
+    }
+    
+    /**
+     * Find the sigmoid scale that best fits the weights, using a golden section search
+     * @param weights The weights
+     * @return The scale with the lowest error
+     * @throws Exception If a chunk fails
+     */
+    public double getScale(final double[] weights) throws Exception
+    {
+        final double ratio = (Math.sqrt(5) - 1) / 2;
+        
+        double low = SCALE_MIN, high = SCALE_MAX;
+        double scale1 = high - ratio * (high - low), scale2 = low + ratio * (high - low);
+        double error1 = getError(weights, scale1), error2 = getError(weights, scale2);
+        
+        while (high - low > SCALE_PRECISION)
+        {
+            if (error1 < error2)
+            {
+                high = scale2;
+                scale2 = scale1;
+                error2 = error1;
+                scale1 = high - ratio * (high - low);
+                error1 = getError(weights, scale1);
+            }
+            else
+            {
+                low = scale1;
+                scale1 = scale2;
+                error1 = error2;
+                scale2 = low + ratio * (high - low);
+                error2 = getError(weights, scale2);
+            }
+        }
+        
+        return (low + high) / 2;
+    }
+    
+    /**
+     * Tune the weights
+     * @param start The weights to start from
+     * @param iterations The number of gradient steps
+     * @param log Where to report the progress, null if not needed
+     * @return The weights with the lowest error
+     * @throws Exception If a chunk fails
+     */
+    public EvaluationWeights tune(final EvaluationWeights start, final int iterations, final PrintStream log) throws Exception
+    {
+        final int[] values = start.getValues();
+        final double[] weights = new double[values.length];
+        
+        for (int i = 0; i < values.length; i++)
+        {
+            weights[i] = values[i];
+        }
+        
+        //the scale is fit once, the fixed weight keeps the scores in the same units from then on
+        final double scale = getScale(weights);
+        
+        if (log != null)
+            log.println("positions " + file.getCount() + ", scale " + String.format("%.6f", scale) + ", error " + String.format("%.6f", getError(weights, scale)));
+        
+        //the average gradient and average squared gradient of each weight
+        final double[] mean = new double[weights.length];
+        final double[] variance = new double[weights.length];
+        
+        double bestError = Double.MAX_VALUE;
+        int[] best = values;
+        
+        for (int iteration = 1; iteration <= iterations; iteration++)
+        {
+            final double[] result = score(weights, scale, true);
+            
+            //the error is for the weights before this step
+            if (result[0] < bestError)
+            {
+                bestError = result[0];
+                best = round(weights);
+            }
+            
+            for (int i = 0; i < weights.length; i++)
+            {
+                if (i == FIXED.ordinal())
+                    continue;
+                
+                final double gradient = result[i + 1];
+                
+                mean[i] = BETA1 * mean[i] + (1 - BETA1) * gradient;
+                variance[i] = BETA2 * variance[i] + (1 - BETA2) * gradient * gradient;
+                
+                //correct the bias towards 0 of the first steps
+                final double meanCorrected = mean[i] / (1 - Math.pow(BETA1, iteration));
+                final double varianceCorrected = variance[i] / (1 - Math.pow(BETA2, iteration));
+                
+                weights[i] -= LEARNING_RATE * meanCorrected / (Math.sqrt(varianceCorrected) + EPSILON);
+            }
+            
+            if (log != null)
+                log.println("iteration " + iteration + ", error " + String.format("%.6f", result[0]) + ", " + toString(weights));
+        }
+        
+        //check the last step
+        final double error = getError(weights, scale);
+        
+        if (error < bestError)
+        {
+            bestError = error;
+            best = round(weights);
+        }
+        
+        if (log != null)
+            log.println("best error " + String.format("%.6f", bestError));
+        
+        return new EvaluationWeights(best);
+    }
+    
+    private static int[] round(final double[] weights)
+    {
+        final int[] values = new int[weights.length];
+        
+        for (int i = 0; i < weights.length; i++)
+        {
+            values[i] = (int)Math.round(weights[i]);
+        }
+        
+        return values;
+    }
+    
+    private static String toString(final double[] weights)
+    {
+        final StringBuilder text = new StringBuilder();
+        
+        for (EvaluationWeights.Keys key : EvaluationWeights.Keys.values())
+        {
+            text.append((text.length() > 0) ? " " : "").append(key).append("=").append(String.format("%.1f", weights[key.ordinal()]));
+        }
+        
+        return text.toString();
+    }
+    
+    public static void main(final String[] args) throws Exception
+    {
+        final File input = new File((args.length > 0) ? args[0] : TrainingHarvester.DEFAULT_FILE);
+        final int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        final File output = new File((args.length > 2) ? args[2] : DEFAULT_OUTPUT);
+        final int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        
+        final Tuner tuner = new Tuner(TrainingFile.open(input), threads);
+        
+        try
+        {
+            final long time = System.nanoTime();
+            
+            //start from the weights the cpu uses now
+            final EvaluationWeights weights = tuner.tune(EvaluationWeights.getDefault(), iterations, System.out);
+            
+            weights.save(output);
+            
+            System.out.println("time " + ((System.nanoTime() - time) / 1000000L) + "ms, weights " + output.getAbsolutePath());
+        }
+        finally
+        {
+            tuner.dispose();
+        }
+    }
+}
\ No newline at end of file
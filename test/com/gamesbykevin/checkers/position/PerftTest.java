@@ -0,0 +1,328 @@
+package com.gamesbykevin.checkers.position;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Regression tests for the move generator.<br>
+ * The counts from the start of the game are the published perft counts.<br>
+ * The other positions exercise long captures, kings and promotion, their counts are also checked against
+ * a simple reference generator that works on a grid of cells instead of bit masks.
+ * @author GOD
+ */
+public class PerftTest
+{
+    //the deepest depth checked from the start of the game
+    private static final int START_DEPTH = 8;
+    
+    /**
+     * A north king that can capture around a loop of south pieces, and south kings that can capture back
+     */
+    private static final String POSITION_KINGS = "N:....S........sss.N....ssn..S....";
+    
+    /**
+     * North pieces 1 row from being crowned, one of them has to capture onto the last row and the move ends there
+     */
+    private static final String POSITION_PROMOTION = "N:s..s.nsn.n........S.n...........";
+    
+    /**
+     * A crowded middle game with south to move
+     */
+    private static final String POSITION_MIDDLE = "S:sss.s.ssss...sn.nsn.nn.nn.nnn.n.";
+    
+    /**
+     * The counts for POSITION_KINGS, POSITION_PROMOTION and POSITION_MIDDLE for each depth starting at 1
+     */
+    private static final long[] KINGS_COUNTS = { 3L, 3L, 6L, 48L, 65L, 231L, 342L, 1871L, 2636L };
+    private static final long[] PROMOTION_COUNTS = { 1L, 2L, 6L, 13L, 50L, 279L, 1029L, 5617L, 25789L };
+    private static final long[] MIDDLE_COUNTS = { 7L, 19L, 47L, 157L, 511L, 1666L, 5510L, 19115L, 67765L };
+    
+    @Test
+    public void testStart()
+    {
+        final Perft perft = new Perft();
+        
+        for (int depth = 1; depth <= START_DEPTH; depth++)
+        {
+            assertEquals("depth " + depth, Perft.START_COUNTS[depth - 1], perft.perft(Perft.createStart(), depth));
+        }
+    }
+    
+    @Test
+    public void testKings() throws Exception
+    {
+        check(POSITION_KINGS, KINGS_COUNTS);
+    }
+    
+    @Test
+    public void testPromotion() throws Exception
+    {
+        check(POSITION_PROMOTION, PROMOTION_COUNTS);
+    }
+    
+    @Test
+    public void testMiddle() throws Exception
+    {
+        check(POSITION_MIDDLE, MIDDLE_COUNTS);
+    }
+    
+    @Test
+    public void testUnmakeRestoresPosition() throws Exception
+    {
+        final Position position = Position.parse(POSITION_KINGS);
+        final long key = position.getKey();
+        
+        new Perft().perft(position, KINGS_COUNTS.length);
+        
+        assertEquals(POSITION_KINGS, position.toString());
+        assertEquals(key, position.getKey());
+    }
+    
+    /**
+     * Check the counts from the position against the expected counts and the reference generator
+     * @param text The position
+     * @param counts The expected counts for each depth starting at 1
+     */
+    private static void check(final String text, final long[] counts) throws Exception
+    {
+        final Perft perft = new Perft();
+        
+        for (int depth = 1; depth <= counts.length; depth++)
+        {
+            assertEquals(text + " depth " + depth, counts[depth - 1], perft.perft(Position.parse(text), depth));
+            assertEquals(text + " reference depth " + depth, counts[depth - 1], new Reference(text).perft(depth));
+        }
+    }
+    
+    /**
+     * A slow but simple move generator on an 8 x 8 grid, used to confirm the counts.<br>
+     * Moves are told apart the same way as MoveGenerator: the start, the direction of the first hop,
+     * the destination, and the set of pieces captured.
+     */
+    private static final class Reference
+    {
+        private static final int SIZE = 8;
+        
+        //the change in column and row for each direction, north is toward row 0
+        private static final int[] COLUMN = { -1, 1, -1, 1 };
+        private static final int[] ROW = { -1, -1, 1, 1 };
+        
+        //the pieces on the board using the same characters as Position.parse()
+        private final char[][] cells = new char[SIZE][SIZE];
+        
+        private boolean northTurn;
+        
+        private Reference(final String text)
+        {
+            for (int row = 0; row < SIZE; row++)
+            {
+                for (int column = 0; column < SIZE; column++)
+                {
+                    cells[column][row] = '.';
+                }
+            }
+            
+            for (int square = 0; square < 32; square++)
+            {
+                final int row = square / 4;
+                final int column = (square % 4) * 2 + ((row % 2 == 0) ? 1 : 0);
+                
+                cells[column][row] = text.charAt(square + 2);
+            }
+            
+            this.northTurn = (text.charAt(0) == 'N');
+        }
+        
+        private long perft(final int depth)
+        {
+            if (depth == 0)
+                return 1;
+            
+            final List<int[]> moves = generate();
+            
+            long total = 0;
+            
+            for (final int[] move : moves)
+            {
+                final char[][] copy = new char[SIZE][];
+                
+                for (int column = 0; column < SIZE; column++)
+                {
+                    copy[column] = cells[column].clone();
+                }
+                
+                play(move);
+                total += perft(depth - 1);
+                
+                for (int column = 0; column < SIZE; column++)
+                {
+                    cells[column] = copy[column];
+                }
+                
+                northTurn = !northTurn;
+            }
+            
+            return total;
+        }
+        
+        /**
+         * Each move is { start column, start row, end column, end row, crowned, captured cells... }
+         */
+        private List<int[]> generate()
+        {
+            final List<int[]> captures = new ArrayList<>();
+            final List<int[]> steps = new ArrayList<>();
+            final List<String> seen = new ArrayList<>();
+            
+            for (int row = 0; row < SIZE; row++)
+            {
+                for (int column = 0; column < SIZE; column++)
+                {
+                    if (!isOwn(cells[column][row]))
+                        continue;
+                    
+                    final boolean king = Character.isUpperCase(cells[column][row]);
+                    
+                    //the piece leaves its start square while jumping
+                    final char piece = cells[column][row];
+                    cells[column][row] = '.';
+                    jump(column, row, column, row, king, -1, new ArrayList<Integer>(), captures, seen);
+                    cells[column][row] = piece;
+                    
+                    for (int direction = 0; direction < 4; direction++)
+                    {
+                        if (!king && !isForward(direction))
+                            continue;
+                        
+                        final int c = column + COLUMN[direction];
+                        final int r = row + ROW[direction];
+                        
+                        if (isInside(c, r) && cells[c][r] == '.')
+                            steps.add(new int[] { column, row, c, r, (!king && r == getCrownRow()) ? 1 : 0 });
+                    }
+                }
+            }
+            
+            return (captures.isEmpty()) ? steps : captures;
+        }
+        
+        private void jump(
+            final int startColumn, final int startRow, final int column, final int row, final boolean king,
+            final int firstDirection, final List<Integer> captured, final List<int[]> moves, final List<String> seen)
+        {
+            boolean jumped = false;
+            
+            for (int direction = 0; direction < 4; direction++)
+            {
+                if (!king && !isForward(direction))
+                    continue;
+                
+                final int c = column + COLUMN[direction];
+                final int r = row + ROW[direction];
+                final int landingColumn = c + COLUMN[direction];
+                final int landingRow = r + ROW[direction];
+                
+                if (!isInside(landingColumn, landingRow) || !isOpponent(cells[c][r]) || captured.contains(c * SIZE + r))
+                    continue;
+                
+                //captured pieces are removed right away, so we can land where one was
+                if (cells[landingColumn][landingRow] != '.' && !captured.contains(landingColumn * SIZE + landingRow))
+                    continue;
+                
+                jumped = true;
+                
+                final List<Integer> next = new ArrayList<>(captured);
+                next.add(c * SIZE + r);
+                
+                final int first = (firstDirection < 0) ? direction : firstDirection;
+                
+                //a regular piece that is crowned ends the move
+                if (!king && landingRow == getCrownRow())
+                {
+                    record(startColumn, startRow, landingColumn, landingRow, true, first, next, moves, seen);
+                    continue;
+                }
+                
+                jump(startColumn, startRow, landingColumn, landingRow, king, first, next, moves, seen);
+            }
+            
+            if (!jumped && !captured.isEmpty())
+                record(startColumn, startRow, column, row, false, firstDirection, captured, moves, seen);
+        }
+        
+        private void record(
+            final int startColumn, final int startRow, final int column, final int row, final boolean crowned,
+            final int firstDirection, final List<Integer> captured, final List<int[]> moves, final List<String> seen)
+        {
+            final List<Integer> sorted = new ArrayList<>(captured);
+            java.util.Collections.sort(sorted);
+            
+            //different paths can lead to the exact same move
+            final String id = startColumn + "," + startRow + "," + firstDirection + "," + column + "," + row + "," + sorted;
+            
+            if (seen.contains(id))
+                return;
+            
+            seen.add(id);
+            
+            final int[] move = new int[5 + sorted.size()];
+            move[0] = startColumn;
+            move[1] = startRow;
+            move[2] = column;
+            move[3] = row;
+            move[4] = (crowned) ? 1 : 0;
+            
+            for (int index = 0; index < sorted.size(); index++)
+            {
+                move[5 + index] = sorted.get(index);
+            }
+            
+            moves.add(move);
+        }
+        
+        private void play(final int[] move)
+        {
+            final char piece = cells[move[0]][move[1]];
+            
+            cells[move[0]][move[1]] = '.';
+            
+            for (int index = 5; index < move.length; index++)
+            {
+                cells[move[index] / SIZE][move[index] % SIZE] = '.';
+            }
+            
+            cells[move[2]][move[3]] = (move[4] == 1) ? Character.toUpperCase(piece) : piece;
+            
+            northTurn = !northTurn;
+        }
+        
+        private boolean isOwn(final char piece)
+        {
+            return (northTurn) ? (piece == 'n' || piece == 'N') : (piece == 's' || piece == 'S');
+        }
+        
+        private boolean isOpponent(final char piece)
+        {
+            return (northTurn) ? (piece == 's' || piece == 'S') : (piece == 'n' || piece == 'N');
+        }
+        
+        private boolean isForward(final int direction)
+        {
+            return (northTurn) ? (ROW[direction] < 0) : (ROW[direction] > 0);
+        }
+        
+        private int getCrownRow()
+        {
+            return (northTurn) ? 0 : SIZE - 1;
+        }
+        
+        private static boolean isInside(final int column, final int row)
+        {
+            return (column >= 0 && column < SIZE && row >= 0 && row < SIZE);
+        }
+    }
+}
\ No newline at end of file